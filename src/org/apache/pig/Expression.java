@@ -17,6 +17,7 @@
  */
 package org.apache.pig;
 
+import java.io.Serializable;
 import java.util.List;
 
 import org.apache.pig.classification.InterfaceAudience;
@@ -28,7 +29,9 @@ import org.apache.pig.classification.InterfaceStability;
  */
 @InterfaceAudience.Public
 @InterfaceStability.Evolving
-public abstract class Expression {
+public abstract class Expression implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
  // Operator type
     public static  enum OpType {
@@ -25,6 +25,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.DistinctCombiner;
 import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.PigCombiner;
 import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.PigGenericMapReduce;
+import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.PigRecordReader;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.PhysicalOperator;
 import org.apache.pig.classification.InterfaceAudience;
 import org.apache.pig.classification.InterfaceStability;
@@ -46,6 +47,7 @@ public class JVMReuseImpl {
         PhysicalOperator.staticDataCleanup();
         PigContext.staticDataCleanup();
         PigGenericMapReduce.staticDataCleanup();
+        PigRecordReader.staticDataCleanup();
         PigStatusReporter.staticDataCleanup();
         PigCombiner.Combine.staticDataCleanup();
         DistinctCombiner.Combine.staticDataCleanup();
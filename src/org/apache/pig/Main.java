@@ -75,6 +75,8 @@ import org.apache.pig.parser.DryRunGruntParser;
 import org.apache.pig.scripting.ScriptEngine;
 import org.apache.pig.scripting.ScriptEngine.SupportedScriptLang;
 import org.apache.pig.tools.cmdline.CmdLineParser;
+import org.apache.pig.tools.daemon.PigDaemon;
+import org.apache.pig.tools.daemon.PigDaemonClient;
 import org.apache.pig.tools.grunt.ConsoleReaderInputStream;
 import org.apache.pig.tools.grunt.Grunt;
 import org.apache.pig.tools.pigstats.PigProgressNotificationListener;
@@ -172,9 +174,40 @@ public class Main {
      * @throws IOException
      */
     public static void main(String args[]) {
+        if (args.length > 0 && PigDaemon.DAEMON_OPTION.equals(args[0])) {
+            System.exit(PigDaemon.run());
+        }
+        if (Boolean.getBoolean(PigDaemon.USE_DAEMON) && isScriptRun(args)) {
+            // Run the script in the JVM of a daemon already initialized
+            Integer rc = PigDaemonClient.run(args, System.out, System.err);
+            if (rc != null) {
+                System.exit(rc);
+            }
+        }
         System.exit(run(args, null));
     }
 
+    /**
+     * @return true if the arguments run a script instead of a shell
+     */
+    private static boolean isScriptRun(String args[]) {
+        CmdLineParser opts = createOptionParser(args);
+        try {
+            char opt;
+            while ((opt = opts.getNextOpt()) != CmdLineParser.EndOfOpts) {
+                if (opt == 'e' || opt == 'f') {
+                    return true;
+                } else if (opt == 'h' || opt == 'i') {
+                    return false;
+                }
+            }
+        } catch (ParseException e) {
+            // Hadoop generic options are only parsed by run()
+            return false;
+        }
+        return opts.getRemainingArgs() != null;
+    }
+
     static int run(String args[], PigProgressNotificationListener listener) {
         DateTime startTime = new DateTime();
         int rc = 1;
@@ -210,28 +243,7 @@ public class Main {
             List<String> paramFiles = new ArrayList<String>();
             HashSet<String> disabledOptimizerRules = new HashSet<String>();
 
-            CmdLineParser opts = new CmdLineParser(pigArgs);
-            opts.registerOpt('4', "log4jconf", CmdLineParser.ValueExpected.REQUIRED);
-            opts.registerOpt('b', "brief", CmdLineParser.ValueExpected.NOT_ACCEPTED);
-            opts.registerOpt('c', "check", CmdLineParser.ValueExpected.NOT_ACCEPTED);
-            opts.registerOpt('d', "debug", CmdLineParser.ValueExpected.REQUIRED);
-            opts.registerOpt('e', "execute", CmdLineParser.ValueExpected.NOT_ACCEPTED);
-            opts.registerOpt('f', "file", CmdLineParser.ValueExpected.REQUIRED);
-            opts.registerOpt('g', "embedded", CmdLineParser.ValueExpected.REQUIRED);
-            opts.registerOpt('h', "help", CmdLineParser.ValueExpected.OPTIONAL);
-            opts.registerOpt('i', "version", CmdLineParser.ValueExpected.OPTIONAL);
-            opts.registerOpt('l', "logfile", CmdLineParser.ValueExpected.REQUIRED);
-            opts.registerOpt('m', "param_file", CmdLineParser.ValueExpected.OPTIONAL);
-            opts.registerOpt('p', "param", CmdLineParser.ValueExpected.OPTIONAL);
-            opts.registerOpt('r', "dryrun", CmdLineParser.ValueExpected.NOT_ACCEPTED);
-            opts.registerOpt('t', "optimizer_off", CmdLineParser.ValueExpected.REQUIRED);
-            opts.registerOpt('v', "verbose", CmdLineParser.ValueExpected.NOT_ACCEPTED);
-            opts.registerOpt('w', "warning", CmdLineParser.ValueExpected.NOT_ACCEPTED);
-            opts.registerOpt('x', "exectype", CmdLineParser.ValueExpected.REQUIRED);
-            opts.registerOpt('F', "stop_on_failure", CmdLineParser.ValueExpected.NOT_ACCEPTED);
-            opts.registerOpt('M', "no_multiquery", CmdLineParser.ValueExpected.NOT_ACCEPTED);
-            opts.registerOpt('N', "no_fetch", CmdLineParser.ValueExpected.NOT_ACCEPTED);
-            opts.registerOpt('P', "propertyFile", CmdLineParser.ValueExpected.REQUIRED);
+            CmdLineParser opts = createOptionParser(pigArgs);
 
             ExecMode mode = ExecMode.UNKNOWN;
             String file = null;
@@ -687,6 +699,32 @@ public class Main {
         return rc;
     }
 
+    private static CmdLineParser createOptionParser(String[] pigArgs) {
+        CmdLineParser opts = new CmdLineParser(pigArgs);
+        opts.registerOpt('4', "log4jconf", CmdLineParser.ValueExpected.REQUIRED);
+        opts.registerOpt('b', "brief", CmdLineParser.ValueExpected.NOT_ACCEPTED);
+        opts.registerOpt('c', "check", CmdLineParser.ValueExpected.NOT_ACCEPTED);
+        opts.registerOpt('d', "debug", CmdLineParser.ValueExpected.REQUIRED);
+        opts.registerOpt('e', "execute", CmdLineParser.ValueExpected.NOT_ACCEPTED);
+        opts.registerOpt('f', "file", CmdLineParser.ValueExpected.REQUIRED);
+        opts.registerOpt('g', "embedded", CmdLineParser.ValueExpected.REQUIRED);
+        opts.registerOpt('h', "help", CmdLineParser.ValueExpected.OPTIONAL);
+        opts.registerOpt('i', "version", CmdLineParser.ValueExpected.OPTIONAL);
+        opts.registerOpt('l', "logfile", CmdLineParser.ValueExpected.REQUIRED);
+        opts.registerOpt('m', "param_file", CmdLineParser.ValueExpected.OPTIONAL);
+        opts.registerOpt('p', "param", CmdLineParser.ValueExpected.OPTIONAL);
+        opts.registerOpt('r', "dryrun", CmdLineParser.ValueExpected.NOT_ACCEPTED);
+        opts.registerOpt('t', "optimizer_off", CmdLineParser.ValueExpected.REQUIRED);
+        opts.registerOpt('v', "verbose", CmdLineParser.ValueExpected.NOT_ACCEPTED);
+        opts.registerOpt('w', "warning", CmdLineParser.ValueExpected.NOT_ACCEPTED);
+        opts.registerOpt('x', "exectype", CmdLineParser.ValueExpected.REQUIRED);
+        opts.registerOpt('F', "stop_on_failure", CmdLineParser.ValueExpected.NOT_ACCEPTED);
+        opts.registerOpt('M', "no_multiquery", CmdLineParser.ValueExpected.NOT_ACCEPTED);
+        opts.registerOpt('N', "no_fetch", CmdLineParser.ValueExpected.NOT_ACCEPTED);
+        opts.registerOpt('P', "propertyFile", CmdLineParser.ValueExpected.REQUIRED);
+        return opts;
+    }
+
     private static void printScriptRunTime(DateTime startTime) {
         DateTime endTime = new DateTime();
         Duration duration = new Duration(startTime, endTime);
@@ -944,6 +982,8 @@ public class Main {
             System.out.println("    -P, -propertyFile - Path to property file");
             System.out.println("    -printCmdDebug - Overrides anything else and prints the actual command used to run Pig, including");
             System.out.println("                     any environment variables that are set by the pig command.");
+            System.out.println("    -daemon - Only as first option, run a daemon keeping a JVM initialized for the scripts of pig");
+            System.out.println("              commands started from the same directory with -Dpig.use.daemon=true in PIG_OPTS.");
     }
 
     public static void printProperties(){
@@ -40,6 +40,14 @@ public class PigConfiguration {
      */
     public static final String PIG_AUTO_LOCAL_INPUT_MAXBYTES = "pig.auto.local.input.maxbytes";
 
+    /**
+     * Number of tasks run concurrently within the client JVM in local mode, and for
+     * jobs converted to local mode. Applies to the map and reduce tasks of the
+     * MapReduce local job runner, the tasks of Tez local mode and the Spark local
+     * master. Values less than 1 use the number of available processors. Default is 1
+     */
+    public static final String PIG_LOCAL_PARALLELISM = "pig.local.parallelism";
+
 
     /**
      * Sets the length of record markers in binary files produces by Pig between jobs
@@ -63,6 +71,26 @@ public class PigConfiguration {
      */
     public static final String PIG_OPT_FETCH = "opt.fetch";
 
+    /**
+     * Number of input splits read concurrently when fetching, each by its own
+     * copy of the plan. 1 by default, which reads the splits one after the other
+     */
+    public static final String PIG_FETCH_PARALLELISM = "pig.fetch.parallelism";
+
+    /**
+     * Boolean value used to keep the records of splits fetched concurrently in
+     * the order of the splits, as when they are read one after the other. When
+     * false, records are returned as soon as any split produces them. True by default
+     */
+    public static final String PIG_FETCH_ORDERED = "pig.fetch.ordered";
+
+    /**
+     * Maximum total size in bytes of the replicated inputs of a
+     * fragment-replicated join for the join to be run by fetching. 0 by
+     * default, which leaves plans with replicated joins to be run as jobs
+     */
+    public static final String PIG_FETCH_REPLICATED_MAX_BYTES = "pig.fetch.replicated.max.bytes";
+
     // Pig query planning and execution optimizations
     /**
      * Boolean value used to enable or disable multiquery optimization. True by default
@@ -75,10 +103,43 @@ public class PigConfiguration {
     public static final String PIG_OPT_ACCUMULATOR = "opt.accumulator";
     public static final String PIG_ACCUMULATIVE_BATCHSIZE = "pig.accumulative.batchsize";
 
+    /**
+     * Boolean value used to enable or disable ordering the inputs of hash joins
+     * based on their estimated size, so that the largest one is streamed
+     * through the join instead of being held in memory. False by default
+     */
+    public static final String PIG_OPT_JOIN_ORDER = "opt.join.order";
+
+    /**
+     * This key is used to turn on size based join strategy selection. When
+     * set, a default (hash) join whose inputs other than the first one are
+     * known to be smaller than {@link #PIG_AUTO_REPLICATED_JOIN_MAX_BYTES} is
+     * run as a fragment-replicated join. Chains of such joins run in a single
+     * task. Default is false.
+     */
+    public static final String PIG_AUTO_REPLICATED_JOIN = "pig.auto.replicated.join";
+    /**
+     * Total size in bytes of the replicated inputs held in memory by a task
+     * under which {@link #PIG_AUTO_REPLICATED_JOIN} turns hash joins into
+     * fragment-replicated joins. Default is 67108864 (64MB)
+     */
+    public static final String PIG_AUTO_REPLICATED_JOIN_MAX_BYTES = "pig.auto.replicated.join.max.bytes";
+    public static final long PIG_AUTO_REPLICATED_JOIN_MAX_BYTES_DEFAULT = 67108864L;
+
     /**
      * This key is used to enable or disable union optimization in tez. True by default
      */
     public static final String PIG_TEZ_OPT_UNION = "pig.tez.opt.union";
+
+    /**
+     * Boolean value to enable or disable hash grouping in tez. When enabled, group by
+     * followed only by algebraic functions shuffles over an unordered edge and groups
+     * the records in a hash table in the reducer instead of sorting them. Map side
+     * partial aggregation is turned on for such group by. The hash table uses up to
+     * {@link #PIG_CACHEDBAG_MEMUSAGE} of the memory and spills to disk beyond that.
+     * Disabled by default
+     */
+    public static final String PIG_TEZ_HASH_GROUPING = "pig.tez.hash.grouping";
     /**
      * These keys are used to enable or disable tez union optimization for
      * specific StoreFuncs. Optimization should be turned off for those
@@ -207,6 +268,16 @@ public class PigConfiguration {
      * To turn off combiner when most of the keys are unique.
      */
     public static final String PIG_BLOOMJOIN_NOCOMBINER = "pig.bloomjoin.nocombiner";
+
+    /**
+     * Push the min/max range of the join keys computed by the map strategy of
+     * bloom join into the loader of the other inputs when it implements
+     * {@link LoadPredicatePushdown} and reads the join key column directly.
+     * Loaders like OrcStorage can then skip stripes and row groups that cannot
+     * match. Opening the record reader is delayed till the range is available.
+     * Default is false.
+     */
+    public static final String PIG_BLOOMJOIN_LOADER_PUSHDOWN = "pig.bloomjoin.loader.pushdown";
     /**
      * This key used to control the maximum size loaded into
      * the distributed cache when doing fragment-replicated join
@@ -224,6 +295,24 @@ public class PigConfiguration {
     // Pig reducer parallelism estimation settings
     public static final String PIG_EXEC_REDUCER_ESTIMATOR = "pig.exec.reducer.estimator";
     public static final String PIG_EXEC_REDUCER_ESTIMATOR_CONSTRUCTOR_ARG_KEY =  "pig.exec.reducer.estimator.arg";
+
+    /**
+     * Boolean value to enable recording the number of bytes and records read
+     * and written by each run in a {@link org.apache.pig.tools.pigstats.StatisticsStore},
+     * so that later runs can use them to plan. False by default
+     */
+    public static final String PIG_STATS_STORE_ENABLED = "pig.stats.store.enabled";
+    /**
+     * Class of the {@link org.apache.pig.tools.pigstats.StatisticsStore} to use.
+     * Default is {@link org.apache.pig.tools.pigstats.FileStatisticsStore}
+     */
+    public static final String PIG_STATS_STORE = "pig.stats.store";
+    public static final String PIG_STATS_STORE_CONSTRUCTOR_ARG_KEY = "pig.stats.store.arg";
+    /**
+     * Local file used by {@link org.apache.pig.tools.pigstats.FileStatisticsStore}.
+     * Default is .pigstats in the home directory of the user
+     */
+    public static final String PIG_STATS_STORE_FILE = "pig.stats.store.file";
     /**
      * This key is used to configure auto parallelism in tez. Default is true.
      */
@@ -232,6 +321,20 @@ public class PigConfiguration {
      * This key is used to configure grace parallelism in tez. Default is true.
      */
     public static final String PIG_TEZ_GRACE_PARALLELISM = "pig.tez.grace.parallelism";
+    /**
+     * This key is used to turn on size based join strategy selection in tez.
+     * When set, a default (hash) join whose inputs other than the first one
+     * are known to be smaller than {@link #PIG_TEZ_AUTO_REPLICATED_JOIN_MAX_BYTES}
+     * is run as a fragment-replicated join over broadcast edges. Default is false.
+     */
+    public static final String PIG_TEZ_AUTO_REPLICATED_JOIN = "pig.tez.auto.replicated.join";
+    /**
+     * Total input size in bytes of the replicated side under which
+     * {@link #PIG_TEZ_AUTO_REPLICATED_JOIN} turns a hash join into a
+     * fragment-replicated join. Default is 67108864 (64MB)
+     */
+    public static final String PIG_TEZ_AUTO_REPLICATED_JOIN_MAX_BYTES = "pig.tez.auto.replicated.join.max.bytes";
+    public static final long PIG_TEZ_AUTO_REPLICATED_JOIN_MAX_BYTES_DEFAULT = 67108864L;
     /**
      * This key is used to turn off dag recovery if there is auto parallelism.
      * Default is false. Useful when running with Tez versions before Tez 0.8
@@ -354,6 +457,60 @@ public class PigConfiguration {
      */
     public static final String PIG_DELETE_TEMP_FILE = "pig.delete.temp.files";
 
+    /**
+     * Boolean value to keep the intermediate results of MapReduce jobs in a cache directory and
+     * reuse them in later runs that compute the same results from unchanged inputs. False by default
+     */
+    public static final String PIG_RESULT_CACHE_ENABLED = "pig.result.cache.enabled";
+
+    /**
+     * Location of the intermediate results cache. Default is pig-result-cache under pig.temp.dir
+     */
+    public static final String PIG_RESULT_CACHE_DIR = "pig.result.cache.dir";
+
+    /**
+     * Time in seconds after which an unused entry of the intermediate results cache is removed.
+     * Default is 604800 (7 days)
+     */
+    public static final String PIG_RESULT_CACHE_TTL = "pig.result.cache.ttl";
+
+    /**
+     * Maximum size in bytes of the intermediate results cache. The least recently used entries
+     * are removed beyond it. -1 for no limit. Default is 10737418240 (10GB)
+     */
+    public static final String PIG_RESULT_CACHE_MAX_BYTES = "pig.result.cache.max.bytes";
+
+    /**
+     * Boolean value to only process the input files added since the previous run in MapReduce
+     * jobs grouping their input with algebraic functions, and merge their results with the ones
+     * kept from that run. False by default
+     */
+    public static final String PIG_INCREMENTAL_ENABLED = "pig.incremental.enabled";
+
+    /**
+     * Location of the results kept between incremental runs. Default is pig-incremental under
+     * pig.temp.dir
+     */
+    public static final String PIG_INCREMENTAL_DIR = "pig.incremental.dir";
+
+    /**
+     * Boolean value to keep the physical plans compiled for scripts in a local directory and
+     * reuse them when the same script is submitted again. False by default
+     */
+    public static final String PIG_PLAN_CACHE_ENABLED = "pig.plan.cache.enabled";
+
+    /**
+     * Local directory of the physical plan cache. Default is pig-plan-cache-${user.name} under
+     * java.io.tmpdir
+     */
+    public static final String PIG_PLAN_CACHE_DIR = "pig.plan.cache.dir";
+
+    /**
+     * Time in seconds after which an unused plan of the physical plan cache is removed.
+     * Default is 604800 (7 days)
+     */
+    public static final String PIG_PLAN_CACHE_TTL = "pig.plan.cache.ttl";
+
 
     //Pig skewedjoin and order by sampling settings
     /**
@@ -367,6 +524,12 @@ public class PigConfiguration {
      */
     public static final String PIG_RANDOM_SAMPLER_SAMPLE_SIZE = "pig.random.sampler.sample.size";
 
+    /**
+     * Largest limit of an ORDER BY ... LIMIT for which each task keeps only its first records
+     * in a bounded heap before the shuffle, and a single reducer merges them without sampling
+     * the input. 0 to always sample and sort the whole input. Default is 10000
+     */
+    public static final String PIG_SORT_TOPN_MAX_LIMIT = "pig.sort.topn.max.limit";
 
     //Pig miscellaneous settings
     /**
@@ -462,6 +625,12 @@ public class PigConfiguration {
      */
     public static final String PIG_ARTIFACTS_DOWNLOAD_LOCATION = "pig.artifacts.download.location";
 
+    /**
+     * If set, MapReduce jobs are submitted as soon as the jobs they depend on have succeeded,
+     * instead of waiting for all the jobs submitted with them to complete. Default is true
+     */
+    public static final String PIG_JOBCONTROL_EAGER_SUBMIT = "pig.jobcontrol.eager.submit";
+
     // Pig on Tez runtime settings
     /**
      * This key is used to define whether to reuse AM in Tez jobs.
@@ -473,6 +642,12 @@ public class PigConfiguration {
      */
     public static final String PIG_TEZ_DAG_STATUS_REPORT_INTERVAL = "pig.tez.dag.status.report.interval";
 
+    /**
+     * This key is used to configure the maximum number of independent DAGs of a script run
+     * at the same time, each in its own Tez session. Default is 1
+     */
+    public static final String PIG_TEZ_DAG_CONCURRENCY = "pig.tez.dag.concurrency";
+
 
     // SpillableMemoryManager settings
 
@@ -508,6 +683,14 @@ public class PigConfiguration {
      */
     public static final String PIG_SPARK_USE_NETTY_FILESERVER = "pig.spark.rpc.useNettyFileServer";
 
+    /**
+     * Storage level used by Pig on Spark to persist the RDD of a relation consumed by several
+     * branches of a job, such as the input of a split, instead of recomputing it for each of them.
+     * Takes the name of a Spark StorageLevel, e.g. MEMORY_AND_DISK_SER or OFF_HEAP. NONE disables
+     * it. Default is MEMORY_AND_DISK
+     */
+    public static final String PIG_SPARK_PERSIST_STORAGE_LEVEL = "pig.spark.persist.storagelevel";
+
     /**
      * Enable ATS for Pig
      */
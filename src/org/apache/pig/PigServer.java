@@ -44,6 +44,7 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
@@ -57,7 +58,11 @@ import org.apache.pig.backend.executionengine.ExecException;
 import org.apache.pig.backend.executionengine.ExecJob;
 import org.apache.pig.backend.executionengine.ExecJob.JOB_STATUS;
 import org.apache.pig.backend.hadoop.PigATSClient;
+import org.apache.pig.backend.hadoop.datastorage.ConfigurationUtil;
+import org.apache.pig.backend.hadoop.executionengine.HExecutionEngine;
 import org.apache.pig.backend.hadoop.executionengine.HJob;
+import org.apache.pig.backend.hadoop.executionengine.PhysicalPlanCache;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
 import org.apache.pig.builtin.PigStorage;
 import org.apache.pig.classification.InterfaceAudience;
 import org.apache.pig.classification.InterfaceStability;
@@ -91,6 +96,7 @@ import org.apache.pig.newplan.logical.relational.LogicalRelationalOperator;
 import org.apache.pig.newplan.logical.relational.LogicalSchema;
 import org.apache.pig.parser.QueryParserDriver;
 import org.apache.pig.parser.QueryParserUtils;
+import org.apache.pig.parser.SourceLocation;
 import org.apache.pig.pen.ExampleGenerator;
 import org.apache.pig.scripting.ScriptEngine;
 import org.apache.pig.tools.grunt.GruntParser;
@@ -100,6 +106,7 @@ import org.apache.pig.tools.pigstats.OutputStats;
 import org.apache.pig.tools.pigstats.PigStats;
 import org.apache.pig.tools.pigstats.PigStats.JobGraph;
 import org.apache.pig.tools.pigstats.ScriptState;
+import org.apache.pig.tools.pigstats.StatisticsStoreUtil;
 import org.apache.pig.validator.BlackAndWhitelistFilter;
 import org.apache.pig.validator.PigCommandFilter;
 
@@ -892,14 +899,22 @@ public class PigServer {
             if ("@".equals(alias)) {
                 alias = getLastRel();
             }
-            LogicalRelationalOperator op = getOperatorForAlias( alias );
-            LogicalSchema schema = op.getSchema();
+            Schema s;
+            if (currDAG.isDescribed(alias)) {
+                // The statements defining alias did not change since it was
+                // described, the script is not parsed and validated again
+                s = currDAG.getDescribedSchema(alias);
+            } else {
+                LogicalRelationalOperator op = getOperatorForAlias( alias );
+                LogicalSchema schema = op.getSchema();
+                s = schema == null ? null : org.apache.pig.newplan.logical.Util.translateSchema(schema);
+                currDAG.setDescribedSchema(alias, s);
+            }
 
             boolean pretty = "true".equals(pigContext.getProperties()
                                    .getProperty(PRETTY_PRINT_SCHEMA_PROPERTY));
 
-            if (schema != null) {
-                Schema s = org.apache.pig.newplan.logical.Util.translateSchema(schema);
+            if (s != null) {
                 System.out.println(alias + ": " + (pretty ? s.prettyPrint() : s.toString()));
                 return s;
             } else {
@@ -1459,6 +1474,26 @@ public class PigServer {
             FrontendException {
         // discover pig features used in this script
         ScriptState.get().setScriptFeatures(currDAG.lp);
+
+        if (PhysicalPlanCache.isEnabled(pigContext)) {
+            // Reuse the plan compiled by a previous submission of the script
+            PhysicalPlanCache planCache = new PhysicalPlanCache(pigContext);
+            String key;
+            try {
+                key = planCache.getKey(StringUtils.join(currDAG.getScriptCache(), "\n"), currDAG.lp);
+            } catch (IOException e) {
+                throw new FrontendException("Unable to identify the plan of the script", e);
+            }
+            PhysicalPlan pp = planCache.get(key);
+            if (pp == null) {
+                currDAG.lp.optimize(pigContext);
+                pp = ((HExecutionEngine) pigContext.getExecutionEngine()).compile(currDAG.lp,
+                        pigContext.getProperties());
+                planCache.put(key, pp, scope);
+            }
+            return launchPlan(currDAG.lp, pp, "job_pigexec_");
+        }
+
         currDAG.lp.optimize(pigContext);
 
         return launchPlan(currDAG.lp, "job_pigexec_");
@@ -1473,10 +1508,19 @@ public class PigServer {
      * @throws FrontendException
      */
     protected PigStats launchPlan(LogicalPlan lp, String jobName) throws ExecException, FrontendException {
+        return launchPlan(lp, null, jobName);
+    }
+
+    private PigStats launchPlan(LogicalPlan lp, PhysicalPlan pp, String jobName)
+            throws ExecException, FrontendException {
 
         PigStats stats = null;
         try {
-            stats = pigContext.getExecutionEngine().launchPig(lp, jobName, pigContext);
+            if (pp == null) {
+                stats = pigContext.getExecutionEngine().launchPig(lp, jobName, pigContext);
+            } else {
+                stats = ((HExecutionEngine) pigContext.getExecutionEngine()).launchPig(pp, jobName, pigContext);
+            }
         } catch (ExecException e) {
             throw e;
         } catch (FrontendException e) {
@@ -1489,6 +1533,10 @@ public class PigServer {
             throw new ExecException(msg, errCode, PigException.BUG, e);
         }
 
+        if (stats != null) {
+            StatisticsStoreUtil.recordStatistics(stats,
+                    ConfigurationUtil.toConfiguration(pigContext.getProperties(), false));
+        }
         return stats;
     }
 
@@ -1552,6 +1600,11 @@ public class PigServer {
 
         private int currentLineNum = 0;
 
+        // Schemas of the aliases described, by alias, with the location of
+        // the statement defining the alias and the properties they were
+        // computed with
+        private final Map<String, DescribedSchema> describedSchemas = new HashMap<String, DescribedSchema>();
+
         public Graph(boolean batchMode) {
             this.batchMode = batchMode;
             this.lp = new LogicalPlan();
@@ -1563,6 +1616,47 @@ public class PigServer {
         private void countExecutedStores() throws FrontendException {
             List<LOStore> sinks = Util.getLogicalRelationalOperators(lp, LOStore.class);
             processedStores += sinks.size();
+            // Loaders may find new schemas in the stored locations
+            describedSchemas.clear();
+        }
+
+        /**
+         * @return true if the schema of alias was described before and
+         * neither its statement nor the statements before it changed
+         */
+        boolean isDescribed(String alias) {
+            DescribedSchema described = describedSchemas.get(alias);
+            return described != null && described.location.equals(getDefinition(alias))
+                    && described.properties == pigContext.getProperties().hashCode();
+        }
+
+        Schema getDescribedSchema(String alias) {
+            Schema schema = describedSchemas.get(alias).schema;
+            return schema == null ? null : new Schema(schema);
+        }
+
+        void setDescribedSchema(String alias, Schema schema) {
+            String location = getDefinition(alias);
+            if (location != null) {
+                describedSchemas.put(alias, new DescribedSchema(location,
+                        pigContext.getProperties().hashCode(), schema == null ? null : new Schema(schema)));
+            }
+        }
+
+        /**
+         * Statements are only appended to the script of an interactive
+         * session, the location of the statement defining an alias
+         * identifies the statements its schema depends on.
+         * @return the location of the statement defining alias in the last
+         * parsed script, null if unknown
+         */
+        private String getDefinition(String alias) {
+            Operator op = operators.get(alias);
+            if (batchMode || op == null || op.getLocation() == null || op.getLocation().line() == -1) {
+                return null;
+            }
+            SourceLocation location = op.getLocation();
+            return location.file() + ":" + location.line() + ":" + location.offset();
         }
 
         Map<LogicalRelationalOperator, LogicalPlan> getAliases() {
@@ -1967,6 +2061,18 @@ public class PigServer {
         }
     }
 
+    private static class DescribedSchema {
+        private final String location;
+        private final int properties;
+        private final Schema schema;
+
+        DescribedSchema(String location, int properties, Schema schema) {
+            this.location = location;
+            this.properties = properties;
+            this.schema = schema;
+        }
+    }
+
     /**
      * This can be called to indicate if the query is being parsed/compiled
      * in a mode that expects each statement to be validated as it is
@@ -79,6 +79,10 @@ public class PigJobControl extends JobControl {
 
   protected int timeToSleep;
 
+  // Set when jobs are added while the thread is running, so that it checks
+  // them right away instead of waiting for timeToSleep
+  private boolean jobsAdded = false;
+
   /**
    * Construct a job control for a group of jobs.
    * @param groupName a name identifying this group
@@ -98,6 +102,34 @@ public class PigJobControl extends JobControl {
     this.timeToSleep = timeToSleep;
   }
 
+  @Override
+  public synchronized String addJob(ControlledJob aJob) {
+    String id = super.addJob(aJob);
+    jobsAdded = true;
+    notifyAll();
+    return id;
+  }
+
+  @Override
+  public void stop() {
+    super.stop();
+    synchronized(this) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * Waits until a job of this group completes, a job is added or the
+   * thread stops, or at most timeout milliseconds.
+   * @param timeout the maximum time to wait in milliseconds
+   * @throws InterruptedException
+   */
+  public synchronized void waitForUpdate(long timeout) throws InterruptedException {
+    if (getThreadState() == ThreadState.RUNNING || getThreadState() == ThreadState.SUSPENDED) {
+      wait(timeout);
+    }
+  }
+
   private void setRunnerState(ThreadState state) {
     try {
       runnerState.set(this, state);
@@ -173,6 +205,8 @@ public class PigJobControl extends JobControl {
         }
 
         synchronized(this) {
+          jobsAdded = false;
+          boolean jobsCompleted = false;
           Iterator<ControlledJob> it = getJobs(jobsInProgress).iterator();
           if (!it.hasNext()) {
               stop();
@@ -195,11 +229,13 @@ public class PigJobControl extends JobControl {
             case SUCCESS:
               getJobs(successfulJobs).add(j);
               it.remove();
+              jobsCompleted = true;
               break;
             case FAILED:
             case DEPENDENT_FAILED:
               getJobs(failedJobs).add(j);
               it.remove();
+              jobsCompleted = true;
               break;
             case READY:
               submit(j);
@@ -210,17 +246,25 @@ public class PigJobControl extends JobControl {
               break;
             }
           }
+          if (jobsCompleted) {
+            // Wake up the launcher waiting in waitForUpdate
+            notifyAll();
+          }
         }
 
         if (getRunnerState() != ThreadState.RUNNING &&
             getRunnerState() != ThreadState.SUSPENDED) {
           break;
         }
-        try {
-          Thread.sleep(timeToSleep);
-        }
-        catch (Exception e) {
-          //TODO the thread was interrupted, do something!!!
+        synchronized(this) {
+          try {
+            if (!jobsAdded) {
+              wait(timeToSleep);
+            }
+          }
+          catch (Exception e) {
+            //TODO the thread was interrupted, do something!!!
+          }
         }
         if (getRunnerState() != ThreadState.RUNNING &&
             getRunnerState() != ThreadState.SUSPENDED) {
@@ -233,6 +277,9 @@ public class PigJobControl extends JobControl {
       failAllJobs(t);
     }
     setRunnerState(ThreadState.STOPPED);
+    synchronized(this) {
+      notifyAll();
+    }
   }
 
 
@@ -33,6 +33,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.hdfs.DistributedFileSystem;
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.pig.PigConfiguration;
 import org.apache.pig.PigException;
 import org.apache.pig.backend.BackendException;
 import org.apache.pig.backend.datastorage.DataStorage;
@@ -58,6 +59,7 @@ import org.apache.pig.impl.plan.VisitorException;
 import org.apache.pig.impl.streaming.ExecutableManager;
 import org.apache.pig.impl.util.Utils;
 import org.apache.pig.newplan.Operator;
+import org.apache.pig.newplan.logical.optimizer.ReplicatedJoinSelector;
 import org.apache.pig.newplan.logical.relational.LOForEach;
 import org.apache.pig.newplan.logical.relational.LogToPhyTranslationVisitor;
 import org.apache.pig.newplan.logical.relational.LogicalPlan;
@@ -208,6 +210,7 @@ public abstract class HExecutionEngine implements ExecutionEngine {
             jc = getLocalConf();
             JobConf s3Jc = getS3Conf();
             ConfigurationUtil.mergeConf(jc, s3Jc);
+            Utils.setLocalJobRunnerParallelism(properties, jc);
         }
 
         // the method below alters the properties object by overriding the
@@ -239,6 +242,11 @@ public abstract class HExecutionEngine implements ExecutionEngine {
             throw new FrontendException(msg, errCode, PigException.BUG);
         }
 
+        if (!pigContext.inIllustrator && properties != null && Boolean.parseBoolean(
+                properties.getProperty(PigConfiguration.PIG_AUTO_REPLICATED_JOIN, "false"))) {
+            new ReplicatedJoinSelector(plan, ConfigurationUtil.toConfiguration(properties, false)).visit();
+        }
+
         // translate new logical plan to physical plan
         LogToPhyTranslationVisitor translator = new LogToPhyTranslationVisitor(plan);
 
@@ -277,8 +285,16 @@ public abstract class HExecutionEngine implements ExecutionEngine {
     public PigStats launchPig(LogicalPlan lp, String grpName, PigContext pc)
             throws FrontendException, ExecException {
 
+        return launchPig(compile(lp, pc.getProperties()), grpName, pc);
+    }
+
+    /**
+     * Launches a physical plan compiled by {@link #compile(LogicalPlan, Properties)}.
+     */
+    public PigStats launchPig(PhysicalPlan pp, String grpName, PigContext pc)
+            throws FrontendException, ExecException {
+
         try {
-            PhysicalPlan pp = compile(lp, pc.getProperties());
             //if the compiled physical plan fulfills the requirements of the
             //fetch optimizer, then further transformations / MR jobs creations are
             //skipped; a SimpleFetchPigStats will be returned through which the result
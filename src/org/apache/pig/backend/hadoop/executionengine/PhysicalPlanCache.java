@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.backend.hadoop.executionengine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLoad;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.util.PlanHelper;
+import org.apache.pig.impl.PigContext;
+import org.apache.pig.impl.plan.NodeIdGenerator;
+import org.apache.pig.impl.util.ObjectSerializer;
+import org.apache.pig.impl.util.UDFContext;
+import org.apache.pig.newplan.Operator;
+import org.apache.pig.newplan.logical.optimizer.LogicalPlanPrinter;
+import org.apache.pig.newplan.logical.relational.LOLoad;
+import org.apache.pig.newplan.logical.relational.LOStore;
+import org.apache.pig.newplan.logical.relational.LogicalPlan;
+
+/**
+ * Keeps the physical plans compiled for scripts in a local directory, so that
+ * later submissions of the same script skip the logical plan optimizer and
+ * the translation to a physical plan.
+ * <p/>
+ * A plan is identified by the text of the script after parameter
+ * substitution, the unoptimized logical plan with the schemas of its inputs,
+ * the locations it loads and stores, the pig properties and the jars registered
+ * in the PigContext. Together with the plan, the UDFContext properties set
+ * while compiling it, for example the fields pushed down to loaders, are
+ * kept and restored when the plan is reused.
+ * <p/>
+ * Plans depending on the sizes of their inputs, such as the ones built with
+ * pig.auto.replicated.join, are not cached.
+ */
+public class PhysicalPlanCache {
+    private static final Log LOG = LogFactory.getLog(PhysicalPlanCache.class);
+
+    private static final String SUFFIX = ".plan";
+    // Uids of the fields in the printed logical plan, they depend on the
+    // plans built before by the same client
+    private static final Pattern UID = Pattern.compile("(#|Uid: )\\d+");
+
+    // Properties that differ between submissions of the same script
+    private static final Set<String> VOLATILE_PROPERTIES = new HashSet<String>(Arrays.asList(
+            "pig.logical.plan.signature", "pig.script.id", "pig.log.file", "pig.script.start.time",
+            "pig.cmd.args"));
+
+    private final PigContext pc;
+    private final File dir;
+    private final long ttl;
+
+    public PhysicalPlanCache(PigContext pc) {
+        this.pc = pc;
+        Properties props = pc.getProperties();
+        String location = props.getProperty(PigConfiguration.PIG_PLAN_CACHE_DIR);
+        if (location == null) {
+            location = System.getProperty("java.io.tmpdir") + File.separator + "pig-plan-cache-"
+                    + System.getProperty("user.name");
+        }
+        this.dir = new File(location);
+        this.ttl = Long.parseLong(props.getProperty(PigConfiguration.PIG_PLAN_CACHE_TTL, "604800")) * 1000;
+    }
+
+    /**
+     * @return true if the plans compiled for pc can be cached
+     */
+    public static boolean isEnabled(PigContext pc) {
+        Properties props = pc.getProperties();
+        return Boolean.parseBoolean(props.getProperty(PigConfiguration.PIG_PLAN_CACHE_ENABLED, "false"))
+                && !pc.inIllustrator && pc.getExecutionEngine() instanceof HExecutionEngine
+                && !Boolean.parseBoolean(props.getProperty(PigConfiguration.PIG_AUTO_REPLICATED_JOIN, "false"))
+                && !Boolean.parseBoolean(props.getProperty(PigConfiguration.PIG_TEZ_AUTO_REPLICATED_JOIN, "false"));
+    }
+
+    /**
+     * Identifies the physical plan of a script.
+     * @param script text of the script
+     * @param lp logical plan of the script, before optimization
+     */
+    public String getKey(String script, LogicalPlan lp) throws IOException {
+        StringBuilder sb = new StringBuilder(script);
+        sb.append('\n').append(pc.getExecType().name()).append('\n');
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PrintStream ps = new PrintStream(baos);
+        new LogicalPlanPrinter(lp, ps).visit();
+        ps.flush();
+        sb.append(UID.matcher(baos.toString("UTF-8")).replaceAll("$1"));
+
+        for (Iterator<Operator> it = lp.getOperators(); it.hasNext();) {
+            Operator op = it.next();
+            if (op instanceof LOLoad) {
+                sb.append("load ").append(((LOLoad) op).getFileSpec()).append('\n');
+            } else if (op instanceof LOStore) {
+                sb.append("store ").append(((LOStore) op).getOutputSpec()).append('\n');
+            }
+        }
+
+        // Hadoop properties only matter once the plan is launched
+        Map<String, String> props = new TreeMap<String, String>();
+        for (String name : pc.getProperties().stringPropertyNames()) {
+            if (name.startsWith("pig.") && !VOLATILE_PROPERTIES.contains(name)) {
+                props.put(name, pc.getProperties().getProperty(name));
+            }
+        }
+        sb.append(props).append('\n');
+
+        List<String> jars = new ArrayList<String>(pc.scriptJars);
+        jars.addAll(pc.predeployedJars);
+        for (URL url : pc.extraJars) {
+            jars.add(url.toString());
+        }
+        for (String jar : jars) {
+            sb.append(jar);
+            File file = getFile(jar);
+            if (file != null && file.exists()) {
+                sb.append(' ').append(file.length()).append(' ').append(file.lastModified());
+            }
+            sb.append('\n');
+        }
+        return DigestUtils.shaHex(sb.toString());
+    }
+
+    /**
+     * @return the plan kept for key, null if there is none
+     */
+    public PhysicalPlan get(String key) {
+        File entry = new File(dir, key + SUFFIX);
+        if (!entry.exists()) {
+            return null;
+        }
+        CachedPlan cached;
+        try {
+            cached = (CachedPlan) ObjectSerializer.deserialize(FileUtils.readFileToString(entry, "UTF-8"));
+            for (POLoad load : PlanHelper.getPhysicalOperators(cached.plan, POLoad.class)) {
+                load.setPc(pc);
+            }
+            UDFContext.getUDFContext().addUdfConfs(cached.udfConfs);
+        } catch (Exception e) {
+            // Plan of another version of Pig or of changed UDF classes
+            LOG.warn("Unable to read the cached plan " + entry + ", compiling the script", e);
+            FileUtils.deleteQuietly(entry);
+            return null;
+        }
+        entry.setLastModified(System.currentTimeMillis());
+
+        // Operators created from now on must not reuse the keys of the plan
+        NodeIdGenerator.getGenerator().skipNodeIds(cached.scope, cached.nextNodeId);
+        LOG.info("Using the physical plan compiled by a previous run of the script");
+        return cached.plan;
+    }
+
+    /**
+     * Keeps a physical plan, before it is launched.
+     */
+    public void put(String key, PhysicalPlan plan, String scope) {
+        CachedPlan cached = new CachedPlan();
+        cached.plan = plan;
+        cached.udfConfs = UDFContext.getUDFContext().serialize();
+        cached.scope = scope;
+        cached.nextNodeId = NodeIdGenerator.getGenerator().getNextNodeId(scope);
+        File entry = new File(dir, key + SUFFIX);
+        try {
+            String serialized = ObjectSerializer.serialize(cached);
+            FileUtils.forceMkdir(dir);
+            // Written under a temporary name, as other clients may read it
+            File tmp = File.createTempFile(key, SUFFIX + ".tmp", dir);
+            FileUtils.writeStringToFile(tmp, serialized, "UTF-8");
+            if (!tmp.renameTo(entry)) {
+                FileUtils.deleteQuietly(tmp);
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to cache the physical plan in " + entry, e);
+        }
+        evict();
+    }
+
+    /**
+     * Removes the plans not used for pig.plan.cache.ttl seconds.
+     */
+    private void evict() {
+        File[] entries = dir.listFiles();
+        if (entries == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (File entry : entries) {
+            if (now - entry.lastModified() > ttl) {
+                FileUtils.deleteQuietly(entry);
+            }
+        }
+    }
+
+    private static File getFile(String jar) {
+        try {
+            if (jar.startsWith("file:")) {
+                return new File(new URL(jar).toURI());
+            }
+        } catch (IOException e) {
+            return null;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        return jar.contains(":") ? null : new File(jar);
+    }
+
+    private static class CachedPlan implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private PhysicalPlan plan;
+        private String udfConfs;
+        private String scope;
+        private long nextNodeId;
+    }
+}
@@ -74,9 +74,11 @@ public class FetchLauncher {
      * @throws IOException
      */
     public PigStats launchPig(PhysicalPlan pp) throws IOException {
+        POParallelFetchLoad parallelLoad = null;
         try {
             POStore poStore = (POStore) pp.getLeaves().get(0);
             init(pp, poStore);
+            parallelLoad = POParallelFetchLoad.setUp(pigContext, pp);
 
             // run fetch
             runPipeline(poStore);
@@ -88,6 +90,9 @@ public class FetchLauncher {
             return PigStats.start(new EmptyPigStats(pigContext, poStore));
         }
         finally {
+            if (parallelLoad != null) {
+                parallelLoad.close();
+            }
             UDFContext.getUDFContext().addJobConf(null);
             pigContext.getProperties().remove(PigImplConstants.CONVERTED_TO_FETCH);
         }
@@ -18,15 +18,22 @@
 package org.apache.pig.backend.hadoop.executionengine.fetch;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Job;
 import org.apache.pig.PigConfiguration;
 import org.apache.pig.backend.datastorage.DataStorageException;
+import org.apache.pig.backend.hadoop.datastorage.ConfigurationUtil;
+import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.InputSizeReducerEstimator;
 import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.PhyPlanSetter;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.PhysicalOperator;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhyPlanVisitor;
@@ -37,7 +44,9 @@ import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOpe
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.PODemux;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.PODistinct;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POFRJoin;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POForEach;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POGlobalRearrange;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLimit;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLoad;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLocalRearrange;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POMergeCogroup;
@@ -103,8 +112,26 @@ public class FetchOptimizer {
             if (!fpv.isPlanFetchable()) {
                 return false;
             }
+            // The replicated inputs of a join are read in full, so they have to
+            // be small. The fragment is limited by a limit after the join.
+            Set<POLoad> replicatedLoads = new HashSet<POLoad>();
+            Set<POLoad> limitedLoads = new HashSet<POLoad>();
+            for (POFRJoin join : fpv.getFRJoins()) {
+                List<PhysicalOperator> inputs = join.getInputs();
+                for (int i = 0; i < inputs.size(); i++) {
+                    if (i != join.getFragment()) {
+                        replicatedLoads.addAll(getUpstreamLoads(pp, inputs.get(i)));
+                    } else if (isFollowedByLimit(pp, join)) {
+                        limitedLoads.addAll(getUpstreamLoads(pp, inputs.get(i)));
+                    }
+                }
+            }
+            if (!replicatedLoads.isEmpty() && !isReplicatedInputSmall(pc, replicatedLoads)) {
+                return false;
+            }
             for (POLoad load : PlanHelper.getPhysicalOperators(pp, POLoad.class)) {
-                if (load.getLimit() == -1) {
+                if (load.getLimit() == -1 && !replicatedLoads.contains(load)
+                        && !limitedLoads.contains(load)) {
                     return false;
                 }
             }
@@ -115,6 +142,56 @@ public class FetchOptimizer {
         return false;
     }
 
+    private static List<POLoad> getUpstreamLoads(PhysicalPlan pp, PhysicalOperator op) {
+        List<POLoad> loads = new ArrayList<POLoad>();
+        if (op instanceof POLoad) {
+            loads.add((POLoad) op);
+        }
+        List<PhysicalOperator> preds = pp.getPredecessors(op);
+        if (preds != null) {
+            for (PhysicalOperator pred : preds) {
+                loads.addAll(getUpstreamLoads(pp, pred));
+            }
+        }
+        return loads;
+    }
+
+    /**
+     * Checks whether the output of a join only goes through foreach operators
+     * before reaching a limit, which stops reading the fragment once enough
+     * records have been joined.
+     */
+    private static boolean isFollowedByLimit(PhysicalPlan pp, PhysicalOperator op) {
+        while (true) {
+            List<PhysicalOperator> succs = pp.getSuccessors(op);
+            if (succs == null || succs.size() != 1) {
+                return false;
+            }
+            op = succs.get(0);
+            if (op instanceof POLimit) {
+                return true;
+            }
+            if (!(op instanceof POForEach)) {
+                return false;
+            }
+        }
+    }
+
+    private static boolean isReplicatedInputSmall(PigContext pc, Set<POLoad> loads) {
+        long maxBytes = Long.parseLong(pc.getProperties().getProperty(
+                PigConfiguration.PIG_FETCH_REPLICATED_MAX_BYTES, "0"));
+        try {
+            Configuration conf = ConfigurationUtil.toConfiguration(pc.getProperties());
+            long size = InputSizeReducerEstimator.getTotalInputFileSize(conf,
+                    new ArrayList<POLoad>(loads), new Job(conf));
+            LOG.debug("Total size of the replicated inputs: " + size);
+            return size >= 0 && size <= maxBytes;
+        } catch (IOException e) {
+            LOG.debug("Could not get the size of the replicated inputs", e);
+            return false;
+        }
+    }
+
     private static void init(PhysicalPlan pp) throws VisitorException {
         //mark POStream ops 'fetchable'
         LinkedList<POStream> posList = PlanHelper.getPhysicalOperators(pp, POStream.class);
@@ -159,6 +236,7 @@ public class FetchOptimizer {
      * A plan is considered 'fetchable' if:
      * <pre>
      * - it contains only: LIMIT, FILTER, FOREACH, STREAM, UNION(no implicit SPLIT is allowed)
+     *   and fragment-replicated JOIN when {@link PigConfiguration#PIG_FETCH_REPLICATED_MAX_BYTES} is set
      * - no STORE
      * - no scalar aliases ({@link org.apache.pig.impl.builtin.ReadScalars ReadScalars})
      * - {@link org.apache.pig.LoadFunc LoadFunc} is not a {@link org.apache.pig.impl.builtin.SampleLoader SampleLoader}
@@ -168,6 +246,7 @@ public class FetchOptimizer {
 
         private boolean planFetchable = true;
         private PigContext pc;
+        private List<POFRJoin> frJoins = new ArrayList<POFRJoin>();
 
         public FetchablePlanVisitor(PigContext pc, PhysicalPlan plan) {
             super(plan, new DepthFirstWalker<PhysicalOperator, PhysicalPlan>(plan));
@@ -274,7 +353,13 @@ public class FetchOptimizer {
 
         @Override
         public void visitFRJoin(POFRJoin join) throws VisitorException {
-            planFetchable = false;
+            long maxBytes = Long.parseLong(pc.getProperties().getProperty(
+                    PigConfiguration.PIG_FETCH_REPLICATED_MAX_BYTES, "0"));
+            if (maxBytes > 0) {
+                frJoins.add(join);
+            } else {
+                planFetchable = false;
+            }
         }
 
         @Override
@@ -318,6 +403,10 @@ public class FetchOptimizer {
             return planFetchable;
         }
 
+        private List<POFRJoin> getFRJoins() {
+            return frJoins;
+        }
+
         private boolean isTempPath(String basePathName) throws DataStorageException {
             String tdir = pc.getProperties().getProperty("pig.temp.dir", "/tmp");
             String tempStore = pc.getDfs().asContainer(tdir + "/temp").toString();
@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.backend.hadoop.executionengine.fetch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.InputFormat;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.JobID;
+import org.apache.pig.LoadFunc;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.PigException;
+import org.apache.pig.backend.executionengine.ExecException;
+import org.apache.pig.backend.hadoop.datastorage.ConfigurationUtil;
+import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.PigMapReduce;
+import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.UDFFinishVisitor;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.POStatus;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.PhysicalOperator;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.Result;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhyPlanVisitor;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLimit;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLoad;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POStore;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POStream;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.util.PlanHelper;
+import org.apache.pig.backend.hadoop.executionengine.shims.HadoopShims;
+import org.apache.pig.data.Tuple;
+import org.apache.pig.impl.PigContext;
+import org.apache.pig.impl.plan.DependencyOrderWalker;
+import org.apache.pig.impl.plan.NodeIdGenerator;
+import org.apache.pig.impl.plan.OperatorKey;
+import org.apache.pig.impl.plan.PlanException;
+import org.apache.pig.impl.plan.VisitorException;
+import org.apache.pig.impl.util.UDFContext;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Reads the splits of the input of a fetched plan concurrently. The part of
+ * the plan from its load up to its first limit is copied for each split, and
+ * the copies are run on a bounded thread pool. Their records are handed to
+ * the rest of the plan either in the order of the splits, which gives the
+ * same result as reading the splits one after the other, or as soon as they
+ * are produced.
+ */
+public class POParallelFetchLoad extends PhysicalOperator {
+
+    private static final long serialVersionUID = 1L;
+    private static final Log LOG = LogFactory.getLog(POParallelFetchLoad.class);
+
+    // Records buffered per split before the copy reading it waits for them
+    // to be consumed
+    private static final int QUEUE_CAPACITY = 1000;
+    private static final Object END_OF_SPLIT = new Object();
+
+    private transient PhysicalPlan splitPlan;
+    private transient List<InputSplit> splits;
+    private transient int parallelism;
+    private transient boolean ordered;
+
+    private transient ExecutorService executor;
+    // One queue per split if ordered, a single shared one otherwise
+    private transient List<BlockingQueue<Object>> queues;
+    // Split being returned if ordered, number of splits done otherwise
+    private transient int current = 0;
+
+    private POParallelFetchLoad(OperatorKey k, PhysicalPlan splitPlan,
+            List<InputSplit> splits, int parallelism, boolean ordered) {
+        super(k);
+        this.splitPlan = splitPlan;
+        this.splits = splits;
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+    }
+
+    /**
+     * Replaces the part of the plan from its load up to its first limit with a
+     * POParallelFetchLoad, if the plan has a single load whose input has more
+     * than one split and {@link PigConfiguration#PIG_FETCH_PARALLELISM} is
+     * greater than 1.
+     *
+     * @param pc PigContext
+     * @param pp the fetchable physical plan
+     * @return the operator now feeding the rest of the plan, or null if the
+     *         plan is left unchanged
+     * @throws IOException
+     */
+    public static POParallelFetchLoad setUp(PigContext pc, PhysicalPlan pp) throws IOException {
+        int parallelism = Integer.parseInt(pc.getProperties().getProperty(
+                PigConfiguration.PIG_FETCH_PARALLELISM, "1"));
+        if (parallelism <= 1) {
+            return null;
+        }
+        List<POLoad> loads = PlanHelper.getPhysicalOperators(pp, POLoad.class);
+        if (loads.size() != 1 || !PlanHelper.getPhysicalOperators(pp, POStream.class).isEmpty()) {
+            return null;
+        }
+
+        // Operators copied for each split. If the chain ends with a limit, the
+        // copies apply it to their own split and it is applied again to the
+        // records of all the splits.
+        POLoad load = loads.get(0);
+        List<PhysicalOperator> chain = new ArrayList<PhysicalOperator>();
+        PhysicalOperator next = load;
+        while (true) {
+            chain.add(next);
+            if (next instanceof POLimit) {
+                break;
+            }
+            List<PhysicalOperator> succs = pp.getSuccessors(next);
+            if (succs == null || succs.size() != 1) {
+                return null;
+            }
+            next = succs.get(0);
+            if (next instanceof POStore) {
+                break;
+            }
+        }
+
+        List<InputSplit> splits = getSplits(pc, load);
+        if (splits.size() <= 1) {
+            return null;
+        }
+
+        PhysicalPlan splitPlan;
+        try {
+            PhysicalPlan prefix = new PhysicalPlan();
+            for (PhysicalOperator op : chain) {
+                prefix.add(op);
+            }
+            for (int i = 1; i < chain.size(); i++) {
+                prefix.connect(chain.get(i - 1), chain.get(i));
+            }
+            splitPlan = prefix.clone();
+        } catch (CloneNotSupportedException e) {
+            LOG.info("Cannot copy plan to fetch splits in parallel", e);
+            return null;
+        } catch (PlanException e) {
+            throw new ExecException(e);
+        }
+
+        String scope = load.getOperatorKey().getScope();
+        POParallelFetchLoad parallelLoad = new POParallelFetchLoad(
+                new OperatorKey(scope, NodeIdGenerator.getGenerator().getNextNodeId(scope)),
+                splitPlan, splits, parallelism, "true".equalsIgnoreCase(pc.getProperties()
+                        .getProperty(PigConfiguration.PIG_FETCH_ORDERED, "true")));
+        parallelLoad.setResultType(chain.get(chain.size() - 1).getResultType());
+
+        // The limit at the end of the chain stays in the plan
+        if (next instanceof POLimit) {
+            chain.remove(next);
+        }
+        for (PhysicalOperator op : chain) {
+            pp.remove(op);
+        }
+        pp.add(parallelLoad);
+        try {
+            pp.connect(parallelLoad, next);
+        } catch (PlanException e) {
+            throw new ExecException(e);
+        }
+        LOG.info("Fetching " + splits.size() + " splits with parallelism " + parallelism);
+        return parallelLoad;
+    }
+
+    private static List<InputSplit> getSplits(PigContext pc, POLoad load) throws IOException {
+        Configuration conf = ConfigurationUtil.toConfiguration(pc.getProperties());
+        LoadFunc loadFunc = (LoadFunc) PigContext.instantiateFuncFromSpec(
+                load.getLFile().getFuncSpec());
+        Job job = new Job(conf);
+        loadFunc.setUDFContextSignature(load.getSignature());
+        loadFunc.setLocation(load.getLFile().getFileName(), job);
+        InputFormat<?, ?> inputFormat = loadFunc.getInputFormat();
+        try {
+            return inputFormat.getSplits(HadoopShims.createJobContext(job.getConfiguration(),
+                    new JobID()));
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public Result getNextTuple() throws ExecException {
+        if (executor == null) {
+            start();
+        }
+        try {
+            while (true) {
+                if (current == splits.size()) {
+                    return RESULT_EOP;
+                }
+                Object next = queues.get(ordered ? current : 0).take();
+                if (next == END_OF_SPLIT) {
+                    current++;
+                    continue;
+                }
+                if (next instanceof SplitFailure) {
+                    Throwable cause = ((SplitFailure) next).cause;
+                    if (cause instanceof ExecException) {
+                        throw (ExecException) cause;
+                    }
+                    throw new ExecException("Fetch failed. Couldn't retrieve result",
+                            2088, PigException.BUG, cause);
+                }
+                return new Result(POStatus.STATUS_OK, next);
+            }
+        } catch (InterruptedException e) {
+            throw new ExecException(e);
+        }
+    }
+
+    private void start() {
+        int numThreads = Math.min(parallelism, splits.size());
+        executor = Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder()
+                .setDaemon(true).setNameFormat("ParallelFetch-%d").build());
+        queues = new ArrayList<BlockingQueue<Object>>();
+        for (int i = 0; i < (ordered ? splits.size() : 1); i++) {
+            queues.add(new ArrayBlockingQueue<Object>(QUEUE_CAPACITY));
+        }
+
+        // Set up by FetchLauncher for the thread running the plan
+        final UDFContext udfContext = UDFContext.getUDFContext();
+        final Configuration conf = PigMapReduce.sJobConfInternal.get();
+        for (int i = 0; i < splits.size(); i++) {
+            final int splitIndex = i;
+            final BlockingQueue<Object> queue = queues.get(ordered ? i : 0);
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    UDFContext.setUdfContext(udfContext);
+                    PigMapReduce.sJobConfInternal.set(conf);
+                    readSplit(splitIndex, queue);
+                }
+            });
+        }
+    }
+
+    private void readSplit(int splitIndex, BlockingQueue<Object> queue) {
+        Object last;
+        try {
+            PhysicalPlan plan = splitPlan.clone();
+            ((POLoad) plan.getRoots().get(0)).setInputSplit(splits, splitIndex);
+            PhysicalOperator leaf = plan.getLeaves().get(0);
+            while (true) {
+                Result res = leaf.getNextTuple();
+                if (res.returnStatus == POStatus.STATUS_OK) {
+                    queue.put(res.result);
+                } else if (res.returnStatus == POStatus.STATUS_EOP) {
+                    break;
+                } else if (res.returnStatus == POStatus.STATUS_ERR) {
+                    String errMsg = "Fetch failed. Couldn't retrieve result from split " + splitIndex;
+                    if (res.result != null) {
+                        errMsg += ": " + res.result;
+                    }
+                    throw new ExecException(errMsg, 2088, PigException.BUG);
+                }
+            }
+            new UDFFinishVisitor(plan,
+                    new DependencyOrderWalker<PhysicalOperator, PhysicalPlan>(plan)).visit();
+            last = END_OF_SPLIT;
+        } catch (InterruptedException e) {
+            // Reading was cancelled
+            return;
+        } catch (Throwable t) {
+            last = new SplitFailure(t);
+        }
+        try {
+            queue.put(last);
+        } catch (InterruptedException e) {
+            // Reading was cancelled
+        }
+    }
+
+    /**
+     * Stops reading the splits, once the rest of the plan does not need more
+     * records or has failed
+     */
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class SplitFailure {
+        private final Throwable cause;
+
+        SplitFailure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+
+    @Override
+    public Tuple illustratorMarkup(Object in, Object out, int eqClassIndex) {
+        return null;
+    }
+
+    @Override
+    public void visit(PhyPlanVisitor v) throws VisitorException {
+        v.visit(this);
+    }
+
+    @Override
+    public boolean supportsMultipleInputs() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsMultipleOutputs() {
+        return false;
+    }
+
+    @Override
+    public String name() {
+        return "POParallelFetchLoad - " + mKey.toString();
+    }
+}
@@ -34,6 +34,7 @@ import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOpe
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.util.PlanHelper;
 import org.apache.pig.backend.hadoop.executionengine.util.MapRedUtil;
 import org.apache.pig.impl.util.UriUtil;
+import org.apache.pig.tools.pigstats.StatisticsStoreUtil;
 
 /**
  * Class that estimates the number of reducers based on input size.
@@ -120,7 +121,8 @@ public class InputSizeReducerEstimator implements PigReducerEstimator {
                 totalInputFileSize += size;
                 continue;
             } else {
-
+                long loadSize = 0;
+                boolean complete = true;
                 // the input file location might be a list of comma separated files,
                 // separate them out
                 for (String location : LoadFunc.getPathStrings(ld.getLFile().getFileName())) {
@@ -130,20 +132,31 @@ public class InputSizeReducerEstimator implements PigReducerEstimator {
                         FileStatus[] status = fs.globStatus(path);
                         if (status != null) {
                             for (FileStatus s : status) {
-                                totalInputFileSize += MapRedUtil.getPathLength(fs, s, max);
-                                if (totalInputFileSize > max) {
+                                loadSize += MapRedUtil.getPathLength(fs, s, max);
+                                if (totalInputFileSize + loadSize > max) {
                                     break;
                                 }
                             }
                         } else {
                             // If file is not found, we should report -1
+                            complete = false;
                             continue;
                         }
                     } else {
                         // If we cannot estimate size of a location, we should report -1
+                        complete = false;
                         continue;
                     }
                 }
+                if (!complete) {
+                    // Use the size seen by a previous run if it was recorded
+                    ResourceStatistics statistics = StatisticsStoreUtil.getStatistics(
+                            ld.getLFile().getFileName(), conf);
+                    if (statistics != null && statistics.getSizeInBytes() != null) {
+                        loadSize = statistics.getSizeInBytes();
+                    }
+                }
+                totalInputFileSize += loadSize;
             }
         }
         return totalInputFileSize;
@@ -31,6 +31,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -38,7 +39,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Random;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -176,6 +179,8 @@ public class JobControlCompiler{
 
     private static final Random RAND = new Random();
     private static final String CACHE_TMP_FILE_TEMPLATE = "tmp%d.tmp";
+    // Jars shipped to the temporary directories, by directory, digest and name
+    private static final Map<String, Path> SHIPPED_FILES = new ConcurrentHashMap<String, Path>();
 
     public static final String SMALL_JOB_LOG_MSG = "This job was detected as a small job, will run in-process instead";
     public static final String BIG_JOB_LOG_MSG = "This job cannot be converted run in-process";
@@ -196,6 +201,11 @@ public class JobControlCompiler{
 
     private Map<Job, MapReduceOper> jobMroMap;
 
+    // Jobs already removed from the plan by compileSuccessors
+    private Set<Job> completedJobs;
+
+    private MRResultCache resultCache;
+
     public JobControlCompiler(PigContext pigContext, Configuration conf) {
         this(pigContext, conf, null);
     }
@@ -206,6 +216,7 @@ public class JobControlCompiler{
         this.defaultConf = defaultConf;
         jobStoreMap = new HashMap<Job, Pair<List<POStore>, Path>>();
         jobMroMap = new HashMap<Job, MapReduceOper>();
+        completedJobs = new HashSet<Job>();
     }
 
     /**
@@ -226,9 +237,17 @@ public class JobControlCompiler{
     public void reset() {
         jobStoreMap = new HashMap<Job, Pair<List<POStore>, Path>>();
         jobMroMap = new HashMap<Job, MapReduceOper>();
+        completedJobs = new HashSet<Job>();
         UDFContext.getUDFContext().reset();
     }
 
+    /**
+     * Sets the cache the results of successful jobs are added to
+     */
+    public void setResultCache(MRResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
     /**
      * Gets the map of Job and the MR Operator
      */
@@ -247,6 +266,10 @@ public class JobControlCompiler{
      */
     public void moveResults(List<Job> completedJobs) throws IOException {
         for (Job job: completedJobs) {
+            if (this.completedJobs.contains(job)) {
+                // Results were moved by compileSuccessors
+                continue;
+            }
             Pair<List<POStore>, Path> pair = jobStoreMap.get(job);
             if (pair != null && pair.second != null) {
                 Path tmp = pair.second;
@@ -262,6 +285,9 @@ public class JobControlCompiler{
                     moveResults(rel, rel.toUri().getPath()+"/", fs);
                 }
             }
+            if (resultCache != null && pair != null) {
+                resultCache.commit(pair.first);
+            }
         }
     }
 
@@ -348,6 +374,63 @@ public class JobControlCompiler{
         return jobCtrl;
     }
 
+    /**
+     * Removes the given successful jobs of the running JobControl from the
+     * plan, moving their results, and compiles the jobs that no longer have
+     * any dependencies so that they can be submitted right away instead of
+     * waiting for the whole group to complete. Native mapreduce jobs are left
+     * to the next call to compile.
+     * @param successfulJobs - jobs of the last compiled JobControl that succeeded
+     * @return the newly compiled jobs, empty if none became runnable
+     * @throws JobCreationException
+     */
+    public List<Job> compileSuccessors(List<Job> successfulJobs) throws JobCreationException {
+        List<Job> newJobs = new ArrayList<Job>();
+        try {
+            boolean planChanged = false;
+            for (Job job : successfulJobs) {
+                MapReduceOper mro = jobMroMap.get(job);
+                if (mro == null || completedJobs.contains(job)) {
+                    continue;
+                }
+                moveResults(Collections.singletonList(job));
+                if (!pigContext.inIllustrator && mro.isCounterOperation())
+                    saveCounters(job, mro.getOperationID(), mro.isRowNumber());
+                plan.remove(mro);
+                completedJobs.add(job);
+                planChanged = true;
+            }
+            if (!planChanged) {
+                return newJobs;
+            }
+
+            Set<MapReduceOper> compiled = new HashSet<MapReduceOper>(jobMroMap.values());
+            List<MapReduceOper> roots = new LinkedList<MapReduceOper>();
+            roots.addAll(plan.getRoots());
+            for (MapReduceOper mro : roots) {
+                if (compiled.contains(mro) || mro instanceof NativeMapReduceOper) {
+                    continue;
+                }
+
+                //Print MR plan before launching if needed
+                if (conf.getBoolean(PigConfiguration.PIG_PRINT_EXEC_PLAN, false)) {
+                    log.info(mro.toString());
+                }
+
+                Job job = getJob(plan, mro, conf, pigContext);
+                jobMroMap.put(job, mro);
+                newJobs.add(job);
+            }
+        } catch (JobCreationException jce) {
+            throw jce;
+        } catch(Exception e) {
+            int errCode = 2017;
+            String msg = "Internal error creating job configuration.";
+            throw new JobCreationException(msg, errCode, PigException.BUG, e);
+        }
+        return newJobs;
+    }
+
     // Update Map-Reduce plan with the execution status of the jobs. If one job
     // completely fail (the job has only one store and that job fail), then we
     // remove all its dependent jobs. This method will return the number of MapReduceOper
@@ -365,7 +448,7 @@ public class JobControlCompiler{
         // Remove successful jobs from jobMroMap
         for (Job job : jobMroMap.keySet())
         {
-            if (!completeFailedJobs.contains(job))
+            if (!completeFailedJobs.contains(job) && !completedJobs.contains(job))
             {
                 MapReduceOper mro = jobMroMap.get(job);
                 if (!pigContext.inIllustrator && mro.isCounterOperation())
@@ -375,7 +458,9 @@ public class JobControlCompiler{
         }
         jobMroMap.clear();
         int sizeAfter = plan.size();
-        return sizeBefore-sizeAfter;
+        int removed = sizeBefore - sizeAfter + completedJobs.size();
+        completedJobs.clear();
+        return removed;
     }
 
     /**
@@ -599,6 +684,7 @@ public class JobControlCompiler{
                     }
 
                     conf.setBoolean(PigImplConstants.CONVERTED_TO_LOCAL, true);
+                    Utils.setLocalJobRunnerParallelism(pigContext.getProperties(), conf);
                 } else {
                     log.info(BIG_JOB_LOG_MSG);
                     // Search to see if we have any UDF/LoadFunc/StoreFunc that need to pack things into the
@@ -1753,8 +1839,13 @@ public class JobControlCompiler{
             Path stagingDir = getCacheStagingDir(conf);
             String filename = FilenameUtils.getName(url.getPath());
 
-            is1 = url.openStream();
-            String checksum = DigestUtils.shaHex(is1);
+            String checksum;
+            if ("file".equals(url.getProtocol())) {
+                checksum = JarManager.getDigest(new File(url.toURI()));
+            } else {
+                is1 = url.openStream();
+                checksum = DigestUtils.shaHex(is1);
+            }
             FileSystem fs = FileSystem.get(conf);
             Path cacheDir = new Path(stagingDir, checksum);
             Path cacheFile = new Path(cacheDir, filename);
@@ -1791,6 +1882,9 @@ public class JobControlCompiler{
         } catch (IOException ioe) {
             log.info("Unable to retrieve jar from jar cache ", ioe);
             return null;
+        } catch (URISyntaxException e) {
+            log.info("Unable to retrieve jar from jar cache ", e);
+            return null;
         } finally {
             org.apache.commons.io.IOUtils.closeQuietly(is1);
             org.apache.commons.io.IOUtils.closeQuietly(is2);
@@ -1823,6 +1917,31 @@ public class JobControlCompiler{
 
         Path dst = new Path(FileLocalizer.getTemporaryPath(pigContext).toUri().getPath(), suffix);
         FileSystem fs = dst.getFileSystem(conf);
+
+        // The jars shipped by the previous jobs of the script are reused
+        // while they are unchanged and still in its temporary directory
+        String shippedKey = null;
+        File file = null;
+        if ("file".equals(url.getProtocol())) {
+            try {
+                file = new File(url.toURI());
+            } catch (URISyntaxException e) {
+                file = null;
+            }
+        }
+        if (file != null && file.isFile()) {
+            shippedKey = fs.makeQualified(dst.getParent().getParent()) + "/" + JarManager.getDigest(file)
+                    + "/" + suffix;
+            Path shipped = SHIPPED_FILES.get(shippedKey);
+            if (shipped != null) {
+                if (fs.exists(shipped) && fs.getFileStatus(shipped).getLen() == file.length()) {
+                    log.info("Jar " + url + " already shipped to " + shipped + " by a previous job");
+                    return shipped;
+                }
+                SHIPPED_FILES.remove(shippedKey);
+            }
+        }
+
         OutputStream os = null;
         InputStream is = null;
         try {
@@ -1837,6 +1956,9 @@ public class JobControlCompiler{
             }
         }
         fs.setReplication(dst, replication);
+        if (shippedKey != null) {
+            SHIPPED_FILES.put(shippedKey, dst);
+        }
         return dst;
     }
 
@@ -65,7 +65,8 @@ public class LimitAdjuster extends MROpPlanVisitor {
         // TODO: This new MR job can be skipped if at runtime we discover that
         // its parent only has a single reducer (mr.requestedParallelism!=1).
         // This check MUST happen at runtime since that's when reducer estimation happens.
-        if ((mr.limit!=-1 || mr.limitPlan!=null) )
+        // A limited sort merged by a single reducer needs no other job
+        if ((mr.limit!=-1 || mr.limitPlan!=null) && !(mr.isLimitAfterSort() && mr.requestedParallelism == 1))
         {
             opsToAdjust.add(mr);
         }
@@ -81,6 +81,7 @@ import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOpe
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POSplit;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POStore;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POStream;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POTopN;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POUnion;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.Packager;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.Packager.PackageType;
@@ -452,8 +453,9 @@ public class MRCompiler extends PhyPlanVisitor {
         op.visit(this);
         if(op.getRequestedParallelism() > curMROp.requestedParallelism ) {
             // we don't want to change prallelism for skewed join due to sampling
-            // and pre-allocated reducers for skewed keys
-            if (!curMROp.isSkewedJoin()) {
+            // and pre-allocated reducers for skewed keys, nor for a top-N job
+            // merged by a single reducer
+            if (!curMROp.isSkewedJoin() && !curMROp.isLimitAfterSort()) {
                 curMROp.requestedParallelism = op.getRequestedParallelism();
             }
         }
@@ -1980,15 +1982,19 @@ public class MRCompiler extends PhyPlanVisitor {
     @Override
     public void visitSort(POSort op) throws VisitorException {
         try{
-            FileSpec fSpec = getTempFileSpec();
-            MapReduceOper mro = endSingleInputPlanWithStr(fSpec);
-            FileSpec quantFile = getTempFileSpec();
-            int rp = op.getRequestedParallelism();
             Pair<POProject, Byte>[] fields = getSortCols(op.getSortPlans());
-            Pair<MapReduceOper, Integer> quantJobParallelismPair =
-                getQuantileJob(op, mro, fSpec, quantFile, rp);
-            curMROp = getSortJob(op, quantJobParallelismPair.first, fSpec, quantFile,
-                    quantJobParallelismPair.second, fields);
+            if (isTopN(op)) {
+                curMROp = getTopNJob(op, fields);
+            } else {
+                FileSpec fSpec = getTempFileSpec();
+                MapReduceOper mro = endSingleInputPlanWithStr(fSpec);
+                FileSpec quantFile = getTempFileSpec();
+                int rp = op.getRequestedParallelism();
+                Pair<MapReduceOper, Integer> quantJobParallelismPair =
+                    getQuantileJob(op, mro, fSpec, quantFile, rp);
+                curMROp = getSortJob(op, quantJobParallelismPair.first, fSpec, quantFile,
+                        quantJobParallelismPair.second, fields);
+            }
 
             if(op.isUDFComparatorUsed){
                 curMROp.UDFs.add(op.getMSortFunc().getFuncSpec().toString());
@@ -2097,6 +2103,53 @@ public class MRCompiler extends PhyPlanVisitor {
         long limit = sort.getLimit();
         mro.limit = limit;
 
+        connectSortMapToReduce(mro, sort, fields, limit != -1);
+        return mro;
+    }
+
+    /**
+     * Whether a limited sort is small enough to keep its first records in a
+     * bounded heap in each task and merge them in a single reducer, instead
+     * of sampling and sorting the whole input.
+     */
+    private boolean isTopN(POSort sort) {
+        if (!sort.isLimited() || pigContext.inIllustrator || compiledInputs.length != 1
+                || compiledInputs[0].isReduceDone()) {
+            return false;
+        }
+        long maxLimit = Long.parseLong(pigContext.getProperties().getProperty(
+                PigConfiguration.PIG_SORT_TOPN_MAX_LIMIT, "10000"));
+        return sort.getLimit() <= maxLimit;
+    }
+
+    private MapReduceOper getTopNJob(POSort sort, Pair<POProject, Byte>[] fields)
+            throws PlanException, IOException {
+        MapReduceOper mro = compiledInputs[0];
+        POTopN topN = new POTopN(new OperatorKey(scope, nig.getNextNodeId(scope)), sort);
+        if (!mro.isMapDone()) {
+            mro.mapPlan.addAsLeaf(topN);
+        } else {
+            // Each reducer keeps its first records, merged by the next job
+            mro.reducePlan.addAsLeaf(topN);
+            FileSpec fSpec = getTempFileSpec();
+            POStore st = getStore();
+            st.setSFile(fSpec);
+            mro.reducePlan.addAsLeaf(st);
+            mro.setReduceDone(true);
+            mro = startNew(fSpec, mro);
+        }
+        mro.requestedParallelism = 1;
+        mro.limit = sort.getLimit();
+        mro.setLimitAfterSort(true);
+
+        connectSortMapToReduce(mro, sort, fields, false);
+        return mro;
+    }
+
+    private void connectSortMapToReduce(MapReduceOper mro, POSort sort,
+            Pair<POProject, Byte>[] fields, boolean limitInCombiner) throws PlanException {
+        long limit = sort.getLimit();
+
         List<PhysicalPlan> eps1 = new ArrayList<PhysicalPlan>();
 
         byte keyType = DataType.UNKNOWN;
@@ -2170,7 +2223,7 @@ public class MRCompiler extends PhyPlanVisitor {
 
         mro.setMapDone(true);
 
-        if (limit!=-1) {
+        if (limitInCombiner) {
             POPackage pkg_c = new POPackage(new OperatorKey(scope,
                     nig.getNextNodeId(scope)));
             LitePackager pkgr = new LitePackager();
@@ -2244,8 +2297,6 @@ public class MRCompiler extends PhyPlanVisitor {
             mro.reducePlan.addAsLeaf(pLimit2);
             mro.phyToMRMap.put(sort, pLimit2);
         }
-
-        return mro;
     }
 
     private Pair<MapReduceOper,Integer> getQuantileJob(
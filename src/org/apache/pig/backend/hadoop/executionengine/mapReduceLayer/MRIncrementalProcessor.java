@@ -0,0 +1,472 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.backend.hadoop.executionengine.mapReduceLayer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.pig.FileInputLoadFunc;
+import org.apache.pig.FuncSpec;
+import org.apache.pig.LoadFunc;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.plans.MROpPlanVisitor;
+import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.plans.MROperPlan;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.PhysicalOperator;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.CombinerPackager;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POFilter;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POForEach;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLoad;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLocalRearrange;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POPackage;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POPartialAgg;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POPreCombinerLocalRearrange;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POStore;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POUnion;
+import org.apache.pig.backend.hadoop.executionengine.shims.HadoopShims;
+import org.apache.pig.backend.hadoop.executionengine.util.MapRedUtil;
+import org.apache.pig.impl.PigContext;
+import org.apache.pig.impl.io.FileSpec;
+import org.apache.pig.impl.io.InterStorage;
+import org.apache.pig.impl.plan.DependencyOrderWalker;
+import org.apache.pig.impl.plan.NodeIdGenerator;
+import org.apache.pig.impl.plan.OperatorKey;
+import org.apache.pig.impl.plan.PlanException;
+import org.apache.pig.impl.plan.VisitorException;
+
+/**
+ * Processes only the input files added since the previous run of a recurring
+ * script, for jobs that group and aggregate them with algebraic functions.
+ * <p/>
+ * Such a job, once split by the CombinerOptimizer into Initial, Intermed and
+ * Final functions, reads its files with a FileInputLoadFunc and only applies
+ * per record operators before the shuffle. It is replaced by:
+ * <ul>
+ * <li>a state job reading the new files and the state of the previous run,
+ * and storing the Intermed results of every group as the new state</li>
+ * <li>the job itself, reading the new state instead of its input and applying
+ * the Final functions and the rest of its reduce plan</li>
+ * </ul>
+ * The state and the list of files it was computed from are kept in a
+ * directory named after a fingerprint of the map and combine plans under
+ * pig.incremental.dir, and replaced once the whole script succeeded. When a
+ * file that was already processed changed or disappeared, the input is not
+ * append only and everything is processed again.
+ * <p/>
+ * Like for the combiner, the functions must give the same results whatever
+ * the order and the grouping of the records.
+ */
+public class MRIncrementalProcessor extends MROpPlanVisitor {
+    private static final Log LOG = LogFactory.getLog(MRIncrementalProcessor.class);
+
+    private static final String STATE = "state";
+    private static final String MANIFEST = "_manifest";
+    private static final String STAGING_SUFFIX = ".tmp-";
+    private static final Pattern SCOPE = Pattern.compile("scope-\\d+");
+
+    // Operators producing their output from one record at a time in the map
+    private static final Set<Class<?>> PER_RECORD_OPERATORS = new HashSet<Class<?>>(Arrays.asList(
+            POLoad.class, POFilter.class, POForEach.class, POPreCombinerLocalRearrange.class,
+            POPartialAgg.class, POLocalRearrange.class));
+
+    private final PigContext pc;
+    private final Configuration conf;
+    private final Path dir;
+    private final FileSystem fs;
+
+    private final List<MapReduceOper> candidates = new ArrayList<MapReduceOper>();
+    // Files the state written to each staging directory is computed from
+    private final Map<Path, List<FileStatus>> pendingStates = new HashMap<Path, List<FileStatus>>();
+
+    public MRIncrementalProcessor(MROperPlan plan, PigContext pc, Configuration conf) throws IOException {
+        super(plan, new DependencyOrderWalker<MapReduceOper, MROperPlan>(plan));
+        this.pc = pc;
+        this.conf = conf;
+        String location = conf.get(PigConfiguration.PIG_INCREMENTAL_DIR);
+        if (location == null) {
+            location = conf.get(PigConfiguration.PIG_TEMP_DIR, "/tmp") + "/pig-incremental";
+        }
+        this.fs = new Path(location).getFileSystem(conf);
+        this.dir = fs.makeQualified(new Path(location));
+    }
+
+    /**
+     * Rewrites the jobs aggregating their input to only process the files
+     * added since the previous run.
+     * @return the number of jobs rewritten
+     */
+    public int optimize() throws VisitorException, IOException {
+        visit();
+        int rewritten = 0;
+        for (MapReduceOper mro : candidates) {
+            try {
+                if (rewrite(mro)) {
+                    rewritten++;
+                }
+            } catch (PlanException e) {
+                throw new VisitorException("Unable to process " + mro.getOperatorKey()
+                        + " incrementally", e);
+            }
+        }
+        return rewritten;
+    }
+
+    /**
+     * @return the locations the states of this run are stored in until
+     * {@link #commit()}
+     */
+    public Set<String> getStagingLocations() {
+        Set<String> locations = new HashSet<String>();
+        for (Path staging : pendingStates.keySet()) {
+            locations.add(staging.toString());
+        }
+        return locations;
+    }
+
+    /**
+     * Replaces the states of the previous runs by the ones of this run, once
+     * all its jobs succeeded.
+     */
+    public void commit() throws IOException {
+        for (Map.Entry<Path, List<FileStatus>> entry : pendingStates.entrySet()) {
+            Path staging = entry.getKey();
+            Path state = new Path(staging.getParent(), STATE);
+            writeManifest(new Path(staging, MANIFEST), entry.getValue());
+            // Without a state, the next run processes all the files again
+            fs.delete(state, true);
+            if (fs.rename(staging, state)) {
+                LOG.info("Recorded the state of " + entry.getValue().size() + " input files in " + state);
+            } else {
+                LOG.warn("Cannot record the state " + state);
+            }
+        }
+        pendingStates.clear();
+    }
+
+    /**
+     * Removes the states of this run when one of its jobs failed.
+     */
+    public void abort() throws IOException {
+        for (Path staging : pendingStates.keySet()) {
+            fs.delete(staging, true);
+        }
+        pendingStates.clear();
+    }
+
+    @Override
+    public void visitMROp(MapReduceOper mro) throws VisitorException {
+        if (isIncremental(mro)) {
+            candidates.add(mro);
+        }
+    }
+
+    private boolean isIncremental(MapReduceOper mro) {
+        if (mro instanceof NativeMapReduceOper || mro.combinePlan.isEmpty() || mro.isGlobalSort()
+                || mro.isSkewedJoin() || mro.getUseSecondaryKey() || mro.isRankOperation()
+                || mro.isCounterOperation() || mro.needsDistinctCombiner()
+                || (mro.scalars != null && !mro.scalars.isEmpty())
+                || mPlan.getPredecessors(mro) != null) {
+            return false;
+        }
+
+        List<PhysicalOperator> roots = mro.mapPlan.getRoots();
+        List<PhysicalOperator> leaves = mro.mapPlan.getLeaves();
+        if (roots.size() != 1 || !(roots.get(0) instanceof POLoad)
+                || leaves.size() != 1 || !(leaves.get(0) instanceof POLocalRearrange)) {
+            return false;
+        }
+        POLoad load = (POLoad) roots.get(0);
+        if (load.isTmpLoad() || !(load.getLoadFunc() instanceof FileInputLoadFunc)) {
+            return false;
+        }
+        for (PhysicalOperator op : mro.mapPlan) {
+            if (!PER_RECORD_OPERATORS.contains(op.getClass())) {
+                return false;
+            }
+        }
+
+        // Combine plan added by the CombinerOptimizer: package, Intermed
+        // foreach and local rearrange
+        List<PhysicalOperator> combineRoots = mro.combinePlan.getRoots();
+        if (combineRoots.size() != 1 || !isCombinerPackage(combineRoots.get(0))) {
+            return false;
+        }
+        List<PhysicalOperator> succs = mro.combinePlan.getSuccessors(combineRoots.get(0));
+        if (succs == null || succs.size() != 1 || !(succs.get(0) instanceof POForEach)) {
+            return false;
+        }
+        succs = mro.combinePlan.getSuccessors(succs.get(0));
+        if (succs == null || succs.size() != 1 || !(succs.get(0) instanceof POLocalRearrange)
+                || mro.combinePlan.getSuccessors(succs.get(0)) != null) {
+            return false;
+        }
+        List<PhysicalOperator> reduceRoots = mro.reducePlan.getRoots();
+        return reduceRoots.size() == 1 && isCombinerPackage(reduceRoots.get(0));
+    }
+
+    private static boolean isCombinerPackage(PhysicalOperator op) {
+        return op instanceof POPackage && ((POPackage) op).getPkgr() instanceof CombinerPackager;
+    }
+
+    private boolean rewrite(MapReduceOper mro) throws IOException, PlanException {
+        POLoad load = (POLoad) mro.mapPlan.getRoots().get(0);
+        List<FileStatus> files = listFiles(load.getLFile().getFileName());
+        if (files == null) {
+            return false;
+        }
+        Path base = new Path(dir, fingerprint(mro));
+        Path state = new Path(base, STATE);
+
+        Map<String, FileStatus> processed = readManifest(new Path(state, MANIFEST));
+        List<FileStatus> newFiles = new ArrayList<FileStatus>();
+        if (processed != null) {
+            Set<String> current = new HashSet<String>();
+            for (FileStatus file : files) {
+                String path = file.getPath().toString();
+                current.add(path);
+                FileStatus previous = processed.get(path);
+                if (previous == null) {
+                    newFiles.add(file);
+                } else if (previous.getLen() != file.getLen()
+                        || previous.getModificationTime() != file.getModificationTime()) {
+                    LOG.info("Input file " + path + " changed since the previous run of "
+                            + mro.getOperatorKey() + ", processing all the files");
+                    processed = null;
+                    break;
+                }
+            }
+            if (processed != null && !current.containsAll(processed.keySet())) {
+                LOG.info("Input files of " + mro.getOperatorKey() + " were removed since the previous run, "
+                        + "processing all the files");
+                processed = null;
+            }
+        }
+        if (processed == null) {
+            if (files.isEmpty()) {
+                return false;
+            }
+            newFiles = files;
+        }
+
+        if (newFiles.isEmpty()) {
+            LOG.info("No new input file for " + mro.getOperatorKey() + ", reading the state " + state);
+            readState(mro, state);
+            return true;
+        }
+        String location = getLocation(newFiles);
+        if (location == null) {
+            return false;
+        }
+        LOG.info("Processing " + newFiles.size() + " new input files out of " + files.size()
+                + " for " + mro.getOperatorKey());
+        load.setLFile(new FileSpec(location, load.getLFile().getFuncSpec()));
+
+        Path staging = new Path(base, STATE + STAGING_SUFFIX + UUID.randomUUID());
+        MapReduceOper stateJob = getStateJob(mro, processed == null ? null : state, staging);
+        readState(mro, staging);
+        mPlan.add(stateJob);
+        mPlan.connect(stateJob, mro);
+        pendingStates.put(staging, files);
+        return true;
+    }
+
+    /**
+     * Creates the job storing the Intermed results of the map and combine
+     * plans of a job, for its input and a previous state.
+     */
+    private MapReduceOper getStateJob(MapReduceOper mro, Path previousState, Path staging)
+            throws PlanException {
+        String scope = mro.getOperatorKey().getScope();
+        NodeIdGenerator nig = NodeIdGenerator.getGenerator();
+        MapReduceOper stateJob = new MapReduceOper(new OperatorKey(scope, nig.getNextNodeId(scope)));
+        stateJob.mapPlan = mro.mapPlan;
+        stateJob.combinePlan = mro.combinePlan;
+        stateJob.mapKeyType = mro.mapKeyType;
+        stateJob.feature = mro.feature;
+        stateJob.requestedParallelism = mro.requestedParallelism;
+        stateJob.customPartitioner = mro.customPartitioner;
+        stateJob.UDFs.addAll(mro.UDFs);
+        stateJob.setEndOfAllInputInMap(mro.isEndOfAllInputSetInMap());
+        stateJob.setMapDone(true);
+        stateJob.setReduceDone(true);
+
+        if (previousState != null) {
+            // The previous state already holds Intermed results, it skips the
+            // map operators computing them from the input
+            PhysicalOperator lr = stateJob.mapPlan.getLeaves().get(0);
+            PhysicalOperator pred = stateJob.mapPlan.getPredecessors(lr).get(0);
+            POUnion union = new POUnion(new OperatorKey(scope, nig.getNextNodeId(scope)));
+            stateJob.mapPlan.disconnect(pred, lr);
+            stateJob.mapPlan.add(union);
+            stateJob.mapPlan.connect(pred, union);
+            POLoad stateLoad = getStateLoad(scope, previousState);
+            stateJob.mapPlan.add(stateLoad);
+            stateJob.mapPlan.connect(stateLoad, union);
+            stateJob.mapPlan.connect(union, lr);
+        }
+
+        // Package and Intermed foreach of the combiner, storing their output
+        PhysicalOperator pkg = mro.combinePlan.getRoots().get(0);
+        PhysicalOperator intermed = mro.combinePlan.getSuccessors(pkg).get(0);
+        stateJob.reducePlan = new PhysicalPlan();
+        try {
+            stateJob.reducePlan.add(pkg.clone());
+            stateJob.reducePlan.addAsLeaf(intermed.clone());
+        } catch (CloneNotSupportedException e) {
+            throw new PlanException("Unable to clone the combine plan of " + mro.getOperatorKey(), e);
+        }
+        POStore store = new POStore(new OperatorKey(scope, nig.getNextNodeId(scope)));
+        store.setIsTmpStore(true);
+        store.setSFile(new FileSpec(staging.toString(), new FuncSpec(InterStorage.class.getName())));
+        stateJob.reducePlan.addAsLeaf(store);
+        return stateJob;
+    }
+
+    /**
+     * Makes a job read a state instead of its input.
+     */
+    private void readState(MapReduceOper mro, Path state) throws PlanException {
+        String scope = mro.getOperatorKey().getScope();
+        POLocalRearrange lr;
+        try {
+            lr = ((POLocalRearrange) mro.mapPlan.getLeaves().get(0)).clone();
+        } catch (CloneNotSupportedException e) {
+            throw new PlanException("Unable to clone the local rearrange of " + mro.getOperatorKey(), e);
+        }
+        mro.mapPlan = new PhysicalPlan();
+        POLoad stateLoad = getStateLoad(scope, state);
+        mro.mapPlan.add(stateLoad);
+        mro.mapPlan.add(lr);
+        mro.mapPlan.connect(stateLoad, lr);
+        // Each group is already aggregated
+        mro.combinePlan = new PhysicalPlan();
+        mro.setEndOfAllInputInMap(false);
+    }
+
+    private POLoad getStateLoad(String scope, Path state) {
+        POLoad load = new POLoad(new OperatorKey(scope, NodeIdGenerator.getGenerator().getNextNodeId(scope)));
+        load.setPc(pc);
+        load.setIsTmpLoad(true);
+        load.setLFile(new FileSpec(state.toString(), new FuncSpec(InterStorage.class.getName())));
+        return load;
+    }
+
+    /**
+     * Fingerprints the operators producing the state of a job, including its
+     * input location but not the files in it.
+     */
+    private String fingerprint(MapReduceOper mro) {
+        String plans = MRResultCache.explain(mro.mapPlan) + MRResultCache.explain(mro.combinePlan);
+        return DigestUtils.shaHex(SCOPE.matcher(plans).replaceAll("scope") + mro.mapKeyType);
+    }
+
+    /**
+     * Lists the files at a load location, null for locations that are not
+     * files.
+     */
+    private List<FileStatus> listFiles(String location) throws IOException {
+        List<FileStatus> statuses = new ArrayList<FileStatus>();
+        for (String pathString : LoadFunc.getPathStrings(location)) {
+            Path path = new Path(pathString);
+            if (!HadoopShims.hasFileSystemImpl(path, conf)) {
+                return null;
+            }
+            FileStatus[] matches = path.getFileSystem(conf).globStatus(path);
+            if (matches == null) {
+                return null;
+            }
+            statuses.addAll(Arrays.asList(matches));
+        }
+        return MapRedUtil.getAllFileRecursively(statuses, conf);
+    }
+
+    /**
+     * Location of a list of files, null if the name of one of them cannot be
+     * part of a location.
+     */
+    private static String getLocation(List<FileStatus> files) {
+        StringBuilder sb = new StringBuilder();
+        for (FileStatus file : files) {
+            String path = file.getPath().toString();
+            if (path.matches(".*[,{}\\[\\]*?\\\\].*")) {
+                return null;
+            }
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(path);
+        }
+        return sb.toString();
+    }
+
+    private Map<String, FileStatus> readManifest(Path manifest) throws IOException {
+        if (!fs.exists(manifest)) {
+            return null;
+        }
+        Map<String, FileStatus> files = new LinkedHashMap<String, FileStatus>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(fs.open(manifest), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+                if (fields.length != 3) {
+                    LOG.warn("Ignoring the invalid state manifest " + manifest);
+                    return null;
+                }
+                files.put(fields[0], new FileStatus(Long.parseLong(fields[1]), false, 0, 0,
+                        Long.parseLong(fields[2]), new Path(fields[0])));
+            }
+        } finally {
+            reader.close();
+        }
+        return files;
+    }
+
+    private void writeManifest(Path manifest, List<FileStatus> files) throws IOException {
+        fs.mkdirs(manifest.getParent());
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(fs.create(manifest, true), "UTF-8"));
+        try {
+            for (FileStatus file : files) {
+                writer.write(file.getPath() + "\t" + file.getLen() + "\t" + file.getModificationTime());
+                writer.newLine();
+            }
+        } finally {
+            writer.close();
+        }
+    }
+}
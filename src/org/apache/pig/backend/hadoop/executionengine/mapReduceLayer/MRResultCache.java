@@ -0,0 +1,463 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.backend.hadoop.executionengine.mapReduceLayer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.pig.LoadFunc;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.plans.MROpPlanVisitor;
+import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.plans.MROperPlan;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.PhysicalOperator;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POFRJoin;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLoad;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POMergeCogroup;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POMergeJoin;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.PONative;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POStore;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.util.PlanHelper;
+import org.apache.pig.backend.hadoop.executionengine.shims.HadoopShims;
+import org.apache.pig.impl.io.FileSpec;
+import org.apache.pig.impl.plan.DependencyOrderWalker;
+import org.apache.pig.impl.plan.VisitorException;
+
+/**
+ * Reuses the intermediate results of MapReduce jobs across script runs.
+ * <p/>
+ * A job whose outputs are all intermediate files is identified by a
+ * fingerprint of its plans, of the files it loads with their sizes and
+ * modification times, and of the fingerprints of the jobs it depends on. Its
+ * outputs are written to a directory named after the fingerprint under
+ * pig.result.cache.dir instead of pig.temp.dir, and kept once the job
+ * succeeds. When a later run compiles a job with the same fingerprint, the
+ * jobs reading its outputs load them from the cache, and the job as well as
+ * the jobs only feeding it are removed from the plan.
+ * <p/>
+ * Jobs reading files other than through a load, like replicated or merge
+ * joins, are not cached. Neither is the output of UDFs that depend on
+ * anything else than their input, so the cache should only be enabled for
+ * deterministic scripts.
+ * <p/>
+ * Entries are removed when they were not used for pig.result.cache.ttl
+ * seconds, and the least recently used ones when the cache grows beyond
+ * pig.result.cache.max.bytes.
+ */
+public class MRResultCache extends MROpPlanVisitor {
+    private static final Log LOG = LogFactory.getLog(MRResultCache.class);
+
+    private static final long DEFAULT_TTL = 7 * 24 * 60 * 60;
+    private static final long DEFAULT_MAX_BYTES = 10L * 1024 * 1024 * 1024;
+    private static final String STAGING_SUFFIX = ".tmp-";
+    private static final Pattern SCOPE = Pattern.compile("scope-\\d+");
+
+    private final Configuration conf;
+    private final Path cacheDir;
+    private final FileSystem fs;
+
+    // Fingerprint of each job, null for the ones that cannot be cached
+    private final Map<MapReduceOper, String> fingerprints = new HashMap<MapReduceOper, String>();
+    // Fingerprint of the output of the job writing each intermediate file
+    private final Map<String, String> tmpFileFingerprints = new HashMap<String, String>();
+    // Final directory of the outputs added to the cache when their job succeeds, by staging directory
+    private final Map<String, Path> pendingEntries = new HashMap<String, Path>();
+
+    public MRResultCache(MROperPlan plan, Configuration conf) throws IOException {
+        super(plan, new DependencyOrderWalker<MapReduceOper, MROperPlan>(plan));
+        this.conf = conf;
+        String dir = conf.get(PigConfiguration.PIG_RESULT_CACHE_DIR);
+        if (dir == null) {
+            dir = conf.get(PigConfiguration.PIG_TEMP_DIR, "/tmp") + "/pig-result-cache";
+        }
+        this.fs = new Path(dir).getFileSystem(conf);
+        this.cacheDir = fs.makeQualified(new Path(dir));
+    }
+
+    /**
+     * Computes the fingerprints of the jobs of the plan and rewrites it to
+     * read the cached results and to cache the results of the other jobs.
+     * @return the number of jobs removed from the plan
+     */
+    public int optimize() throws VisitorException, IOException {
+        visit();
+
+        List<MapReduceOper> hits = new ArrayList<MapReduceOper>();
+        // Locations the outputs of the jobs with cacheable results are read from
+        Map<MapReduceOper, Set<String>> cachedOutputs = new HashMap<MapReduceOper, Set<String>>();
+        long now = System.currentTimeMillis();
+        for (MapReduceOper mro : new ArrayList<MapReduceOper>(mPlan.getKeys().values())) {
+            String fingerprint = fingerprints.get(mro);
+            if (fingerprint == null || !isOnlyLoaded(mro)) {
+                continue;
+            }
+            Path entry = new Path(cacheDir, fingerprint);
+            cachedOutputs.put(mro, redirectLoads(mro, entry));
+            if (fs.exists(entry)) {
+                LOG.info("Using the cached result " + entry + " of " + mro.getOperatorKey());
+                fs.setTimes(entry, now, -1);
+                hits.add(mro);
+            } else {
+                Path staging = new Path(cacheDir, fingerprint + STAGING_SUFFIX + UUID.randomUUID());
+                redirectStores(mro, staging);
+                pendingEntries.put(staging.toString(), entry);
+            }
+        }
+
+        // Remove the jobs with a cached result, and the ones whose
+        // intermediate results are no longer needed
+        int sizeBefore = mPlan.size();
+        LinkedList<MapReduceOper> unused = new LinkedList<MapReduceOper>(hits);
+        while (!unused.isEmpty()) {
+            MapReduceOper mro = unused.removeFirst();
+            if (!mPlan.getKeys().containsKey(mro.getOperatorKey())) {
+                continue;
+            }
+            List<MapReduceOper> preds = mPlan.getPredecessors(mro);
+            preds = preds == null ? new ArrayList<MapReduceOper>() : new ArrayList<MapReduceOper>(preds);
+            mPlan.remove(mro);
+            for (MapReduceOper pred : preds) {
+                // Only jobs with cacheable results feed the ones with a cached result
+                if (cachedOutputs.containsKey(pred) && !isLoaded(cachedOutputs.get(pred))) {
+                    unused.add(pred);
+                }
+            }
+        }
+        return sizeBefore - mPlan.size();
+    }
+
+    /**
+     * Adds the outputs of a job that succeeded to the cache.
+     * @param stores the stores of the job
+     */
+    public void commit(List<POStore> stores) throws IOException {
+        for (POStore store : stores) {
+            Path staging = new Path(store.getSFile().getFileName()).getParent();
+            Path entry = staging == null ? null : pendingEntries.remove(staging.toString());
+            if (entry == null || !fs.exists(staging)) {
+                continue;
+            }
+            if (fs.exists(entry)) {
+                // Added by another run in the meantime
+                fs.delete(staging, true);
+            } else if (fs.rename(staging, entry)) {
+                LOG.info("Added cached result " + entry);
+            } else {
+                LOG.warn("Cannot add cached result " + entry);
+                continue;
+            }
+            fs.setTimes(entry, System.currentTimeMillis(), -1);
+        }
+    }
+
+    /**
+     * Removes the entries that expired, and the least recently used ones if
+     * the cache is larger than its maximum size.
+     */
+    public void evict() throws IOException {
+        if (!fs.exists(cacheDir)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long ttl = conf.getLong(PigConfiguration.PIG_RESULT_CACHE_TTL, DEFAULT_TTL) * 1000;
+        long maxBytes = conf.getLong(PigConfiguration.PIG_RESULT_CACHE_MAX_BYTES, DEFAULT_MAX_BYTES);
+        List<FileStatus> entries = new ArrayList<FileStatus>();
+        for (FileStatus status : fs.listStatus(cacheDir)) {
+            if (now - status.getModificationTime() > ttl) {
+                // Includes the staging directories of runs that did not complete
+                LOG.info("Removing expired cached result " + status.getPath());
+                fs.delete(status.getPath(), true);
+            } else if (!status.getPath().getName().contains(STAGING_SUFFIX)) {
+                entries.add(status);
+            }
+        }
+        if (maxBytes < 0) {
+            return;
+        }
+        // Most recently used first
+        Collections.sort(entries, new Comparator<FileStatus>() {
+            @Override
+            public int compare(FileStatus o1, FileStatus o2) {
+                return Long.compare(o2.getModificationTime(), o1.getModificationTime());
+            }
+        });
+        long size = 0;
+        for (FileStatus entry : entries) {
+            size += fs.getContentSummary(entry.getPath()).getLength();
+            if (size > maxBytes) {
+                LOG.info("Removing least recently used cached result " + entry.getPath());
+                fs.delete(entry.getPath(), true);
+            }
+        }
+    }
+
+    @Override
+    public void visitMROp(MapReduceOper mro) throws VisitorException {
+        String fingerprint = null;
+        try {
+            fingerprint = fingerprint(mro);
+        } catch (IOException e) {
+            LOG.warn("Cannot compute the fingerprint of " + mro.getOperatorKey(), e);
+        }
+        fingerprints.put(mro, fingerprint);
+        if (fingerprint != null) {
+            List<POStore> stores = getOperators(mro, POStore.class);
+            for (int i = 0; i < stores.size(); i++) {
+                tmpFileFingerprints.put(stores.get(i).getSFile().getFileName(), fingerprint + "/" + i);
+            }
+        }
+    }
+
+    private String fingerprint(MapReduceOper mro) throws IOException {
+        if (mro instanceof NativeMapReduceOper || !hasOnlyTmpStores(mro)
+                || contains(mro, POFRJoin.class) || contains(mro, POMergeJoin.class)
+                || contains(mro, POMergeCogroup.class) || contains(mro, PONative.class)) {
+            return null;
+        }
+
+        // The names of intermediate files are random, they are replaced by
+        // the fingerprint of their content
+        Map<String, String> replacements = new HashMap<String, String>();
+        List<String> inputs = new ArrayList<String>();
+        for (POLoad load : getOperators(mro, POLoad.class)) {
+            String location = load.getLFile().getFileName();
+            if (load.isTmpLoad()) {
+                String input = tmpFileFingerprints.get(location);
+                if (input == null) {
+                    return null;
+                }
+                replacements.put(location, input);
+            } else {
+                String input = fingerprintInput(location);
+                if (input == null) {
+                    return null;
+                }
+                inputs.add(input);
+            }
+        }
+        List<POStore> stores = getOperators(mro, POStore.class);
+        for (int i = 0; i < stores.size(); i++) {
+            replacements.put(stores.get(i).getSFile().getFileName(), "output-" + i);
+        }
+        List<String> preds = new ArrayList<String>();
+        if (mPlan.getPredecessors(mro) != null) {
+            for (MapReduceOper pred : mPlan.getPredecessors(mro)) {
+                String predFingerprint = fingerprints.get(pred);
+                if (predFingerprint == null) {
+                    return null;
+                }
+                preds.add(predFingerprint);
+            }
+        }
+        Collections.sort(preds);
+
+        String plans = explain(mro.mapPlan) + explain(mro.combinePlan) + explain(mro.reducePlan);
+        // Longest first in case a name is a prefix of another
+        List<String> names = new ArrayList<String>(replacements.keySet());
+        Collections.sort(names, new Comparator<String>() {
+            @Override
+            public int compare(String o1, String o2) {
+                return o2.length() - o1.length();
+            }
+        });
+        for (String name : names) {
+            plans = plans.replace(name, replacements.get(name));
+        }
+        plans = SCOPE.matcher(plans).replaceAll("scope");
+
+        StringBuilder sb = new StringBuilder(plans);
+        sb.append(mro.getRequestedParallelism()).append(',').append(mro.limit).append(',')
+                .append(mro.isGlobalSort()).append(',').append(mro.getCustomPartitioner()).append(',')
+                .append(mro.getUseSecondaryKey()).append('\n');
+        sb.append(inputs).append('\n').append(preds);
+        return DigestUtils.shaHex(sb.toString());
+    }
+
+    /**
+     * Fingerprints the files at a load location by their names, sizes and
+     * modification times. Returns null for locations that are not files.
+     */
+    private String fingerprintInput(String location) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (String pathString : LoadFunc.getPathStrings(location)) {
+            Path path = new Path(pathString);
+            if (!HadoopShims.hasFileSystemImpl(path, conf)) {
+                return null;
+            }
+            FileSystem inputFs = path.getFileSystem(conf);
+            FileStatus[] statuses = inputFs.globStatus(path);
+            if (statuses == null || statuses.length == 0) {
+                return null;
+            }
+            for (FileStatus status : statuses) {
+                appendFiles(inputFs, status, sb);
+            }
+        }
+        return sb.toString();
+    }
+
+    private void appendFiles(FileSystem inputFs, FileStatus status, StringBuilder sb) throws IOException {
+        if (status.isDirectory()) {
+            for (FileStatus child : inputFs.listStatus(status.getPath())) {
+                appendFiles(inputFs, child, sb);
+            }
+        } else {
+            sb.append(status.getPath()).append(':').append(status.getLen()).append(':')
+                    .append(status.getModificationTime()).append(';');
+        }
+    }
+
+    /**
+     * Whether the jobs reading the outputs of a job only read them with a
+     * load, and not through a side file like the quantiles of an order by.
+     * These jobs are not always successors of the job, the partitioning job
+     * of an order by only depends on the sampling job for instance.
+     */
+    private boolean isOnlyLoaded(MapReduceOper mro) {
+        List<MapReduceOper> succs = mPlan.getSuccessors(mro);
+        if (succs == null || succs.isEmpty()) {
+            return false;
+        }
+        for (MapReduceOper succ : succs) {
+            if (succ instanceof NativeMapReduceOper) {
+                return false;
+            }
+        }
+        Set<String> outputs = new HashSet<String>();
+        for (POStore store : getOperators(mro, POStore.class)) {
+            outputs.add(store.getSFile().getFileName());
+        }
+        Set<String> loaded = new HashSet<String>();
+        for (MapReduceOper reader : mPlan) {
+            if (reader == mro) {
+                continue;
+            }
+            if (outputs.contains(reader.getQuantFile())
+                    || outputs.contains(reader.getSkewedJoinPartitionFile())) {
+                return false;
+            }
+            for (POLoad load : getOperators(reader, POLoad.class)) {
+                if (outputs.contains(load.getLFile().getFileName())) {
+                    if (contains(reader, POFRJoin.class) || contains(reader, POMergeJoin.class)
+                            || contains(reader, POMergeCogroup.class)) {
+                        return false;
+                    }
+                    loaded.add(load.getLFile().getFileName());
+                }
+            }
+        }
+        return loaded.containsAll(outputs);
+    }
+
+    /**
+     * Makes the jobs reading the outputs of a job read them from its cache
+     * entry.
+     */
+    private Set<String> redirectLoads(MapReduceOper mro, Path entry) {
+        Map<String, String> locations = new HashMap<String, String>();
+        List<POStore> stores = getOperators(mro, POStore.class);
+        for (int i = 0; i < stores.size(); i++) {
+            locations.put(stores.get(i).getSFile().getFileName(), new Path(entry, Integer.toString(i)).toString());
+        }
+        for (MapReduceOper reader : mPlan) {
+            for (POLoad load : getOperators(reader, POLoad.class)) {
+                String location = locations.get(load.getLFile().getFileName());
+                if (location != null) {
+                    load.setLFile(new FileSpec(location, load.getLFile().getFuncSpec()));
+                }
+            }
+        }
+        return new HashSet<String>(locations.values());
+    }
+
+    private boolean isLoaded(Set<String> locations) {
+        for (MapReduceOper reader : mPlan) {
+            for (POLoad load : getOperators(reader, POLoad.class)) {
+                if (locations.contains(load.getLFile().getFileName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void redirectStores(MapReduceOper mro, Path staging) {
+        List<POStore> stores = getOperators(mro, POStore.class);
+        for (int i = 0; i < stores.size(); i++) {
+            POStore store = stores.get(i);
+            store.setSFile(new FileSpec(new Path(staging, Integer.toString(i)).toString(),
+                    store.getSFile().getFuncSpec()));
+        }
+    }
+
+    private static boolean hasOnlyTmpStores(MapReduceOper mro) {
+        List<POStore> stores = getOperators(mro, POStore.class);
+        if (stores.isEmpty()) {
+            return false;
+        }
+        for (POStore store : stores) {
+            if (!store.isTmpStore()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <C extends PhysicalOperator> boolean contains(MapReduceOper mro, Class<C> opClass) {
+        return !getOperators(mro, opClass).isEmpty();
+    }
+
+    private static <C extends PhysicalOperator> List<C> getOperators(MapReduceOper mro, Class<C> opClass) {
+        List<C> ops = new ArrayList<C>();
+        try {
+            ops.addAll(PlanHelper.getPhysicalOperators(mro.mapPlan, opClass));
+            ops.addAll(PlanHelper.getPhysicalOperators(mro.combinePlan, opClass));
+            ops.addAll(PlanHelper.getPhysicalOperators(mro.reducePlan, opClass));
+        } catch (VisitorException e) {
+            throw new RuntimeException(e);
+        }
+        return ops;
+    }
+
+    static String explain(PhysicalPlan plan) {
+        if (plan == null || plan.isEmpty()) {
+            return "";
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        plan.explain(baos);
+        return baos.toString();
+    }
+}
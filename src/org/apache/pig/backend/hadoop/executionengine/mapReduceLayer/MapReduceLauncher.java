@@ -47,12 +47,14 @@ import org.apache.hadoop.mapreduce.TaskReport;
 import org.apache.hadoop.mapred.jobcontrol.Job;
 import org.apache.hadoop.mapreduce.TaskType;
 import org.apache.hadoop.mapreduce.lib.jobcontrol.ControlledJob;
+import org.apache.hadoop.mapreduce.lib.jobcontrol.JobControl.ThreadState;
 import org.apache.pig.PigConfiguration;
 import org.apache.pig.PigException;
 import org.apache.pig.PigRunner.ReturnCode;
 import org.apache.pig.PigWarning;
 import org.apache.pig.backend.BackendException;
 import org.apache.pig.backend.executionengine.ExecException;
+import org.apache.pig.backend.hadoop.PigJobControl;
 import org.apache.pig.backend.hadoop.datastorage.ConfigurationUtil;
 import org.apache.pig.backend.hadoop.executionengine.JobCreationException;
 import org.apache.pig.backend.hadoop.executionengine.Launcher;
@@ -185,6 +187,27 @@ public class MapReduceLauncher extends Launcher {
 
         JobControlCompiler jcc = new JobControlCompiler(pc, conf, ConfigurationUtil.toConfiguration(defaultProperties));
 
+        if (conf.getBoolean(PigConfiguration.PIG_RESULT_CACHE_ENABLED, false) && !pc.inIllustrator) {
+            // Reuse the intermediate results of previous runs, before the
+            // plan is used for statistics or cleanup
+            MRResultCache resultCache = new MRResultCache(mrp, conf);
+            resultCache.evict();
+            int removed = resultCache.optimize();
+            if (removed > 0) {
+                log.info(removed + " map-reduce job(s) replaced by cached results.");
+            }
+            jcc.setResultCache(resultCache);
+        }
+
+        MRIncrementalProcessor incremental = null;
+        if (conf.getBoolean(PigConfiguration.PIG_INCREMENTAL_ENABLED, false) && !pc.inIllustrator) {
+            incremental = new MRIncrementalProcessor(mrp, pc, conf);
+            int rewritten = incremental.optimize();
+            if (rewritten > 0) {
+                log.info(rewritten + " map-reduce job(s) only processing new input files.");
+            }
+        }
+
         MRScriptState.get().addWorkflowAdjacenciesToConf(mrp, conf);
 
         // start collecting statistics
@@ -195,6 +218,10 @@ public class MapReduceLauncher extends Launcher {
         // so this needs to be done before.
         MRIntermediateDataVisitor intermediateVisitor = new MRIntermediateDataVisitor(mrp);
         intermediateVisitor.visit();
+        if (incremental != null) {
+            // States are kept for the next runs
+            intermediateVisitor.getIntermediate().removeAll(incremental.getStagingLocations());
+        }
 
         List<Job> failedJobs = new LinkedList<Job>();
         List<NativeMapReduceOper> failedNativeMR = new LinkedList<NativeMapReduceOper>();
@@ -212,6 +239,7 @@ public class MapReduceLauncher extends Launcher {
         boolean stop_on_failure =
             Boolean.valueOf(pc.getProperties().getProperty("stop.on.failure", "false"));
         boolean stoppedOnFailure = false;
+        boolean eagerSubmit = conf.getBoolean(PigConfiguration.PIG_JOBCONTROL_EAGER_SUBMIT, true);
 
         // jc is null only when mrp.size == 0
         while(mrp.size() != 0 && !stoppedOnFailure) {
@@ -305,12 +333,7 @@ public class MapReduceLauncher extends Launcher {
 
             // mark the times that the jobs were submitted so it's reflected in job history props
             for (Job job : jc.getWaitingJobs()) {
-                JobConf jobConfCopy = job.getJobConf();
-                jobConfCopy.set("pig.script.submitted.timestamp",
-                        Long.toString(scriptSubmittedTimestamp));
-                jobConfCopy.set("pig.job.submitted.timestamp",
-                        Long.toString(System.currentTimeMillis()));
-                job.setJobConf(jobConfCopy);
+                setSubmittedTimestamps(job, scriptSubmittedTimestamp);
             }
 
             //All the setup done, now lets launch the jobs.
@@ -323,7 +346,12 @@ public class MapReduceLauncher extends Launcher {
                 // Now wait, till we are finished.
                 while(!jc.allFinished()){
 
-                    jcThread.join(sleepTime);
+                    if (jc instanceof PigJobControl) {
+                        // Returns as soon as a job completes
+                        ((PigJobControl)jc).waitForUpdate(sleepTime);
+                    } else {
+                        jcThread.join(sleepTime);
+                    }
 
                     List<Job> jobsAssignedIdInThisRun = new ArrayList<Job>();
 
@@ -377,6 +405,28 @@ public class MapReduceLauncher extends Launcher {
 
                     // if stop_on_failure is enabled, we need to stop immediately when any job has failed
                     stoppedOnFailure = stopJobsOnFailure(stop_on_failure);
+
+                    // Submit the jobs whose dependencies have all succeeded to the
+                    // running JobControl instead of waiting for the whole group.
+                    // Holding the lock keeps it from stopping while they are compiled.
+                    if (eagerSubmit && !stoppedOnFailure) {
+                        List<Job> newJobs = null;
+                        synchronized (jc) {
+                            if (jc.getThreadState() == ThreadState.RUNNING) {
+                                newJobs = jcc.compileSuccessors(jc.getSuccessfulJobs());
+                                for (Job job : newJobs) {
+                                    setSubmittedTimestamps(job, scriptSubmittedTimestamp);
+                                    jc.addJob(job);
+                                }
+                            }
+                        }
+                        if (newJobs != null && !newJobs.isEmpty()) {
+                            log.info(newJobs.size() + " map-reduce job(s) waiting for submission.");
+                            MRScriptState.get().emitJobsSubmittedNotification(newJobs.size());
+                            MRPigStatsUtil.updateJobMroMap(jcc.getJobMroMap());
+                            jobsWithoutIds.addAll(newJobs);
+                        }
+                    }
                     // otherwise, we just display a warning message if there's any failure
                     if (!stop_on_failure && warn_failure && !jc.getFailedJobs().isEmpty()) {
                         // we don't warn again for this group of jobs
@@ -487,6 +537,14 @@ public class MapReduceLauncher extends Launcher {
         // total jobs to run, jobs successful and jobs failed
         failed = failed || !PigStats.get().isSuccessful();
 
+        if (incremental != null) {
+            if (failed) {
+                incremental.abort();
+            } else {
+                incremental.commit();
+            }
+        }
+
         Map<Enum, Long> warningAggMap = new HashMap<Enum, Long>();
 
         if (succJobs != null) {
@@ -587,6 +645,18 @@ public class MapReduceLauncher extends Launcher {
         return false;
     }
 
+    /**
+     * Marks the times that the job was submitted so it's reflected in job history props
+     */
+    private void setSubmittedTimestamps(Job job, long scriptSubmittedTimestamp) {
+        JobConf jobConfCopy = job.getJobConf();
+        jobConfCopy.set("pig.script.submitted.timestamp",
+                Long.toString(scriptSubmittedTimestamp));
+        jobConfCopy.set("pig.job.submitted.timestamp",
+                Long.toString(System.currentTimeMillis()));
+        job.setJobConf(jobConfCopy);
+    }
+
     /**
      * Log the progress and notify listeners if there is sufficient progress
      * @param prog current progress
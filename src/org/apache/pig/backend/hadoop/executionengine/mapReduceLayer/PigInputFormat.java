@@ -34,9 +34,11 @@ import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.JobContext;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
 import org.apache.pig.CollectableLoadFunc;
+import org.apache.pig.Expression;
 import org.apache.pig.FuncSpec;
 import org.apache.pig.IndexableLoadFunc;
 import org.apache.pig.LoadFunc;
+import org.apache.pig.LoadPredicatePushdown;
 import org.apache.pig.OrderedLoadFunc;
 import org.apache.pig.PigException;
 import org.apache.pig.backend.executionengine.ExecException;
@@ -86,6 +88,8 @@ public class PigInputFormat extends InputFormat<Text, Tuple> {
         protected LoadFuncDecorator decorator;
         protected TaskAttemptContext context;
         protected long limit;
+        protected String runtimeFilterSignature;
+        protected Expression pushdownPredicate;
 
         public RecordReaderFactory(org.apache.hadoop.mapreduce.InputSplit split,
                                    TaskAttemptContext context) throws IOException {
@@ -129,10 +133,15 @@ public class PigInputFormat extends InputFormat<Text, Tuple> {
             this.decorator = decorator;
             this.context = context;
             this.limit = inpLimitLists.get(pigSplit.getInputIndex());
+            if (poLoad.getRuntimeFilterColumn() != null && loadFunc instanceof LoadPredicatePushdown) {
+                this.runtimeFilterSignature = poLoad.getSignature();
+                this.pushdownPredicate = poLoad.getPushdownPredicate();
+            }
         }
 
         public org.apache.hadoop.mapreduce.RecordReader<Text, Tuple> createRecordReader() throws IOException, InterruptedException {
-            return new PigRecordReader(inputFormat, pigSplit, decorator, context, limit);
+            return new PigRecordReader(inputFormat, pigSplit, decorator, context, limit,
+                    runtimeFilterSignature, pushdownPredicate);
         }
     }
 
@@ -23,6 +23,8 @@ import static org.apache.pig.PigConstants.TIME_UDFS_ELAPSED_TIME_COUNTER;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -32,7 +34,11 @@ import org.apache.hadoop.mapreduce.InputFormat;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.pig.Expression;
+import org.apache.pig.Expression.BinaryExpression;
+import org.apache.pig.Expression.OpType;
 import org.apache.pig.LoadFunc;
+import org.apache.pig.LoadPredicatePushdown;
 import org.apache.pig.backend.hadoop.datastorage.ConfigurationUtil;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.LoadFuncDecorator;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLoad;
@@ -57,6 +63,12 @@ public class PigRecordReader extends RecordReader<Text, Tuple> {
 
     private static final Log LOG = LogFactory.getLog(PigRecordReader.class);
 
+    /**
+     * Predicates built at runtime for loads in the task, keyed by the
+     * signature of the load
+     */
+    private static final Map<String, Expression> runtimePredicates = new ConcurrentHashMap<String, Expression>();
+
     transient private String counterGroup = "";
     private long timingFrequency = 100L;
     private boolean doTiming = false;
@@ -106,12 +118,36 @@ public class PigRecordReader extends RecordReader<Text, Tuple> {
      * {@link InputFormat} might have put in.
      */
     private Configuration inputSpecificConf;
+
+    /**
+     * signature of the load if a predicate built at runtime is to be pushed
+     * down to the loader before reading, null otherwise
+     */
+    private final String runtimeFilterSignature;
+
+    // predicate pushed down to the loader at compile time
+    private final Expression pushdownPredicate;
+
     /**
      * @param context
      *
      */
     public PigRecordReader(InputFormat<?, ?> inputformat, PigSplit pigSplit,
             LoadFuncDecorator decorator, TaskAttemptContext context, long limit) throws IOException, InterruptedException {
+        this(inputformat, pigSplit, decorator, context, limit, null, null);
+    }
+
+    /**
+     * @param runtimeFilterSignature signature of the load if the predicate
+     *            registered with {@link #setRuntimePredicate(String, Expression)}
+     *            has to be pushed down to the loader. Opening of the underlying
+     *            RecordReader is then delayed till the first record is read.
+     * @param pushdownPredicate predicate pushed down to the loader at compile
+     *            time which has to be combined with the runtime predicate
+     */
+    public PigRecordReader(InputFormat<?, ?> inputformat, PigSplit pigSplit,
+            LoadFuncDecorator decorator, TaskAttemptContext context, long limit,
+            String runtimeFilterSignature, Expression pushdownPredicate) throws IOException, InterruptedException {
         this.inputformat = inputformat;
         this.pigSplit = pigSplit;
         this.decorator = decorator;
@@ -123,7 +159,11 @@ public class PigRecordReader extends RecordReader<Text, Tuple> {
         progress = 0;
         idx = 0;
         this.limit = limit;
-        initNextRecordReader();
+        this.runtimeFilterSignature = runtimeFilterSignature;
+        this.pushdownPredicate = pushdownPredicate;
+        if (runtimeFilterSignature == null) {
+            initNextRecordReader();
+        }
         doTiming = inputSpecificConf.getBoolean(PIG_UDF_PROFILE, false);
         if (doTiming) {
             counterGroup = loadfunc.toString();
@@ -131,6 +171,20 @@ public class PigRecordReader extends RecordReader<Text, Tuple> {
         }
     }
 
+    /**
+     * Register a predicate built at runtime, like the range of the join keys
+     * of a bloom join, to be pushed down to the loader with the signature
+     * before it starts reading
+     */
+    public static void setRuntimePredicate(String signature, Expression predicate) {
+        runtimePredicates.put(signature, predicate);
+    }
+
+    //@StaticDataCleanup
+    public static void staticDataCleanup() {
+        runtimePredicates.clear();
+    }
+
     @Override
     public void close() throws IOException {
         if (curReader != null) {
@@ -252,12 +306,16 @@ public class PigRecordReader extends RecordReader<Text, Tuple> {
         try {
 
             pigSplit.setCurrentIdx(idx);
+            if (idx == 0 && runtimeFilterSignature != null) {
+                pushdownRuntimePredicate();
+            }
             curReader =  inputformat.createRecordReader(pigSplit.getWrappedSplit(), context);
             LOG.info("Current split being processed "+pigSplit.getWrappedSplit());
 
-            if (idx > 0) {
-                // initialize() for the first RecordReader will be called by MapTask;
-                // we're responsible for initializing subsequent RecordReaders.
+            if (idx > 0 || runtimeFilterSignature != null) {
+                // initialize() for the first RecordReader will be called by MapTask
+                // unless its creation was delayed; we're responsible for
+                // initializing subsequent RecordReaders.
                 curReader.initialize(pigSplit.getWrappedSplit(), context);
                 loadfunc.prepareToRead(curReader, pigSplit);
             }
@@ -267,4 +325,20 @@ public class PigRecordReader extends RecordReader<Text, Tuple> {
         idx++;
         return true;
     }
+
+    private void pushdownRuntimePredicate() throws IOException {
+        Expression predicate = runtimePredicates.get(runtimeFilterSignature);
+        if (predicate == null) {
+            LOG.info("No runtime predicate to push down for " + runtimeFilterSignature);
+            return;
+        }
+        if (pushdownPredicate != null) {
+            predicate = new BinaryExpression(pushdownPredicate, predicate, OpType.OP_AND);
+        }
+        LOG.info("Pushing down runtime predicate [" + predicate + "] to " + loadfunc);
+        ((LoadPredicatePushdown) loadfunc).setPushdownPredicate(predicate);
+        // setLocation has to be called again for the loader to pass the
+        // predicate to the InputFormat through the conf
+        PigInputFormat.mergeSplitSpecificConf(loadfunc, pigSplit, context.getConfiguration());
+    }
 }
@@ -376,11 +376,9 @@ public class POFRJoin extends PhysicalOperator {
             }
         }
 
-        int i = -1;
         long time1 = System.currentTimeMillis();
-        for (FileSpec replFile : replFiles) {
-            ++i;
-
+        int numInputs = (replFiles != null) ? replFiles.length : phyPlanLists.size();
+        for (int i = 0; i < numInputs; i++) {
             SchemaTupleFactory inputSchemaTupleFactory = inputSchemaTupleFactories[i];
             SchemaTupleFactory keySchemaTupleFactory = keySchemaTupleFactories[i];
 
@@ -389,12 +387,6 @@ public class POFRJoin extends PhysicalOperator {
                 continue;
             }
 
-            POLoad ld = new POLoad(new OperatorKey("Repl File Loader", 1L),
-                    replFile);
-
-            Properties props = ConfigurationUtil.getLocalFSProperties();
-            PigContext pc = new PigContext(ExecType.LOCAL, props);
-            ld.setPc(pc);
             // We use LocalRearrange Operator to seperate Key and Values
             // eg. ( a, b, c ) would generate a, ( a, b, c )
             // And we use 'a' as the key to the HashMap
@@ -402,7 +394,19 @@ public class POFRJoin extends PhysicalOperator {
             // We could have manually done this, but LocalRearrange does the
             // same thing, so utilizing its functionality
             POLocalRearrange lr = LRs[i];
-            lr.setInputs(Arrays.asList((PhysicalOperator) ld));
+            if (replFiles != null) {
+                POLoad ld = new POLoad(new OperatorKey("Repl File Loader", 1L),
+                        replFiles[i]);
+
+                Properties props = ConfigurationUtil.getLocalFSProperties();
+                PigContext pc = new PigContext(ExecType.LOCAL, props);
+                ld.setPc(pc);
+                lr.setInputs(Arrays.asList((PhysicalOperator) ld));
+            } else {
+                // The join was not compiled into a job, as when fetching. The
+                // replicated inputs are still the inputs of the join.
+                lr.setInputs(Arrays.asList(inputs.get(i)));
+            }
 
             Map<Object, ArrayList<Tuple>> replicate;
             if (keySchemaTupleFactory == null) {
@@ -22,6 +22,8 @@ import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.pig.Expression;
 import org.apache.pig.LoadFunc;
 import org.apache.pig.PigException;
 import org.apache.pig.backend.executionengine.ExecException;
@@ -68,8 +70,17 @@ public class POLoad extends PhysicalOperator {
     
     private long limit=-1;
 
+    // Predicate pushed down to the loader at compile time
+    private Expression pushdownPredicate;
+    // Column of the loader on which a filter built at runtime is pushed down
+    private String runtimeFilterColumn;
+
     private transient List<String> cacheFiles = null;
     private transient List<String> shipFiles = null;
+
+    // When set, only the split at splitIndex out of these is read
+    private transient List<InputSplit> inputSplits = null;
+    private transient int splitIndex = -1;
     
     public POLoad(OperatorKey k) {
         this(k,-1, null);
@@ -97,10 +108,17 @@ public class POLoad extends PhysicalOperator {
      * @throws IOException
      */
     public void setUp() throws IOException{
-        loader = new ReadToEndLoader((LoadFunc)
-                PigContext.instantiateFuncFromSpec(lFile.getFuncSpec()), 
-                ConfigurationUtil.toConfiguration(pc.getProperties()), 
-                lFile.getFileName(),0, signature);
+        if (inputSplits != null) {
+            loader = new ReadToEndLoader((LoadFunc)
+                    PigContext.instantiateFuncFromSpec(lFile.getFuncSpec()),
+                    ConfigurationUtil.toConfiguration(pc.getProperties()),
+                    lFile.getFileName(), inputSplits, splitIndex, signature);
+        } else {
+            loader = new ReadToEndLoader((LoadFunc)
+                    PigContext.instantiateFuncFromSpec(lFile.getFuncSpec()),
+                    ConfigurationUtil.toConfiguration(pc.getProperties()),
+                    lFile.getFileName(),0, signature);
+        }
         setLoadFuncDecorator(new LoadFuncDecorator(loader, signature));
     }
     
@@ -270,6 +288,17 @@ public class POLoad extends PhysicalOperator {
         this.limit = limit;
     }
 
+    /**
+     * Restricts the load to read only one of the splits of its input
+     *
+     * @param inputSplits the splits of the input of the load
+     * @param splitIndex index of the split to read
+     */
+    public void setInputSplit(List<InputSplit> inputSplits, int splitIndex) {
+        this.inputSplits = inputSplits;
+        this.splitIndex = splitIndex;
+    }
+
     public List<String> getCacheFiles() {
         return cacheFiles;
     }
@@ -285,4 +314,20 @@ public class POLoad extends PhysicalOperator {
     public void setShipFiles(List<String> sf) {
         shipFiles = sf;
     }
+
+    public Expression getPushdownPredicate() {
+        return pushdownPredicate;
+    }
+
+    public void setPushdownPredicate(Expression pushdownPredicate) {
+        this.pushdownPredicate = pushdownPredicate;
+    }
+
+    public String getRuntimeFilterColumn() {
+        return runtimeFilterColumn;
+    }
+
+    public void setRuntimeFilterColumn(String runtimeFilterColumn) {
+        this.runtimeFilterColumn = runtimeFilterColumn;
+    }
 }
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.pig.backend.executionengine.ExecException;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.POStatus;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.Result;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.expressionOperators.POUserComparisonFunc;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhyPlanVisitor;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
+import org.apache.pig.data.DataBag;
+import org.apache.pig.data.Tuple;
+import org.apache.pig.impl.plan.OperatorKey;
+import org.apache.pig.impl.plan.PlanException;
+import org.apache.pig.impl.plan.VisitorException;
+
+/**
+ * Keeps the first n records of its input in the order of an ORDER BY ...
+ * LIMIT n, in a bounded heap, and emits them once all the input has been
+ * read. Used before the shuffle of a limited sort so that each task sends at
+ * most n records to the single task merging them.
+ */
+public class POTopN extends POSort {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient DataBag heap;
+
+    private transient Iterator<Tuple> it;
+
+    /**
+     * @param k operator key
+     * @param sort limited sort giving the order and the number of records to keep
+     */
+    public POTopN(OperatorKey k, POSort sort) throws PlanException {
+        super(k, sort.getRequestedParallelism(), null, clonePlans(sort),
+                new ArrayList<Boolean>(sort.getMAscCols()), cloneSortFunc(sort));
+        setLimit(sort.getLimit());
+        setResultType(sort.getResultType());
+        copyAliasFrom(sort);
+    }
+
+    private static List<PhysicalPlan> clonePlans(POSort sort) throws PlanException {
+        List<PhysicalPlan> plans = new ArrayList<PhysicalPlan>(sort.getSortPlans().size());
+        try {
+            for (PhysicalPlan plan : sort.getSortPlans()) {
+                plans.add(plan.clone());
+            }
+        } catch (CloneNotSupportedException e) {
+            throw new PlanException("Unable to clone the sort plans of " + sort.getOperatorKey(), e);
+        }
+        return plans;
+    }
+
+    private static POUserComparisonFunc cloneSortFunc(POSort sort) throws PlanException {
+        try {
+            return sort.getMSortFunc() == null ? null : sort.getMSortFunc().clone();
+        } catch (CloneNotSupportedException e) {
+            throw new PlanException("Unable to clone the comparator of " + sort.getOperatorKey(), e);
+        }
+    }
+
+    @Override
+    public void visit(PhyPlanVisitor v) throws VisitorException {
+        v.visitTopN(this);
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return false;
+    }
+
+    @Override
+    public Result getNextTuple() throws ExecException {
+        if (it == null) {
+            if (heap == null) {
+                heap = mBagFactory.newLimitedSortedBag(getMComparator(), getLimit());
+            }
+            while (true) {
+                Result res = processInput();
+                if (res.returnStatus == POStatus.STATUS_OK) {
+                    heap.add((Tuple) res.result);
+                } else if (res.returnStatus == POStatus.STATUS_NULL) {
+                    continue;
+                } else if (res.returnStatus == POStatus.STATUS_EOP && parentPlan.endOfAllInput) {
+                    it = heap.iterator();
+                    break;
+                } else {
+                    // Input of the current record is consumed, or an error
+                    return res;
+                }
+            }
+        }
+        if (it.hasNext()) {
+            return new Result(POStatus.STATUS_OK, it.next());
+        }
+        heap = null;
+        return RESULT_EOP;
+    }
+
+    @Override
+    public void reset() {
+        // Records are kept until the end of all input
+    }
+
+    @Override
+    public String name() {
+        return getAliasString() + "TopN" + "(" + getLimit() + ")" + " - " + mKey.toString();
+    }
+}
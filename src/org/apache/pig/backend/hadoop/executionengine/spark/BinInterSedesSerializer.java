@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.backend.hadoop.executionengine.spark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+import org.apache.pig.backend.hadoop.executionengine.spark.converter.IndexedKey;
+import org.apache.pig.data.DataType;
+import org.apache.pig.data.InterSedes;
+import org.apache.pig.data.InterSedesFactory;
+import org.apache.spark.serializer.DeserializationStream;
+import org.apache.spark.serializer.SerializationStream;
+import org.apache.spark.serializer.Serializer;
+import org.apache.spark.serializer.SerializerInstance;
+
+import scala.Tuple2;
+import scala.reflect.ClassTag;
+
+/**
+ * Spark serializer writing the records of Pig jobs in the BinInterSedes
+ * format used by the MapReduce and Tez shuffles, instead of going through
+ * Java serialization. Pig data types, the IndexedKey shuffle keys and the
+ * scala Tuple2 pairs holding them are written field by field. Anything else,
+ * such as the values of broadcast variables, falls back to Java
+ * serialization.
+ * <p/>
+ * Records are written without any stream header or back references, so
+ * serialized records can be reordered by the Spark shuffle without being
+ * deserialized. Enabled with spark.serializer set to this class.
+ */
+public class BinInterSedesSerializer extends Serializer implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final byte PIG_DATUM = 0;
+    private static final byte TUPLE2 = 1;
+    private static final byte INDEXED_KEY = 2;
+    private static final byte JAVA_OBJECT = 3;
+
+    @Override
+    public SerializerInstance newInstance() {
+        ClassLoader loader = defaultClassLoader().isDefined() ? defaultClassLoader().get()
+                : Thread.currentThread().getContextClassLoader();
+        return new BinInterSedesSerializerInstance(loader);
+    }
+
+    @Override
+    public boolean supportsRelocationOfSerializedObjects() {
+        return true;
+    }
+
+    private static class BinInterSedesSerializerInstance extends SerializerInstance {
+        private final InterSedes sedes = InterSedesFactory.getInterSedesInstance();
+        private final ClassLoader defaultLoader;
+        // Instances are used by a single thread at a time, so the buffer of
+        // serialize() is reused between calls
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        BinInterSedesSerializerInstance(ClassLoader defaultLoader) {
+            this.defaultLoader = defaultLoader;
+        }
+
+        @Override
+        public <T> ByteBuffer serialize(T t, ClassTag<T> tag) {
+            buffer.reset();
+            try {
+                write(new DataOutputStream(buffer), t);
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to serialize " + t, e);
+            }
+            return ByteBuffer.wrap(buffer.toByteArray());
+        }
+
+        @Override
+        public <T> T deserialize(ByteBuffer bytes, ClassTag<T> tag) {
+            return deserialize(bytes, defaultLoader, tag);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T deserialize(ByteBuffer bytes, ClassLoader loader, ClassTag<T> tag) {
+            byte[] b;
+            int offset;
+            if (bytes.hasArray()) {
+                b = bytes.array();
+                offset = bytes.arrayOffset() + bytes.position();
+            } else {
+                b = new byte[bytes.remaining()];
+                bytes.duplicate().get(b);
+                offset = 0;
+            }
+            try {
+                return (T) read(new DataInputStream(new ByteArrayInputStream(b, offset, bytes.remaining())),
+                        loader);
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to deserialize record", e);
+            }
+        }
+
+        @Override
+        public SerializationStream serializeStream(OutputStream s) {
+            final DataOutputStream out = new DataOutputStream(s);
+            return new SerializationStream() {
+                @Override
+                public <T> SerializationStream writeObject(T t, ClassTag<T> tag) {
+                    try {
+                        write(out, t);
+                    } catch (IOException e) {
+                        throw new RuntimeException("Unable to serialize " + t, e);
+                    }
+                    return this;
+                }
+
+                @Override
+                public void flush() {
+                    try {
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+
+                @Override
+                public void close() {
+                    try {
+                        out.close();
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public DeserializationStream deserializeStream(InputStream s) {
+            final DataInputStream in = new DataInputStream(s);
+            return new DeserializationStream() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <T> T readObject(ClassTag<T> tag) {
+                    try {
+                        return (T) read(in, defaultLoader);
+                    } catch (IOException e) {
+                        // Includes the EOFException ending the iteration
+                        // over the stream
+                        throw sneakyThrow(e);
+                    }
+                }
+
+                @Override
+                public void close() {
+                    try {
+                        in.close();
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            };
+        }
+
+        private void write(DataOutput out, Object o) throws IOException {
+            if (o instanceof Tuple2) {
+                out.writeByte(TUPLE2);
+                write(out, ((Tuple2<?, ?>) o)._1());
+                write(out, ((Tuple2<?, ?>) o)._2());
+            } else if (o != null && o.getClass() == IndexedKey.class) {
+                // Subclasses such as the keys of skewed joins carry more state
+                IndexedKey key = (IndexedKey) o;
+                out.writeByte(INDEXED_KEY);
+                out.writeByte(key.getIndex());
+                out.writeBoolean(key.isUseSecondaryKey());
+                boolean[] sortOrder = key.getSecondarySortOrder();
+                out.writeInt(sortOrder == null ? -1 : sortOrder.length);
+                if (sortOrder != null) {
+                    for (boolean asc : sortOrder) {
+                        out.writeBoolean(asc);
+                    }
+                }
+                write(out, key.getKey());
+            } else if (isPigDatum(o)) {
+                out.writeByte(PIG_DATUM);
+                sedes.writeDatum(out, o);
+            } else {
+                out.writeByte(JAVA_OBJECT);
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                ObjectOutputStream oos = new ObjectOutputStream(bytes);
+                oos.writeObject(o);
+                oos.close();
+                out.writeInt(bytes.size());
+                out.write(bytes.toByteArray());
+            }
+        }
+
+        // Maps are left to Java serialization as Pig only writes the ones
+        // with String keys
+        private boolean isPigDatum(Object o) {
+            byte type = DataType.findType(o);
+            return type != DataType.ERROR && type != DataType.MAP && type != DataType.INTERNALMAP;
+        }
+
+        private Object read(DataInput in, final ClassLoader loader) throws IOException {
+            byte type = in.readByte();
+            switch (type) {
+            case TUPLE2:
+                Object first = read(in, loader);
+                return new Tuple2<Object, Object>(first, read(in, loader));
+            case INDEXED_KEY:
+                byte index = in.readByte();
+                boolean useSecondaryKey = in.readBoolean();
+                int length = in.readInt();
+                boolean[] sortOrder = null;
+                if (length >= 0) {
+                    sortOrder = new boolean[length];
+                    for (int i = 0; i < length; i++) {
+                        sortOrder[i] = in.readBoolean();
+                    }
+                }
+                IndexedKey key = new IndexedKey(index, read(in, loader));
+                key.setUseSecondaryKey(useSecondaryKey);
+                key.setSecondarySortOrder(sortOrder);
+                return key;
+            case PIG_DATUM:
+                return sedes.readDatum(in);
+            case JAVA_OBJECT:
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes)) {
+                    @Override
+                    protected Class<?> resolveClass(ObjectStreamClass desc)
+                            throws IOException, ClassNotFoundException {
+                        try {
+                            return Class.forName(desc.getName(), false, loader);
+                        } catch (ClassNotFoundException e) {
+                            return super.resolveClass(desc);
+                        }
+                    }
+                };
+                try {
+                    return ois.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                } finally {
+                    ois.close();
+                }
+            default:
+                throw new IOException("Unexpected record type " + type);
+            }
+        }
+    }
+
+    // DeserializationStream.asIterator expects the EOFException itself
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> RuntimeException sneakyThrow(Throwable e) throws E {
+        throw (E) e;
+    }
+}
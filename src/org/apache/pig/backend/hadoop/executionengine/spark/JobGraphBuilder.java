@@ -34,6 +34,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.pig.PigConfiguration;
 import org.apache.pig.PigException;
 import org.apache.pig.backend.executionengine.ExecException;
 import org.apache.pig.backend.hadoop.executionengine.JobCreationException;
@@ -70,6 +71,7 @@ import org.apache.pig.tools.pigstats.spark.SparkPigStats;
 import org.apache.pig.tools.pigstats.spark.SparkStatsUtil;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.rdd.RDD;
+import org.apache.spark.storage.StorageLevel;
 
 import com.google.common.collect.Lists;
 
@@ -89,6 +91,8 @@ public class JobGraphBuilder extends SparkOpPlanVisitor {
     private Map<OperatorKey, RDD<Tuple>> physicalOpRdds = new HashMap<OperatorKey, RDD<Tuple>>();
     private JobConf jobConf = null;
     private PigContext pc;
+    private StorageLevel persistStorageLevel;
+    private List<RDD<Tuple>> persistedRdds = new ArrayList<RDD<Tuple>>();
 
     public JobGraphBuilder(SparkOperPlan plan, Map<Class<? extends PhysicalOperator>, RDDConverter> convertMap,
                            SparkPigStats sparkStats, JavaSparkContext sparkContext, JobStatisticCollector
@@ -102,6 +106,8 @@ public class JobGraphBuilder extends SparkOpPlanVisitor {
         this.jobGroupID = jobGroupID;
         this.jobConf = jobConf;
         this.pc = pc;
+        this.persistStorageLevel = StorageLevel.fromString(pc.getProperties().getProperty(
+                PigConfiguration.PIG_SPARK_PERSIST_STORAGE_LEVEL, "MEMORY_AND_DISK"));
     }
 
     @Override
@@ -113,9 +119,20 @@ public class JobGraphBuilder extends SparkOpPlanVisitor {
             finishUDFs(sparkOp.physicalPlan);
         } catch (Exception e) {
             throw new VisitorException("fail to get the rdds of this spark operator: ", e);
+        } finally {
+            unpersistRDDs();
         }
     }
 
+    // All the stores of the spark operator have run, so the RDDs it shared
+    // between its branches are no longer needed
+    private void unpersistRDDs() {
+        for (RDD<Tuple> rdd : persistedRdds) {
+            rdd.unpersist(false);
+        }
+        persistedRdds.clear();
+    }
+
     private void setReplicationForMergeJoin(PhysicalPlan plan) throws IOException {
         List<Path> filesForMoreReplication = new ArrayList<>();
         List<POMergeJoin> poMergeJoins = PlanHelper.getPhysicalOperators(plan, POMergeJoin.class);
@@ -239,6 +256,11 @@ public class JobGraphBuilder extends SparkOpPlanVisitor {
                                PhysicalOperator physicalOperator,
                                Set<OperatorKey> predsFromPreviousSparkOper)
             throws IOException {
+        if (sparkOperator.isPersistedOperator(physicalOperator.getOperatorKey())
+                && physicalOpRdds.containsKey(physicalOperator.getOperatorKey())) {
+            // Already converted for another consumer
+            return;
+        }
         RDD<Tuple> nextRDD = null;
         List<PhysicalOperator> predecessorsOfCurrentPhysicalOp = getPredecessors(plan, physicalOperator);
         LinkedHashSet<OperatorKey> operatorKeysOfAllPreds = new LinkedHashSet<OperatorKey>();
@@ -297,6 +319,12 @@ public class JobGraphBuilder extends SparkOpPlanVisitor {
                                 + physicalOperator);
             }
 
+            if (sparkOperator.isPersistedOperator(physicalOperator.getOperatorKey())
+                    && !persistStorageLevel.equals(StorageLevel.NONE())) {
+                nextRDD = nextRDD.persist(persistStorageLevel);
+                persistedRdds.add(nextRDD);
+            }
+
             physicalOpRdds.put(physicalOperator.getOperatorKey(), nextRDD);
         }
     }
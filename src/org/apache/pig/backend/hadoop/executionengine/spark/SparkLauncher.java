@@ -112,6 +112,7 @@ import org.apache.pig.backend.hadoop.executionengine.spark.optimizer.JoinGroupOp
 import org.apache.pig.backend.hadoop.executionengine.spark.optimizer.MultiQueryOptimizerSpark;
 import org.apache.pig.backend.hadoop.executionengine.spark.optimizer.NoopFilterRemover;
 import org.apache.pig.backend.hadoop.executionengine.spark.optimizer.ParallelismSetter;
+import org.apache.pig.backend.hadoop.executionengine.spark.optimizer.RDDPersistenceOptimizer;
 import org.apache.pig.backend.hadoop.executionengine.spark.optimizer.SecondaryKeyOptimizerSpark;
 import org.apache.pig.backend.hadoop.executionengine.spark.plan.DotSparkPrinter;
 import org.apache.pig.backend.hadoop.executionengine.spark.plan.SparkCompiler;
@@ -306,6 +307,13 @@ public class SparkLauncher extends Launcher {
             LOG.debug("After multiquery optimization:");
             LOG.debug(plan);
         }
+
+        // Should be the last optimizer as it marks operators of the final physical plans
+        String storageLevel = conf.get(PigConfiguration.PIG_SPARK_PERSIST_STORAGE_LEVEL, "MEMORY_AND_DISK");
+        if (!"NONE".equalsIgnoreCase(storageLevel)) {
+            RDDPersistenceOptimizer persistenceOptimizer = new RDDPersistenceOptimizer(plan);
+            persistenceOptimizer.visit();
+        }
     }
 
     private void cleanUpSparkJob(SparkPigStats sparkStats) throws ExecException {
@@ -484,6 +492,12 @@ public class SparkLauncher extends Launcher {
             }
             // When multiple threads start SparkLauncher, delete/copy actions should be in a critical section
             synchronized(SparkLauncher.class) {
+                if (localFile.exists() && localFile.length() == resourcePath.length()
+                        && JarManager.getDigest(localFile).equals(JarManager.getDigest(resourcePath))) {
+                    LOG.info(String.format("File %s is already in the working directory",
+                            localFile.getAbsolutePath()));
+                    return;
+                }
                 if (localFile.exists()) {
                     LOG.info(String.format(
                             "Jar file %s exists, ready to delete",
@@ -543,7 +557,8 @@ public class SparkLauncher extends Launcher {
     private static String getMaster(PigContext pc){
         String master = null;
         if (pc.getExecType().isLocal()) {
-            master = "local";
+            int parallelism = Utils.getLocalParallelism(pc.getProperties());
+            master = parallelism > 1 ? "local[" + parallelism + "]" : "local";
         } else {
             master = System.getenv("SPARK_MASTER");
             if (master == null) {
@@ -606,7 +621,7 @@ public class SparkLauncher extends Launcher {
             }
 
             //see PIG-5200 why need to set spark.executor.userClassPathFirst as true on cluster modes
-            if (! "local".equals(master)) {
+            if (!pc.getExecType().isLocal() && ! "local".equals(master)) {
                 sparkConf.set("spark.executor.userClassPathFirst", "true");
             }
             checkAndConfigureDynamicAllocation(master, sparkConf);
@@ -46,7 +46,6 @@ public class CounterConverter implements RDDConverter<Tuple, Tuple, POCounter> {
         RDD<Tuple> rdd = predecessors.get(0);
         CounterConverterFunction f = new CounterConverterFunction(poCounter);
         JavaRDD<Tuple> jRdd = rdd.toJavaRDD().mapPartitionsWithIndex(f, true);
-//        jRdd = jRdd.cache();
         return jRdd.rdd();
     }
     
@@ -183,10 +183,18 @@ public class IndexedKey implements Serializable, Comparable {
         }
     }
 
+    public boolean isUseSecondaryKey() {
+        return useSecondaryKey;
+    }
+
     public void setUseSecondaryKey(boolean useSecondaryKey) {
         this.useSecondaryKey = useSecondaryKey;
     }
 
+    public boolean[] getSecondarySortOrder() {
+        return secondarySortOrder;
+    }
+
     public void setSecondarySortOrder(boolean[] secondarySortOrder) {
         this.secondarySortOrder = secondarySortOrder;
     }
@@ -35,8 +35,7 @@ import org.apache.pig.backend.hadoop.executionengine.spark.SparkPigContext;
 import org.apache.pig.backend.hadoop.executionengine.spark.SparkUtil;
 import org.apache.pig.backend.hadoop.executionengine.spark.operator.POReduceBySpark;
 import org.apache.pig.data.DataBag;
-import org.apache.pig.data.DefaultBagFactory;
-import org.apache.pig.data.DefaultTuple;
+import org.apache.pig.data.NonSpillableDataBag;
 import org.apache.pig.data.Tuple;
 import org.apache.pig.data.TupleFactory;
 import org.apache.spark.HashPartitioner;
@@ -52,6 +51,10 @@ public class ReduceByConverter implements RDDConverter<Tuple, Tuple, POReduceByS
 
     private static final TupleFactory tf = TupleFactory.getInstance();
 
+    // Number of values buffered for a key before running the intermediate
+    // stage of the algebraic functions on them
+    private static final int MAX_PENDING_VALUES = 100;
+
     @Override
     public RDD<Tuple> convert(List<RDD<Tuple>> predecessors, POReduceBySpark op) throws IOException {
         SparkUtil.assertPredecessorSize(predecessors, op, 1);
@@ -69,9 +72,9 @@ public class ReduceByConverter implements RDDConverter<Tuple, Tuple, POReduceByS
                     SparkUtil.getManifest(IndexedKey.class),
                     SparkUtil.getManifest(Tuple.class), null);
 
-            RDD<Tuple2<IndexedKey, Tuple>> tupleRDD = pairRDDFunctions.reduceByKey(
-                    SparkUtil.getPartitioner(op.getCustomPartitioner(), parallelism),
-                    new MergeValuesFunction(op));
+            RDD<Tuple2<IndexedKey, Tuple>> tupleRDD = pairRDDFunctions.combineByKey(
+                    new CreateCombinerFunction(), new MergeValueFunction(op), new MergeCombinersFunction(op),
+                    SparkUtil.getPartitioner(op.getCustomPartitioner(), parallelism), true, null);
             LOG.debug("Custom Partitioner and parallelims used : " + op.getCustomPartitioner() + ", " + parallelism);
 
             return tupleRDD.map(new ToTupleFunction(op), SparkUtil.getManifest(Tuple.class));
@@ -160,60 +163,107 @@ public class ReduceByConverter implements RDDConverter<Tuple, Tuple, POReduceByS
     }
 
     /**
-     * Given two input tuples, this function outputs the resultant tuple.
-     * Additionally, it packages the input tuples to ensure the Algebraic Functions can work on them.
+     * Runs the intermediate stage of the algebraic functions on the values
+     * buffered in a combiner of the form (key, {values}) once there are enough
+     * of them, replacing them with the single resulting value.
+     */
+    private static Tuple reduceIfFull(POReduceBySpark poReduce, Tuple combiner) throws ExecException {
+        DataBag values = (DataBag) combiner.get(1);
+        if (values.size() < MAX_PENDING_VALUES) {
+            return combiner;
+        }
+        Object key = combiner.get(0);
+        if (key == null) {
+            key = "";
+        }
+        // Package the input tuples so they can be processed by Algebraic functions.
+        poReduce.getPKGOp().getPkgr().attachInput(key, new DataBag[]{values}, new boolean[]{true});
+        Tuple packagedTuple = (Tuple) poReduce.getPKGOp().getPkgr().getNext().result;
+
+        // Perform the operation
+        LOG.debug("ReduceBy packagedTuple : " + packagedTuple);
+        poReduce.attachInput(packagedTuple);
+        Result r = poReduce.getNext(poReduce.getResultType());
+
+        // Ensure output is consistent with the output of KeyValueFunction
+        // If we return r.result, the result will be something like this:
+        // (ABC,(2),(3)) - A tuple with key followed by values.
+        // But, we want the result to look like this:
+        // (ABC,((2),(3))) - A tuple with key and a value tuple (containing values).
+        // Hence, the construction of a new value tuple
+
+        Tuple valueTuple = tf.newTuple();
+        for (Object o : ((Tuple) r.result).getAll()) {
+            if (!o.equals(key)) {
+                valueTuple.append(o);
+            }
+        }
+        DataBag reduced = new NonSpillableDataBag(1);
+        reduced.add(valueTuple);
+        combiner.set(1, reduced);
+        return combiner;
+    }
+
+    /**
+     * Creates the combiner of a key, a tuple of the key and a bag holding
+     * the values not yet reduced, from the first (key, value) tuple of the key.
+     */
+    private static final class CreateCombinerFunction extends AbstractFunction1<Tuple, Tuple>
+            implements Serializable {
+
+        @Override
+        public Tuple apply(Tuple v) {
+            try {
+                DataBag values = new NonSpillableDataBag();
+                values.add((Tuple) v.get(1));
+                Tuple combiner = tf.newTuple(2);
+                combiner.set(0, v.get(0));
+                combiner.set(1, values);
+                return combiner;
+            } catch (ExecException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Adds a (key, value) tuple to the combiner of its key.
      */
-    private static final class MergeValuesFunction extends AbstractFunction2<Tuple, Tuple, Tuple>
+    private static final class MergeValueFunction extends AbstractFunction2<Tuple, Tuple, Tuple>
             implements Serializable {
         private final POReduceBySpark poReduce;
 
-        public MergeValuesFunction(POReduceBySpark poReduce) {
+        public MergeValueFunction(POReduceBySpark poReduce) {
             this.poReduce = poReduce;
         }
 
         @Override
-        public Tuple apply(Tuple v1, Tuple v2) {
-            LOG.debug("MergeValuesFunction in : " + v1 + " , " + v2);
-            Tuple result = tf.newTuple(2);
-            DataBag bag = DefaultBagFactory.getInstance().newDefaultBag();
-            Tuple t = new DefaultTuple();
+        public Tuple apply(Tuple combiner, Tuple v) {
             try {
-                // Package the input tuples so they can be processed by Algebraic functions.
-                Object key = v1.get(0);
-                if (key == null) {
-                    key = "";
-                } else {
-                    result.set(0, key);
-                }
-                bag.add((Tuple) v1.get(1));
-                bag.add((Tuple) v2.get(1));
-                t.append(key);
-                t.append(bag);
-
-                poReduce.getPKGOp().getPkgr().attachInput(key, new DataBag[]{(DataBag) t.get(1)}, new boolean[]{true});
-                Tuple packagedTuple = (Tuple) poReduce.getPKGOp().getPkgr().getNext().result;
-
-                // Perform the operation
-                LOG.debug("MergeValuesFunction packagedTuple : " + t);
-                poReduce.attachInput(packagedTuple);
-                Result r = poReduce.getNext(poReduce.getResultType());
-
-                // Ensure output is consistent with the output of KeyValueFunction
-                // If we return r.result, the result will be something like this:
-                // (ABC,(2),(3)) - A tuple with key followed by values.
-                // But, we want the result to look like this:
-                // (ABC,((2),(3))) - A tuple with key and a value tuple (containing values).
-                // Hence, the construction of a new value tuple
-
-                Tuple valueTuple = tf.newTuple();
-                for (Object o : ((Tuple) r.result).getAll()) {
-                    if (!o.equals(key)) {
-                        valueTuple.append(o);
-                    }
-                }
-                result.set(1,valueTuple);
-                LOG.debug("MergeValuesFunction out : " + result);
-                return result;
+                ((DataBag) combiner.get(1)).add((Tuple) v.get(1));
+                return reduceIfFull(poReduce, combiner);
+            } catch (ExecException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Merges two combiners of the same key.
+     */
+    private static final class MergeCombinersFunction extends AbstractFunction2<Tuple, Tuple, Tuple>
+            implements Serializable {
+        private final POReduceBySpark poReduce;
+
+        public MergeCombinersFunction(POReduceBySpark poReduce) {
+            this.poReduce = poReduce;
+        }
+
+        @Override
+        public Tuple apply(Tuple combiner1, Tuple combiner2) {
+            try {
+                ((DataBag) combiner1.get(1)).addAll((DataBag) combiner2.get(1));
+                return reduceIfFull(poReduce, combiner1);
             } catch (ExecException e) {
                 throw new RuntimeException(e);
             }
@@ -235,15 +285,12 @@ public class ReduceByConverter implements RDDConverter<Tuple, Tuple, POReduceByS
         @Override
         public Tuple apply(Tuple2<IndexedKey, Tuple> v1) {
             LOG.debug("ToTupleFunction in : " + v1);
-            DataBag bag = DefaultBagFactory.getInstance().newDefaultBag();
-            Tuple t = new DefaultTuple();
             Tuple packagedTuple = null;
             try {
+                // The final stage of the algebraic functions takes the remaining values
                 Object key = v1._2().get(0);
-                bag.add((Tuple) v1._2().get(1));
-                t.append(key);
-                t.append(bag);
-                poReduce.getPKGOp().getPkgr().attachInput(key, new DataBag[]{(DataBag) t.get(1)}, new boolean[]{true});
+                DataBag bag = (DataBag) v1._2().get(1);
+                poReduce.getPKGOp().getPkgr().attachInput(key, new DataBag[]{bag}, new boolean[]{true});
                 packagedTuple = (Tuple) poReduce.getPKGOp().getPkgr().getNext().result;
             } catch (ExecException e) {
                 throw new RuntimeException(e);
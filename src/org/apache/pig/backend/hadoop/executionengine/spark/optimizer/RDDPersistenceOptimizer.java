@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.backend.hadoop.executionengine.spark.optimizer;
+
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.PhysicalOperator;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POSplit;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POStore;
+import org.apache.pig.backend.hadoop.executionengine.spark.plan.SparkOpPlanVisitor;
+import org.apache.pig.backend.hadoop.executionengine.spark.plan.SparkOperPlan;
+import org.apache.pig.backend.hadoop.executionengine.spark.plan.SparkOperator;
+import org.apache.pig.impl.plan.DependencyOrderWalker;
+import org.apache.pig.impl.plan.VisitorException;
+
+/**
+ * Marks the physical operators whose RDD is consumed by more than one branch
+ * of a SparkOperator, so that JobGraphBuilder persists it instead of
+ * recomputing its lineage for every store. These are the predecessors of a
+ * POSplit created by MultiQueryOptimizerSpark and the operators with several
+ * successors in the same plan.
+ * <p/>
+ * Should run after the optimizers that restructure the physical plans.
+ */
+public class RDDPersistenceOptimizer extends SparkOpPlanVisitor {
+    private static final Log LOG = LogFactory.getLog(RDDPersistenceOptimizer.class);
+
+    public RDDPersistenceOptimizer(SparkOperPlan plan) {
+        super(plan, new DependencyOrderWalker<SparkOperator, SparkOperPlan>(plan));
+    }
+
+    @Override
+    public void visitSparkOp(SparkOperator sparkOp) throws VisitorException {
+        markSharedOperators(sparkOp, sparkOp.physicalPlan);
+    }
+
+    private void markSharedOperators(SparkOperator sparkOp, PhysicalPlan plan) {
+        for (PhysicalOperator op : plan) {
+            if (op instanceof POSplit) {
+                List<PhysicalOperator> preds = plan.getPredecessors(op);
+                if (preds != null) {
+                    for (PhysicalOperator pred : preds) {
+                        markPersisted(sparkOp, pred);
+                    }
+                }
+                for (PhysicalPlan subPlan : ((POSplit) op).getPlans()) {
+                    markSharedOperators(sparkOp, subPlan);
+                }
+            } else if (!(op instanceof POStore)) {
+                List<PhysicalOperator> succs = plan.getSuccessors(op);
+                if (succs != null && succs.size() > 1) {
+                    markPersisted(sparkOp, op);
+                }
+            }
+        }
+    }
+
+    private void markPersisted(SparkOperator sparkOp, PhysicalOperator op) {
+        if (sparkOp.addPersistedOperator(op.getOperatorKey())) {
+            LOG.info("Persisting the output of " + op + " in " + sparkOp.getOperatorKey()
+                    + " as it has multiple consumers");
+        }
+    }
+}
@@ -84,6 +84,9 @@ public class SparkOperator extends Operator<SparkOpPlanVisitor> {
 
     private MultiMap<OperatorKey, OperatorKey> multiQueryOptimizeConnectionMap = new MultiMap<OperatorKey, OperatorKey>();
 
+    // Physical operators whose RDD is consumed by several branches of this job
+    private Set<OperatorKey> persistedOperators = new HashSet<OperatorKey>();
+
     // Indicates if a UDF comparator is used
     boolean isUDFComparatorUsed = false;
 
@@ -291,6 +294,14 @@ public class SparkOperator extends Operator<SparkOpPlanVisitor> {
         return multiQueryOptimizeConnectionMap;
     }
 
+    public boolean addPersistedOperator(OperatorKey key) {
+        return persistedOperators.add(key);
+    }
+
+    public boolean isPersistedOperator(OperatorKey key) {
+        return persistedOperators.contains(key);
+    }
+
     public void setGlobalSort(boolean globalSort) {
         this.globalSort = globalSort;
     }
@@ -714,6 +714,7 @@ public class TezDagBuilder extends TezOpPlanVisitor {
             if (tezOp.isSkewedJoin()) {
                 newPack.setSkewedJoins(true);
             }
+            newPack.setUseHashGrouping(tezOp.isUseHashGrouping());
             tezOp.plan.add(newPack);
 
             boolean isMergedInput = false;
@@ -22,9 +22,16 @@ import java.util.Properties;
 import java.util.UUID;
 
 import org.apache.hadoop.mapred.JobConf;
+import org.apache.pig.PigConfiguration;
 import org.apache.pig.backend.executionengine.ExecException;
 import org.apache.pig.backend.hadoop.executionengine.HExecutionEngine;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
+import org.apache.pig.backend.hadoop.executionengine.tez.plan.operator.POBuildBloomRearrangeTez;
+import org.apache.pig.backend.hadoop.executionengine.tez.plan.optimizer.BloomJoinPushdownSetter;
+import org.apache.pig.backend.hadoop.executionengine.tez.plan.optimizer.TezJoinStrategySelector;
 import org.apache.pig.impl.PigContext;
+import org.apache.pig.impl.logicalLayer.FrontendException;
+import org.apache.pig.newplan.logical.relational.LogicalPlan;
 import org.apache.pig.tools.pigstats.PigStats;
 import org.apache.pig.tools.pigstats.ScriptState;
 import org.apache.pig.tools.pigstats.tez.TezPigScriptStats;
@@ -56,4 +63,22 @@ public class TezExecutionEngine extends HExecutionEngine {
         jc.addResource(TezConfiguration.TEZ_SITE_XML);
         return jc;
     }
+
+    @Override
+    public PhysicalPlan compile(LogicalPlan plan, Properties properties) throws FrontendException {
+        if (plan == null || properties == null || pigContext.inIllustrator) {
+            return super.compile(plan, properties);
+        }
+        if (Boolean.parseBoolean(
+                properties.getProperty(PigConfiguration.PIG_TEZ_AUTO_REPLICATED_JOIN, "false"))) {
+            new TezJoinStrategySelector(plan, pigContext).visit();
+        }
+        // Key range is only computed by the map strategy of bloom join
+        if (Boolean.parseBoolean(properties.getProperty(PigConfiguration.PIG_BLOOMJOIN_LOADER_PUSHDOWN, "false"))
+                && POBuildBloomRearrangeTez.DEFAULT_BLOOM_STRATEGY.equals(properties.getProperty(
+                        PigConfiguration.PIG_BLOOMJOIN_STRATEGY, POBuildBloomRearrangeTez.DEFAULT_BLOOM_STRATEGY))) {
+            new BloomJoinPushdownSetter(plan).visit();
+        }
+        return super.compile(plan, properties);
+    }
 }
@@ -56,6 +56,7 @@ import com.google.common.collect.Maps;
  */
 public class TezJob implements Runnable {
     private static final Log log = LogFactory.getLog(TezJob.class);
+    private static final long DAG_STATUS_POLL_INTERVAL = 1000;
     private TezConfiguration conf;
     private EnumSet<StatusGetOpts> statusGetOpts;
     private Map<String, LocalResource> requestAMResources;
@@ -220,8 +221,10 @@ public class TezJob implements Runnable {
                 PigConfiguration.PIG_TEZ_DAG_STATUS_REPORT_INTERVAL, 20) * 1000);
 
         while (true) {
+            long start = System.currentTimeMillis();
             try {
-                dagStatus = dagClient.getDAGStatus(null);
+                // Returns as soon as the DAG completes
+                dagStatus = dagClient.getDAGStatus(null, DAG_STATUS_POLL_INTERVAL);
             } catch (Exception e) {
                 log.info("Cannot retrieve DAG status", e);
                 break;
@@ -256,10 +259,15 @@ public class TezJob implements Runnable {
                 break;
             }
 
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                // Do nothing
+            // In case the client returned before the timeout without waiting
+            // for the DAG to complete
+            long remaining = DAG_STATUS_POLL_INTERVAL - (System.currentTimeMillis() - start);
+            if (remaining > 0) {
+                try {
+                    Thread.sleep(remaining);
+                } catch (InterruptedException e) {
+                    // Do nothing
+                }
             }
         }
 
@@ -24,13 +24,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -56,6 +61,7 @@ import org.apache.pig.backend.hadoop.executionengine.tez.plan.TezPlanContainerPr
 import org.apache.pig.backend.hadoop.executionengine.tez.plan.operator.NativeTezOper;
 import org.apache.pig.backend.hadoop.executionengine.tez.plan.optimizer.AccumulatorOptimizer;
 import org.apache.pig.backend.hadoop.executionengine.tez.plan.optimizer.CombinerOptimizer;
+import org.apache.pig.backend.hadoop.executionengine.tez.plan.optimizer.HashGroupingOptimizer;
 import org.apache.pig.backend.hadoop.executionengine.tez.plan.optimizer.LoaderProcessor;
 import org.apache.pig.backend.hadoop.executionengine.tez.plan.optimizer.MultiQueryOptimizerTez;
 import org.apache.pig.backend.hadoop.executionengine.tez.plan.optimizer.NoopFilterRemover;
@@ -70,6 +76,7 @@ import org.apache.pig.impl.plan.PlanException;
 import org.apache.pig.impl.plan.VisitorException;
 import org.apache.pig.impl.util.LogUtils;
 import org.apache.pig.impl.util.UDFContext;
+import org.apache.pig.impl.util.Utils;
 import org.apache.pig.tools.pigstats.OutputStats;
 import org.apache.pig.tools.pigstats.PigStats;
 import org.apache.pig.tools.pigstats.tez.TezPigScriptStats;
@@ -94,7 +101,7 @@ public class TezLauncher extends Launcher {
     private boolean aggregateWarning = false;
     private TezScriptState tezScriptState;
     private TezPigScriptStats tezStats;
-    private TezJob runningJob;
+    private List<TezJob> runningJobs = new CopyOnWriteArrayList<TezJob>();
 
     public TezLauncher() {
         if (namedThreadFactory == null) {
@@ -110,7 +117,8 @@ public class TezLauncher extends Launcher {
     public PigStats launchPig(PhysicalPlan php, String grpName, PigContext pc) throws Exception {
         synchronized (this) {
             if (executor == null) {
-                executor = Executors.newSingleThreadExecutor(namedThreadFactory);
+                // Threads are only created for DAGs run at the same time
+                executor = Executors.newCachedThreadPool(namedThreadFactory);
             }
         }
         if (pc.getExecType().isLocal()) {
@@ -118,6 +126,10 @@ public class TezLauncher extends Launcher {
             pc.getProperties().setProperty(TezRuntimeConfiguration.TEZ_RUNTIME_OPTIMIZE_LOCAL_FETCH, "true");
             pc.getProperties().setProperty(TezConfiguration.TEZ_IGNORE_LIB_URIS, "true");
             pc.getProperties().setProperty(TezConfiguration.TEZ_AM_DAG_SCHEDULER_CLASS, DAGSchedulerNaturalOrderControlled.class.getName());
+            if (pc.getProperties().getProperty(TezConfiguration.TEZ_AM_INLINE_TASK_EXECUTION_MAX_TASKS) == null) {
+                pc.getProperties().setProperty(TezConfiguration.TEZ_AM_INLINE_TASK_EXECUTION_MAX_TASKS,
+                        Integer.toString(Utils.getLocalParallelism(pc.getProperties())));
+            }
         }
         Configuration conf = ConfigurationUtil.toConfiguration(pc.getProperties(), true);
         // Make sure MR counter does not exceed limit
@@ -179,27 +191,44 @@ public class TezLauncher extends Launcher {
                 Boolean.valueOf(pc.getProperties().getProperty("stop.on.failure", "false"));
         boolean stoppedOnFailure = false;
 
-        TezPlanContainerNode tezPlanContainerNode;
-        TezOperPlan tezPlan;
+        int dagConcurrency = Math.max(1, conf.getInt(PigConfiguration.PIG_TEZ_DAG_CONCURRENCY, 1));
+        CompletionService<Void> completionService = new ExecutorCompletionService<Void>(executor);
+        Map<Future<Void>, RunningDAG> runningDAGs = new LinkedHashMap<Future<Void>, RunningDAG>();
         int processedDAGs = 0;
-        while ((tezPlanContainerNode = tezPlanContainer.getNextPlan(processedPlans)) != null) {
-            tezPlan = tezPlanContainerNode.getTezOperPlan();
-            processLoadAndParallelism(tezPlan, pc);
-            processedPlans.add(tezPlan);
-            ProgressReporter reporter = new ProgressReporter(tezPlanContainer.size(), processedDAGs);
-            if (tezPlan.size()==1 && tezPlan.getRoots().get(0) instanceof NativeTezOper) {
-                // Native Tez Plan
-                NativeTezOper nativeOper = (NativeTezOper)tezPlan.getRoots().get(0);
-                tezScriptState.emitJobsSubmittedNotification(1);
-                nativeOper.runJob(tezPlanContainerNode.getOperatorKey().toString());
-            } else {
+        while (!stoppedOnFailure) {
+            // Launch the DAGs whose predecessors have all completed, waiting
+            // for one only when nothing is running
+            while (runningDAGs.size() < dagConcurrency) {
+                TezPlanContainerNode tezPlanContainerNode = runningDAGs.isEmpty()
+                        ? tezPlanContainer.getNextPlan(processedPlans)
+                        : tezPlanContainer.pollNextPlan(processedPlans);
+                if (tezPlanContainerNode == null) {
+                    break;
+                }
+                TezOperPlan tezPlan = tezPlanContainerNode.getTezOperPlan();
+                processLoadAndParallelism(tezPlan, pc);
+                processedPlans.add(tezPlan);
+                if (tezPlan.size()==1 && tezPlan.getRoots().get(0) instanceof NativeTezOper) {
+                    // Native Tez Plan
+                    NativeTezOper nativeOper = (NativeTezOper)tezPlan.getRoots().get(0);
+                    tezScriptState.emitJobsSubmittedNotification(1);
+                    nativeOper.runJob(tezPlanContainerNode.getOperatorKey().toString());
+                    processedDAGs++;
+                    stoppedOnFailure = dagCompleted(pc, tezPlanContainer, tezPlan,
+                            new ProgressReporter(tezPlanContainer.size(), processedDAGs - 1, null),
+                            processedDAGs, stop_on_failure);
+                    if (stoppedOnFailure) {
+                        break;
+                    }
+                    continue;
+                }
                 TezPOPackageAnnotator pkgAnnotator = new TezPOPackageAnnotator(tezPlan);
                 pkgAnnotator.visit();
 
-                runningJob = jc.compile(tezPlanContainerNode, tezPlanContainer);
+                final TezJob tezJob = jc.compile(tezPlanContainerNode, tezPlanContainer);
                 //TODO: Exclude vertex groups from numVerticesToLaunch ??
-                tezScriptState.dagLaunchNotification(runningJob.getName(), tezPlan, tezPlan.size());
-                runningJob.setPigStats(tezStats);
+                tezScriptState.dagLaunchNotification(tezJob.getName(), tezPlan, tezPlan.size());
+                tezJob.setPigStats(tezStats);
 
                 // Set the thread UDFContext so registered classes are available.
                 final UDFContext udfContext = UDFContext.getUDFContext();
@@ -208,7 +237,7 @@ public class TezLauncher extends Launcher {
                     public void run() {
                         Thread.currentThread().setContextClassLoader(PigContext.getClassLoader());
                         UDFContext.setUdfContext(udfContext.clone());
-                        runningJob.run();
+                        tezJob.run();
                     }
                 };
 
@@ -216,31 +245,32 @@ public class TezLauncher extends Launcher {
                 // history props. TODO: Fix this. unused now
                 long scriptSubmittedTimestamp = System.currentTimeMillis();
                 // Job.getConfiguration returns the shared configuration object
-                Configuration jobConf = runningJob.getConfiguration();
+                Configuration jobConf = tezJob.getConfiguration();
                 jobConf.set("pig.script.submitted.timestamp",
                         Long.toString(scriptSubmittedTimestamp));
                 jobConf.set("pig.job.submitted.timestamp",
                         Long.toString(System.currentTimeMillis()));
 
-                Future<?> future = executor.submit(task);
+                runningJobs.add(tezJob);
+                Future<Void> future = completionService.submit(task, null);
                 tezScriptState.emitJobsSubmittedNotification(1);
+                runningDAGs.put(future, new RunningDAG(tezPlan, tezJob, udfContext,
+                        new ProgressReporter(tezPlanContainer.size(), processedDAGs, tezJob)));
+            }
+            if (stoppedOnFailure || runningDAGs.isEmpty()) {
+                break;
+            }
 
-                boolean jobStarted = false;
-
-                while (!future.isDone()) {
-                    if (!jobStarted && runningJob.getApplicationId() != null) {
-                        jobStarted = true;
-                        String appId = runningJob.getApplicationId().toString();
-                        //For Oozie Pig action job id matching compatibility with MR mode
-                        log.info("HadoopJobId: "+ appId.replace("application", "job"));
-                        tezScriptState.emitJobStartedNotification(appId);
-                        tezScriptState.dagStartedNotification(runningJob.getName(), appId);
-                    }
-                    reporter.notifyUpdate();
-                    Thread.sleep(1000);
-                }
+            // Returns as soon as a DAG completes
+            Future<Void> future = completionService.poll(1000, TimeUnit.MILLISECONDS);
+            for (RunningDAG runningDAG : runningDAGs.values()) {
+                runningDAG.notifyUpdate();
+            }
+            while (future != null) {
+                RunningDAG runningDAG = runningDAGs.remove(future);
+                runningJobs.remove(runningDAG.tezJob);
                 // For tez_local mode where PigProcessor destroys all UDFContext
-                UDFContext.setUdfContext(udfContext);
+                UDFContext.setUdfContext(runningDAG.udfContext);
                 try {
                     // In case of FutureTask there is no uncaught exception
                     // Need to do future.get() to get any exception
@@ -248,27 +278,29 @@ public class TezLauncher extends Launcher {
                 } catch (ExecutionException e) {
                     setJobException(e.getCause());
                 }
+                processedDAGs++;
+                stoppedOnFailure = dagCompleted(pc, tezPlanContainer, runningDAG.tezPlan,
+                        runningDAG.reporter, processedDAGs, stop_on_failure);
+                if (stoppedOnFailure) {
+                    break;
+                }
+                future = completionService.poll();
             }
-            processedDAGs++;
-            if (tezPlanContainer.size() == processedDAGs) {
-                tezScriptState.emitProgressUpdatedNotification(100);
-            } else {
-                tezScriptState.emitProgressUpdatedNotification(
-                    ((tezPlanContainer.size() - processedDAGs)/tezPlanContainer.size()) * 100);
+        }
+
+        if (!runningDAGs.isEmpty()) {
+            // Stopped on failure while other DAGs were running
+            for (RunningDAG runningDAG : runningDAGs.values()) {
+                runningDAG.tezJob.killJob();
             }
-            handleUnCaughtException(pc);
-            boolean tezDAGSucceeded = reporter.notifyFinishedOrFailed();
-            tezPlanContainer.updatePlan(tezPlan, tezDAGSucceeded);
-            // if stop_on_failure is enabled, we need to stop immediately when any job has failed
-            if (!tezDAGSucceeded) {
-                if (stop_on_failure) {
-                    stoppedOnFailure = true;
-                    break;
-                } else {
-                    log.warn("Ooops! Some job has failed! Specify -stop_on_failure if you "
-                            + "want Pig to stop immediately on failure.");
+            for (Future<Void> future : runningDAGs.keySet()) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    log.warn("Error while killing DAG", e.getCause());
                 }
             }
+            runningJobs.clear();
         }
 
         tezStats.finish();
@@ -303,6 +335,34 @@ public class TezLauncher extends Launcher {
         return tezStats;
     }
 
+    /**
+     * Updates the progress and the plan container once a DAG has completed.
+     * @return true if the DAG failed and stop_on_failure is enabled
+     */
+    private boolean dagCompleted(PigContext pc, TezPlanContainer tezPlanContainer,
+            TezOperPlan tezPlan, ProgressReporter reporter, int processedDAGs,
+            boolean stop_on_failure) throws Exception {
+        if (tezPlanContainer.size() == processedDAGs) {
+            tezScriptState.emitProgressUpdatedNotification(100);
+        } else {
+            tezScriptState.emitProgressUpdatedNotification(
+                ((tezPlanContainer.size() - processedDAGs)/tezPlanContainer.size()) * 100);
+        }
+        handleUnCaughtException(pc);
+        boolean tezDAGSucceeded = reporter.notifyFinishedOrFailed();
+        tezPlanContainer.updatePlan(tezPlan, tezDAGSucceeded);
+        // if stop_on_failure is enabled, we need to stop immediately when any job has failed
+        if (!tezDAGSucceeded) {
+            if (stop_on_failure) {
+                return true;
+            } else {
+                log.warn("Ooops! Some job has failed! Specify -stop_on_failure if you "
+                        + "want Pig to stop immediately on failure.");
+            }
+        }
+        return false;
+    }
+
     private void handleUnCaughtException(PigContext pc) throws Exception {
       //check for the uncaught exceptions from TezJob thread
         //if the job controller fails before launching the jobs then there are
@@ -344,15 +404,45 @@ public class TezLauncher extends Launcher {
         }
     }
 
+    private class RunningDAG {
+        private final TezOperPlan tezPlan;
+        private final TezJob tezJob;
+        private final UDFContext udfContext;
+        private final ProgressReporter reporter;
+        private boolean jobStarted = false;
+
+        public RunningDAG(TezOperPlan tezPlan, TezJob tezJob, UDFContext udfContext,
+                ProgressReporter reporter) {
+            this.tezPlan = tezPlan;
+            this.tezJob = tezJob;
+            this.udfContext = udfContext;
+            this.reporter = reporter;
+        }
+
+        public void notifyUpdate() {
+            if (!jobStarted && tezJob.getApplicationId() != null) {
+                jobStarted = true;
+                String appId = tezJob.getApplicationId().toString();
+                //For Oozie Pig action job id matching compatibility with MR mode
+                log.info("HadoopJobId: "+ appId.replace("application", "job"));
+                tezScriptState.emitJobStartedNotification(appId);
+                tezScriptState.dagStartedNotification(tezJob.getName(), appId);
+            }
+            reporter.notifyUpdate();
+        }
+    }
+
     private class ProgressReporter {
         private int totalDAGs;
         private int processedDAGS;
+        private TezJob runningJob;
         private int count = 0;
         private int prevProgress = 0;
 
-        public ProgressReporter(int totalDAGs, int processedDAGs) {
+        public ProgressReporter(int totalDAGs, int processedDAGs, TezJob runningJob) {
             this.totalDAGs = totalDAGs;
             this.processedDAGS = processedDAGs;
+            this.runningJob = runningJob;
         }
 
         public void notifyUpdate() {
@@ -373,6 +463,10 @@ public class TezLauncher extends Launcher {
         }
 
         public boolean notifyFinishedOrFailed() {
+            if (runningJob == null) {
+                // Native Tez job, runJob throws an exception on failure
+                return true;
+            }
             DAGStatus dagStatus = runningJob.getDAGStatus();
             if (dagStatus == null) {
                 return false;
@@ -445,6 +539,8 @@ public class TezLauncher extends Launcher {
         if (!pc.inIllustrator && !nocombiner)  {
             boolean doMapAgg = Boolean.parseBoolean(pc.getProperties().getProperty(
                     PigConfiguration.PIG_EXEC_MAP_PARTAGG, "false"));
+            // Unordered outputs used by hash grouping do not run the combiner
+            doMapAgg = doMapAgg || conf.getBoolean(PigConfiguration.PIG_TEZ_HASH_GROUPING, false);
             CombinerOptimizer co = new CombinerOptimizer(tezPlan, doMapAgg);
             co.visit();
             co.getMessageCollector().logMessages(MessageType.Warning, aggregateWarning, log);
@@ -495,6 +591,11 @@ public class TezLauncher extends Launcher {
             uo.visit();
         }
 
+        boolean isHashGrouping = conf.getBoolean(PigConfiguration.PIG_TEZ_HASH_GROUPING, false);
+        if (!pc.inIllustrator && !nocombiner && isHashGrouping) {
+            HashGroupingOptimizer hgo = new HashGroupingOptimizer(tezPlan);
+            hgo.visit();
+        }
     }
 
     public static void processLoadAndParallelism(TezOperPlan tezPlan, PigContext pc) throws VisitorException {
@@ -510,7 +611,7 @@ public class TezLauncher extends Launcher {
 
     @Override
     public void kill() throws BackendException {
-        if (runningJob != null) {
+        for (TezJob runningJob : runningJobs) {
             try {
                 runningJob.killJob();
             } catch (Exception e) {
@@ -522,13 +623,19 @@ public class TezLauncher extends Launcher {
 
     @Override
     public void killJob(String jobID, Configuration conf) throws BackendException {
-        if (runningJob != null && runningJob.getApplicationId().toString().equals(jobID)) {
-            try {
-                runningJob.killJob();
-            } catch (Exception e) {
-                throw new BackendException(e);
+        boolean found = false;
+        for (TezJob runningJob : runningJobs) {
+            if (runningJob.getApplicationId() != null
+                    && runningJob.getApplicationId().toString().equals(jobID)) {
+                found = true;
+                try {
+                    runningJob.killJob();
+                } catch (Exception e) {
+                    throw new BackendException(e);
+                }
             }
-        } else {
+        }
+        if (!found) {
             log.info("Cannot find job: " + jobID);
         }
     }
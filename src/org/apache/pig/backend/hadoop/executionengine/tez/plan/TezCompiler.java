@@ -86,6 +86,7 @@ import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOpe
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POSplit;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POStore;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POStream;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POTopN;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POUnion;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.Packager.PackageType;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.util.PlanHelper;
@@ -794,7 +795,7 @@ public class TezCompiler extends PhyPlanVisitor {
                 phyToTezOpMap.put(op, curTezOp);
             }
 
-            boolean limitAfterSort = curTezOp.isGlobalSort();
+            boolean limitAfterSort = curTezOp.isGlobalSort() || curTezOp.isLimitAfterSort();
 
             // If the parallelism of the current vertex is one and it doesn't do a LOAD (whose
             // parallelism is determined by the InputFormat), we don't need another vertex.
@@ -1505,6 +1506,9 @@ public class TezCompiler extends PhyPlanVisitor {
             applyBloomOp.plan.remove(lr);
             applyBloomOp.plan.addAsLeaf(bfr);
             bfr.setInputKey(combineBloomOpKey);
+            if (createBloomInMap) {
+                setRuntimeFilter(applyBloomOp, bfr);
+            }
             edge = new TezEdgeDescriptor();
             edge.setIntermediateOutputKeyClass(NullableIntWritable.class.getName());
             edge.setIntermediateOutputKeyComparatorClass(PigWritableComparators.PigIntRawBytesComparator.class.getName());
@@ -1515,6 +1519,25 @@ public class TezCompiler extends PhyPlanVisitor {
 
     }
 
+    /**
+     * Push down the range of the join keys to the load of the input if it was
+     * marked for it by BloomJoinPushdownSetter
+     */
+    private void setRuntimeFilter(TezOperator applyBloomOp, POBloomFilterRearrangeTez bfr) {
+        POLoad filterLoad = null;
+        for (PhysicalOperator root : applyBloomOp.plan.getRoots()) {
+            if (root instanceof POLoad && ((POLoad) root).getRuntimeFilterColumn() != null) {
+                if (filterLoad != null) {
+                    return;
+                }
+                filterLoad = (POLoad) root;
+            }
+        }
+        if (filterLoad != null) {
+            bfr.setRuntimeFilter(filterLoad.getSignature(), filterLoad.getRuntimeFilterColumn());
+        }
+    }
+
     @Override
     public void visitPOForEach(POForEach op) throws VisitorException{
         try{
@@ -2444,6 +2467,12 @@ public class TezCompiler extends PhyPlanVisitor {
                 throw new PlanException(msg, errCode, PigException.BUG, ve);
             }
 
+            if (isTopN(op)) {
+                compileTopN(op, keyType, fields);
+                phyToTezOpMap.put(op, curTezOp);
+                return;
+            }
+
             TezOperator samplerOper = compiledInputs[0];
             boolean writeDataForPartitioner = shouldWriteDataForPartitioner(samplerOper);
 
@@ -2562,6 +2591,48 @@ public class TezCompiler extends PhyPlanVisitor {
         }
     }
 
+    /**
+     * Whether a limited sort is small enough to keep its first records in a
+     * bounded heap in each task of the input vertex and merge them in a
+     * single task, instead of sampling and sorting the whole input.
+     */
+    private boolean isTopN(POSort sort) {
+        return sort.isLimited() && !pigContext.inIllustrator && !sort.isUDFComparatorUsed
+                && !compiledInputs[0].isClosed()
+                && sort.getLimit() <= conf.getLong(PigConfiguration.PIG_SORT_TOPN_MAX_LIMIT, 10000);
+    }
+
+    private void compileTopN(POSort sort, byte keyType, Pair<POProject, Byte>[] fields)
+            throws PlanException, IOException {
+        TezOperator inputOper = compiledInputs[0];
+        inputOper.plan.addAsLeaf(new POTopN(OperatorKey.genOpKey(scope), sort));
+        POLocalRearrangeTez lr = getLocalRearrangeForSortInput(sort, keyType, fields);
+        inputOper.plan.addAsLeaf(lr);
+
+        blocking();
+        lr.setOutputKey(curTezOp.getOperatorKey().toString());
+        curTezOp.markLimitAfterSort();
+        curTezOp.setRequestedParallelism(1);
+        curTezOp.setDontEstimateParallelism(true);
+        List<Boolean> sortOrderList = sort.getMAscCols();
+        boolean[] sortOrder = new boolean[sortOrderList.size()];
+        for (int i = 0; i < sortOrderList.size(); ++i) {
+            sortOrder[i] = sortOrderList.get(i);
+        }
+        curTezOp.setSortOrder(sortOrder);
+
+        POPackage pkg = new POPackage(OperatorKey.genOpKey(scope));
+        pkg.setPkgr(new LitePackager());
+        pkg.getPkgr().setKeyType((fields == null || fields.length > 1) ? DataType.TUPLE : keyType);
+        pkg.setNumInps(1);
+        curTezOp.plan.add(pkg);
+        curTezOp.plan.addAsLeaf(TezCompilerUtil.getForEachPlain(scope, nig));
+
+        POLimit limit = new POLimit(OperatorKey.genOpKey(scope));
+        limit.setLimit(sort.getLimit());
+        curTezOp.plan.addAsLeaf(limit);
+    }
+
     @Override
     public void visitSplit(POSplit op) throws VisitorException {
         try {
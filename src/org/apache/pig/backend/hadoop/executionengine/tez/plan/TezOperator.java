@@ -146,6 +146,9 @@ public class TezOperator extends Operator<TezOpPlanVisitor> {
 
     private boolean useGraceParallelism = false;
 
+    // If true, the shuffle inputs are unordered and grouped in a hash table
+    private boolean useHashGrouping = false;
+
     private Map<OperatorKey, Double> parallelismFactorPerSuccessor;
 
     private Boolean intermediateReducer = null;
@@ -717,6 +720,14 @@ public class TezOperator extends Operator<TezOpPlanVisitor> {
         return useGraceParallelism;
     }
 
+    public void setUseHashGrouping(boolean useHashGrouping) {
+        this.useHashGrouping = useHashGrouping;
+    }
+
+    public boolean isUseHashGrouping() {
+        return useHashGrouping;
+    }
+
     public double getParallelismFactor(TezOperator successor) throws VisitorException {
         if (parallelismFactorPerSuccessor == null) {
             parallelismFactorPerSuccessor = new HashMap<OperatorKey, Double>();
@@ -116,13 +116,7 @@ public class TezPlanContainer extends OperatorPlan<TezPlanContainerNode> {
     public TezPlanContainerNode getNextPlan(List<TezOperPlan> processedPlans) {
         synchronized(this) {
             while (getRoots()!=null && !getRoots().isEmpty()) {
-                TezPlanContainerNode currentPlan = null;
-                for (TezPlanContainerNode plan : getRoots()) {
-                    if (!processedPlans.contains(plan.getTezOperPlan())) {
-                        currentPlan = plan;
-                        break;
-                    }
-                }
+                TezPlanContainerNode currentPlan = pollNextPlan(processedPlans);
                 if (currentPlan!=null) {
                     return currentPlan;
                 } else {
@@ -136,6 +130,24 @@ public class TezPlanContainer extends OperatorPlan<TezPlanContainerNode> {
         return null;
     }
 
+    /**
+     * Returns a plan that is not processed yet and whose predecessors have all
+     * been updated, or null if there is none at the moment. Unlike getNextPlan,
+     * does not wait for the plans being processed to complete.
+     */
+    public TezPlanContainerNode pollNextPlan(List<TezOperPlan> processedPlans) {
+        synchronized(this) {
+            if (getRoots() != null) {
+                for (TezPlanContainerNode plan : getRoots()) {
+                    if (!processedPlans.contains(plan.getTezOperPlan())) {
+                        return plan;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
     public void addPlan(TezOperPlan plan) throws PlanException {
         TezPlanContainerNode node = new TezPlanContainerNode(generateNodeOperatorKey(), plan);
         this.add(node);
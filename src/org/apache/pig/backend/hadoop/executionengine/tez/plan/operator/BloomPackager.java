@@ -98,6 +98,9 @@ public class BloomPackager extends Packager {
     }
 
     private Result combineBloomFilters() throws IOException {
+        if (((Integer) key).intValue() == numBloomFilters) {
+            return combineKeyRanges();
+        }
         // We get a bag of bloom filters. combine them into one
         Iterator<Tuple> iter = bags[0].iterator();
         Tuple tup = iter.next();
@@ -114,6 +117,28 @@ public class BloomPackager extends Packager {
         return getSerializedBloomFilter(partition, bloomFilter, bloomBytes.get().length);
     }
 
+    private Result combineKeyRanges() throws ExecException {
+        // We get a bag of (min, max) of the join keys from the maps
+        Object min = null;
+        Object max = null;
+        for (Tuple tup : bags[0]) {
+            if (min == null || DataType.compare(tup.get(0), min) < 0) {
+                min = tup.get(0);
+            }
+            if (max == null || DataType.compare(tup.get(1), max) > 0) {
+                max = tup.get(1);
+            }
+        }
+        Object partition = key;
+        detachInput();
+
+        Tuple res = mTupleFactory.newTuple(3);
+        res.set(0, partition);
+        res.set(1, min);
+        res.set(2, max);
+        return new Result(POStatus.STATUS_OK, res);
+    }
+
     private Result getSerializedBloomFilter(Object partition,
             BloomFilter bloomFilter, int serializedSize) throws ExecException,
             IOException {
@@ -25,8 +25,14 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.util.bloom.Key;
+import org.apache.pig.Expression;
+import org.apache.pig.Expression.BinaryExpression;
+import org.apache.pig.Expression.Column;
+import org.apache.pig.Expression.Const;
+import org.apache.pig.Expression.OpType;
 import org.apache.pig.backend.executionengine.ExecException;
 import org.apache.pig.backend.hadoop.HDataType;
+import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.PigRecordReader;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.POStatus;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.Result;
 import org.apache.pig.backend.hadoop.executionengine.tez.runtime.ObjectCache;
@@ -42,6 +48,13 @@ import org.apache.pig.impl.io.PigNullableWritable;
 import org.apache.tez.runtime.api.LogicalInput;
 import org.apache.tez.runtime.library.api.KeyValueReader;
 
+/**
+ * This operator writes out the key value for the hash join reduce operation
+ * similar to POLocalRearrangeTez, skipping the records whose key is outside
+ * the range of the keys or is not in the bloom filter of the other input.
+ * The range can also be pushed down to the loader of the input so that it can
+ * skip reading blocks of data that will not join.
+ */
 @InterfaceAudience.Private
 @InterfaceStability.Evolving
 public class POBloomFilterRearrangeTez extends POLocalRearrangeTez implements TezInput {
@@ -53,6 +66,10 @@ public class POBloomFilterRearrangeTez extends POLocalRearrangeTez implements Te
     private transient String cacheKey;
     private int numBloomFilters;
     private transient BloomFilter[] bloomFilters;
+    private transient Object minKey;
+    private transient Object maxKey;
+    private String runtimeFilterSignature;
+    private String runtimeFilterColumn;
 
     public POBloomFilterRearrangeTez(POLocalRearrangeTez lr, int numBloomFilters) {
         super(lr);
@@ -63,6 +80,21 @@ public class POBloomFilterRearrangeTez extends POLocalRearrangeTez implements Te
         this.inputKey = inputKey;
     }
 
+    /**
+     * Push the range of the join keys down to the loader of this input
+     *
+     * @param signature signature of the load
+     * @param column name of the join key column as known to the loader
+     */
+    public void setRuntimeFilter(String signature, String column) {
+        this.runtimeFilterSignature = signature;
+        this.runtimeFilterColumn = column;
+    }
+
+    public String getRuntimeFilterSignature() {
+        return runtimeFilterSignature;
+    }
+
     @Override
     public String[] getTezInputs() {
         return new String[] { inputKey };
@@ -90,6 +122,12 @@ public class POBloomFilterRearrangeTez extends POLocalRearrangeTez implements Te
         Object cacheValue = ObjectCache.getInstance().retrieve(cacheKey);
         if (cacheValue != null) {
             bloomFilters = (BloomFilter[]) cacheValue;
+            Object[] range = (Object[]) ObjectCache.getInstance().retrieve(cacheKey + "-range");
+            if (range != null) {
+                minKey = range[0];
+                maxKey = range[1];
+            }
+            pushdownKeyRange();
             return;
         }
         LogicalInput input = inputs.get(inputKey);
@@ -105,12 +143,34 @@ public class POBloomFilterRearrangeTez extends POLocalRearrangeTez implements Te
                 }
                 Tuple val = (Tuple) reader.getCurrentValue();
                 int index = (int) val.get(0);
-                bloomFilters[index] = BloomFilter.bloomIn((DataByteArray) val.get(1));
+                if (index == numBloomFilters) {
+                    // Range of the keys sent after the bloom filters
+                    minKey = val.get(1);
+                    maxKey = val.get(2);
+                } else {
+                    bloomFilters[index] = BloomFilter.bloomIn((DataByteArray) val.get(1));
+                }
             }
             ObjectCache.getInstance().cache(cacheKey, bloomFilters);
+            if (minKey != null) {
+                ObjectCache.getInstance().cache(cacheKey + "-range", new Object[] {minKey, maxKey});
+            }
         } catch (Exception e) {
             throw new ExecException(e);
         }
+        pushdownKeyRange();
+    }
+
+    private void pushdownKeyRange() {
+        if (runtimeFilterSignature == null || minKey == null) {
+            return;
+        }
+        Expression column = new Column(runtimeFilterColumn, keyType);
+        Expression range = new BinaryExpression(
+                new BinaryExpression(column, new Const(minKey), OpType.OP_GE),
+                new BinaryExpression(column, new Const(maxKey), OpType.OP_LE),
+                OpType.OP_AND);
+        PigRecordReader.setRuntimePredicate(runtimeFilterSignature, range);
     }
 
     @Override
@@ -166,6 +226,10 @@ public class POBloomFilterRearrangeTez extends POLocalRearrangeTez implements Te
             // So just skip them
             return false;
         }
+        if (minKey != null && (DataType.compare(key, minKey, keyType, keyType) < 0
+                || DataType.compare(key, maxKey, keyType, keyType) > 0)) {
+            return false;
+        }
         if (bloomFilters.length == 1) {
             // Skip computing hashcode
             Key k = new Key(DataType.toBytes(key, keyType));
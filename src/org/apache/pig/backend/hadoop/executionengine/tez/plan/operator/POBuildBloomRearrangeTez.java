@@ -52,6 +52,9 @@ import org.apache.tez.runtime.library.api.KeyValueWriter;
  * Using multiple bloom filters partitioned by the hash of the key allows for parallelism.
  * It also allows us to have lower false positives with smaller vector sizes.
  *
+ * In case of map strategy, the min and max of the join keys are also written out
+ * so that the other inputs can skip keys outside that range without a lookup
+ * and push the range down to their loaders.
  */
 @InterfaceAudience.Private
 @InterfaceStability.Evolving
@@ -77,6 +80,8 @@ public class POBuildBloomRearrangeTez extends POLocalRearrangeTez {
     private transient KeyValueWriter bloomWriter;
     private transient PigNullableWritable nullKey;
     private transient NullableTuple[] bloomPartitions;
+    private transient Object minKey;
+    private transient Object maxKey;
 
     public POBuildBloomRearrangeTez(POLocalRearrangeTez lr,
             boolean createBloomInMap, int numBloomFilters, int vectorSizeBytes,
@@ -97,6 +102,24 @@ public class POBuildBloomRearrangeTez extends POLocalRearrangeTez {
         }
     }
 
+    /**
+     * Whether the min and max of the join keys are tracked along with the bloom
+     * filter for the key type. Only types that loaders can filter on by range
+     * are supported.
+     */
+    public static boolean isRangeSupported(byte keyType) {
+        switch (keyType) {
+        case DataType.INTEGER:
+        case DataType.LONG:
+        case DataType.FLOAT:
+        case DataType.DOUBLE:
+        case DataType.CHARARRAY:
+            return true;
+        default:
+            return false;
+        }
+    }
+
     public void setSkipNullKeys(boolean skipNullKeys) {
         this.skipNullKeys = skipNullKeys;
     }
@@ -207,6 +230,14 @@ public class POBuildBloomRearrangeTez extends POLocalRearrangeTez {
     }
 
     private void addKeyToBloomFilter(Object key) throws ExecException {
+        if (isRangeSupported(keyType)) {
+            if (minKey == null || DataType.compare(key, minKey, keyType, keyType) < 0) {
+                minKey = key;
+            }
+            if (maxKey == null || DataType.compare(key, maxKey, keyType, keyType) > 0) {
+                maxKey = key;
+            }
+        }
         Key k = new Key(DataType.toBytes(key, keyType));
         if (bloomFilters.length == 1) {
             if (bloomFilters[0] == null) {
@@ -248,6 +279,14 @@ public class POBuildBloomRearrangeTez extends POLocalRearrangeTez {
                 baos.reset();
             }
         }
+        // The range of the keys is sent with the partition index after
+        // the last bloom filter
+        if (minKey != null) {
+            Tuple range = mTupleFactory.newTuple(2);
+            range.set(0, minKey);
+            range.set(1, maxKey);
+            bloomWriter.write(new NullableIntWritable(numBloomFilters), new NullableTuple(range));
+        }
     }
 
     @Override
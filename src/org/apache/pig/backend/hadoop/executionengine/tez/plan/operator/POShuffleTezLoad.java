@@ -38,16 +38,19 @@ import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOpe
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.LitePackager;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POPackage;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.Packager;
+import org.apache.pig.backend.hadoop.executionengine.tez.runtime.HashGroupingReader;
 import org.apache.pig.backend.hadoop.executionengine.tez.runtime.TezInput;
 import org.apache.pig.backend.hadoop.executionengine.util.AccumulatorOptimizerUtil;
 import org.apache.pig.data.AccumulativeBag;
 import org.apache.pig.data.DataBag;
 import org.apache.pig.data.InternalCachedBag;
+import org.apache.pig.data.NonSpillableDataBag;
 import org.apache.pig.data.ReadOnceBag;
 import org.apache.pig.data.Tuple;
 import org.apache.pig.impl.io.NullableTuple;
 import org.apache.pig.impl.io.PigNullableWritable;
 import org.apache.tez.runtime.api.LogicalInput;
+import org.apache.tez.runtime.library.api.KeyValueReader;
 import org.apache.tez.runtime.library.api.KeyValuesReader;
 import org.apache.tez.runtime.library.common.ConfigUtils;
 
@@ -58,6 +61,8 @@ public class POShuffleTezLoad extends POPackage implements TezInput {
 
     protected List<String> inputKeys = new ArrayList<String>();
     private boolean isSkewedJoin = false;
+    // Inputs are unordered and grouped using a hash table
+    private boolean useHashGrouping = false;
 
     private transient List<LogicalInput> inputs;
     private transient List<KeyValuesReader> readers;
@@ -69,6 +74,7 @@ public class POShuffleTezLoad extends POPackage implements TezInput {
     private transient Configuration conf;
     private transient int accumulativeBatchSize;
     private transient boolean readOnceOneBag;
+    private transient HashGroupingReader hashGroupingReader;
 
     public POShuffleTezLoad(POPackage pack) {
         super(pack);
@@ -100,6 +106,11 @@ public class POShuffleTezLoad extends POPackage implements TezInput {
         this.groupingComparator = (WritableComparator) ConfigUtils.getInputKeySecondaryGroupingComparator(conf);
         this.accumulativeBatchSize = AccumulatorOptimizerUtil.getAccumulativeBatchSize();
 
+        if (useHashGrouping) {
+            attachHashGroupingInputs(inputs);
+            return;
+        }
+
         try {
             for (String inputKey : inputKeys) {
                 LogicalInput input = inputs.get(inputKey);
@@ -140,8 +151,67 @@ public class POShuffleTezLoad extends POPackage implements TezInput {
         }
     }
 
+    private void attachHashGroupingInputs(Map<String, LogicalInput> inputs) throws ExecException {
+        try {
+            List<KeyValueReader> hashReaders = new ArrayList<KeyValueReader>();
+            for (String inputKey : inputKeys) {
+                LogicalInput input = inputs.get(inputKey);
+                if (!this.inputs.contains(input)) {
+                    this.inputs.add(input);
+                    KeyValueReader reader = (KeyValueReader) input.getReader();
+                    hashReaders.add(reader);
+                    LOG.info("Attached unordered input from vertex " + inputKey
+                            + " : input=" + input + ", reader=" + reader);
+                }
+            }
+            this.numInputs = this.pkgr.getKeyInfo().size();
+            this.numTezInputs = this.inputs.size();
+            this.readOnce = new boolean[numInputs];
+            this.hashGroupingReader = new HashGroupingReader(hashReaders, conf);
+        } catch (Exception e) {
+            throw new ExecException(e);
+        }
+    }
+
+    private Result getNextHashGroup() throws ExecException {
+        Result res = pkgr.getNext();
+        while (res.returnStatus == POStatus.STATUS_EOP) {
+            try {
+                if (!hashGroupingReader.next()) {
+                    hashGroupingReader.close();
+                    if (Boolean.valueOf(conf.get(JobControlCompiler.END_OF_INP_IN_MAP, "false"))) {
+                        this.parentPlan.endOfAllInput = true;
+                    }
+                    return pkgr.getNext();
+                }
+                keyWritable = hashGroupingReader.getCurrentKey();
+                key = pkgr.getKey(keyWritable);
+                List<List<Tuple>> values = new ArrayList<List<Tuple>>(numInputs);
+                for (int i = 0; i < numInputs; i++) {
+                    values.add(new ArrayList<Tuple>());
+                }
+                for (NullableTuple nTup : hashGroupingReader.getCurrentValues()) {
+                    int index = nTup.getIndex();
+                    values.get(index).add(pkgr.getValueTuple(keyWritable, nTup, index));
+                }
+                DataBag[] bags = new DataBag[numInputs];
+                for (int i = 0; i < numInputs; i++) {
+                    bags[i] = new NonSpillableDataBag(values.get(i));
+                }
+                pkgr.attachInput(key, bags, readOnce);
+                res = pkgr.getNext();
+            } catch (IOException e) {
+                throw new ExecException(e);
+            }
+        }
+        return res;
+    }
+
     @Override
     public Result getNextTuple() throws ExecException {
+        if (useHashGrouping) {
+            return getNextHashGroup();
+        }
         Result res = pkgr.getNext();
         TezAccumulativeTupleBuffer buffer = null;
 
@@ -279,6 +349,14 @@ public class POShuffleTezLoad extends POPackage implements TezInput {
         return isSkewedJoin;
     }
 
+    public void setUseHashGrouping(boolean useHashGrouping) {
+        this.useHashGrouping = useHashGrouping;
+    }
+
+    public boolean isUseHashGrouping() {
+        return useHashGrouping;
+    }
+
     @Override
     public boolean supportsMultipleInputs() {
         return true;
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.backend.hadoop.executionengine.tez.plan.optimizer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.pig.Expression.OpType;
+import org.apache.pig.LoadFunc;
+import org.apache.pig.LoadPredicatePushdown;
+import org.apache.pig.backend.hadoop.executionengine.tez.plan.operator.POBuildBloomRearrangeTez;
+import org.apache.pig.impl.logicalLayer.FrontendException;
+import org.apache.pig.newplan.DependencyOrderWalker;
+import org.apache.pig.newplan.Operator;
+import org.apache.pig.newplan.logical.expression.LogicalExpressionPlan;
+import org.apache.pig.newplan.logical.expression.ProjectExpression;
+import org.apache.pig.newplan.logical.relational.LODistinct;
+import org.apache.pig.newplan.logical.relational.LOFilter;
+import org.apache.pig.newplan.logical.relational.LOForEach;
+import org.apache.pig.newplan.logical.relational.LOJoin;
+import org.apache.pig.newplan.logical.relational.LOLimit;
+import org.apache.pig.newplan.logical.relational.LOLoad;
+import org.apache.pig.newplan.logical.relational.LOSort;
+import org.apache.pig.newplan.logical.relational.LogicalPlan;
+import org.apache.pig.newplan.logical.relational.LogicalRelationalNodesVisitor;
+import org.apache.pig.newplan.logical.relational.LogicalSchema;
+import org.apache.pig.newplan.logical.relational.LogicalSchema.LogicalFieldSchema;
+
+/**
+ * Marks the loads on the probe side of a bloom join whose join key is a
+ * column read as is from a {@link LoadPredicatePushdown} loader. The key range
+ * computed at runtime by the build side can then be pushed down into those
+ * loaders by POBloomFilterRearrangeTez before they start reading.
+ */
+public class BloomJoinPushdownSetter extends LogicalRelationalNodesVisitor {
+    private static final Log LOG = LogFactory.getLog(BloomJoinPushdownSetter.class);
+
+    public BloomJoinPushdownSetter(LogicalPlan plan) throws FrontendException {
+        super(plan, new DependencyOrderWalker(plan));
+    }
+
+    @Override
+    public void visit(LOJoin join) throws FrontendException {
+        if (join.getJoinType() != LOJoin.JOINTYPE.BLOOM) {
+            return;
+        }
+        List<Operator> inputs = plan.getPredecessors(join);
+        boolean[] innerFlags = join.getInnerFlags();
+        // Same choice of the input to build the bloom filter from as TezCompiler
+        int buildInput = innerFlags[innerFlags.length - 1] ? inputs.size() - 1 : 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            if (i != buildInput) {
+                setRuntimeFilterColumn(join.getJoinPlan(i), inputs.get(i));
+            }
+        }
+    }
+
+    private void setRuntimeFilterColumn(Collection<LogicalExpressionPlan> joinPlans, Operator input)
+            throws FrontendException {
+        if (joinPlans.size() != 1) {
+            return;
+        }
+        LogicalExpressionPlan joinPlan = joinPlans.iterator().next();
+        if (joinPlan.size() != 1 || !(joinPlan.getSources().get(0) instanceof ProjectExpression)) {
+            return;
+        }
+        ProjectExpression project = (ProjectExpression) joinPlan.getSources().get(0);
+        if (project.isRangeOrStarProject()
+                || !POBuildBloomRearrangeTez.isRangeSupported(project.getType())) {
+            return;
+        }
+        long uid = project.getFieldSchema().uid;
+
+        // The range can only be pushed if all the records of the load go to
+        // this join and the key reaches it unchanged. Operators that create
+        // a new value also assign a new uid to it.
+        Operator op = input;
+        while (true) {
+            if (plan.getSuccessors(op).size() != 1) {
+                return;
+            }
+            if (op instanceof LOLoad) {
+                break;
+            }
+            if (!(op instanceof LOFilter || op instanceof LOForEach || op instanceof LOLimit
+                    || op instanceof LODistinct || op instanceof LOSort)) {
+                return;
+            }
+            List<Operator> preds = plan.getPredecessors(op);
+            if (preds == null || preds.size() != 1) {
+                return;
+            }
+            op = preds.get(0);
+        }
+
+        LOLoad load = (LOLoad) op;
+        String column = getLoaderColumn(load, uid, project.getType());
+        if (column != null) {
+            LOG.info("Range of join keys from bloom filter will be pushed down to "
+                    + load.getLoadFunc().getClass().getName() + " on column " + column
+                    + " for " + load.getAlias());
+            load.setRuntimeFilterColumn(column);
+        }
+    }
+
+    /**
+     * @return name of the column as known to the loader if it can filter on it
+     */
+    private String getLoaderColumn(LOLoad load, long uid, byte type) throws FrontendException {
+        LoadFunc loadFunc = load.getLoadFunc();
+        LogicalSchema determinedSchema = load.getDeterminedSchema();
+        if (plan.getPredecessors(load) != null || !(loadFunc instanceof LoadPredicatePushdown)
+                || determinedSchema == null) {
+            return null;
+        }
+        LoadPredicatePushdown loadPredPushdown = (LoadPredicatePushdown) loadFunc;
+        List<OpType> supportedTypes = loadPredPushdown.getSupportedExpressionTypes();
+        if (supportedTypes == null || !supportedTypes.contains(OpType.OP_AND)
+                || !supportedTypes.contains(OpType.OP_GE) || !supportedTypes.contains(OpType.OP_LE)) {
+            return null;
+        }
+
+        LogicalSchema schema = load.getSchema();
+        if (schema == null) {
+            return null;
+        }
+        int index = -1;
+        for (int i = 0; i < schema.size(); i++) {
+            if (schema.getField(i).uid == uid) {
+                index = i;
+                break;
+            }
+        }
+        if (index == -1) {
+            return null;
+        }
+        // Pruned columns are not part of the schema of the load
+        if (load.getRequiredFields() != null) {
+            List<Integer> requiredFields = new ArrayList<Integer>(load.getRequiredFields());
+            Collections.sort(requiredFields);
+            index = requiredFields.get(index);
+        }
+        if (index >= determinedSchema.size()) {
+            return null;
+        }
+        LogicalFieldSchema field = determinedSchema.getField(index);
+        if (field.type != type) {
+            return null;
+        }
+
+        try {
+            List<String> predicateFields = loadPredPushdown.getPredicateFields(
+                    load.getFileSpec().getFileName(), new Job(load.getConfiguration()));
+            if (predicateFields == null || !predicateFields.contains(field.alias)) {
+                return null;
+            }
+        } catch (IOException e) {
+            throw new FrontendException(e);
+        }
+        return field.alias;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.backend.hadoop.executionengine.tez.plan.optimizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.PhysicalOperator;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.CombinerPackager;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POPackage;
+import org.apache.pig.backend.hadoop.executionengine.tez.plan.TezEdgeDescriptor;
+import org.apache.pig.backend.hadoop.executionengine.tez.plan.TezOpPlanVisitor;
+import org.apache.pig.backend.hadoop.executionengine.tez.plan.TezOperPlan;
+import org.apache.pig.backend.hadoop.executionengine.tez.plan.TezOperator;
+import org.apache.pig.impl.plan.DepthFirstWalker;
+import org.apache.pig.impl.plan.VisitorException;
+import org.apache.tez.dag.api.EdgeProperty.DataMovementType;
+import org.apache.tez.runtime.library.input.OrderedGroupedKVInput;
+import org.apache.tez.runtime.library.input.UnorderedKVInput;
+import org.apache.tez.runtime.library.output.OrderedPartitionedKVOutput;
+import org.apache.tez.runtime.library.output.UnorderedPartitionedKVOutput;
+
+/**
+ * Replaces the sorted shuffle of a group by that is only followed by
+ * algebraic functions with an unordered one. The records are then grouped in
+ * a hash table in the consuming vertex, avoiding the sort in the producing
+ * vertex and the merge in the consuming one. This requires the combiner to
+ * have been applied, as the order of the groups and of the records within a
+ * group are then known not to matter.
+ * <p>
+ * Unordered outputs do not run the combiner, so the partial aggregation in the
+ * producing vertex is expected to be done by POPartialAgg instead.
+ */
+public class HashGroupingOptimizer extends TezOpPlanVisitor {
+    private static final Log LOG = LogFactory.getLog(HashGroupingOptimizer.class);
+
+    public HashGroupingOptimizer(TezOperPlan plan) {
+        super(plan, new DepthFirstWalker<TezOperator, TezOperPlan>(plan));
+    }
+
+    @Override
+    public void visitTezOp(TezOperator tezOp) throws VisitorException {
+        if (tezOp.isGlobalSort() || tezOp.isLimitAfterSort() || tezOp.isSkewedJoin()
+                || tezOp.isLimit() || tezOp.isCogroup()) {
+            return;
+        }
+        // The package is replaced with POShuffleTezLoad by TezDagBuilder
+        List<PhysicalOperator> roots = tezOp.plan.getRoots();
+        if (roots.size() != 1 || !(roots.get(0) instanceof POPackage)) {
+            return;
+        }
+        POPackage pkg = (POPackage) roots.get(0);
+        if (pkg.isAccumulative() || !(pkg.getPkgr() instanceof CombinerPackager)) {
+            return;
+        }
+
+        // All the shuffle inputs of a vertex starting with a package feed it
+        List<TezEdgeDescriptor> edges = new ArrayList<TezEdgeDescriptor>();
+        for (TezEdgeDescriptor edge : tezOp.inEdges.values()) {
+            if (edge.dataMovementType == DataMovementType.BROADCAST) {
+                continue;
+            }
+            if (edge.isUseSecondaryKey() || edge.needsDistinctCombiner() || edge.partitionerClass != null
+                    || edge.dataMovementType != DataMovementType.SCATTER_GATHER
+                    || !OrderedGroupedKVInput.class.getName().equals(edge.inputClassName)
+                    || !OrderedPartitionedKVOutput.class.getName().equals(edge.outputClassName)) {
+                return;
+            }
+            edges.add(edge);
+        }
+        if (edges.isEmpty()) {
+            return;
+        }
+
+        for (TezEdgeDescriptor edge : edges) {
+            edge.outputClassName = UnorderedPartitionedKVOutput.class.getName();
+            edge.inputClassName = UnorderedKVInput.class.getName();
+            // Not run by unordered outputs
+            edge.combinePlan = new PhysicalPlan();
+        }
+        tezOp.setUseHashGrouping(true);
+        LOG.info("Using hash grouping with unordered input in vertex " + tezOp.getOperatorKey());
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.backend.hadoop.executionengine.tez.plan.optimizer;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.backend.hadoop.datastorage.ConfigurationUtil;
+import org.apache.pig.impl.PigContext;
+import org.apache.pig.impl.logicalLayer.FrontendException;
+import org.apache.pig.newplan.logical.optimizer.ReplicatedJoinSelector;
+import org.apache.pig.newplan.logical.relational.LogicalPlan;
+
+/**
+ * Chooses between a shuffled hash join and a fragment-replicated (broadcast)
+ * join for Tez based on the size of the inputs as they are when the script is
+ * compiled, instead of relying on the <code>using 'replicated'</code> clause.
+ * Only joins left at the default strategy are considered. A join is converted
+ * when every input other than the first one can be traced back to loads whose
+ * total size, together with the replicated inputs of the joins running in the
+ * same vertex, is known and below
+ * {@link PigConfiguration#PIG_TEZ_AUTO_REPLICATED_JOIN_MAX_BYTES}.
+ */
+public class TezJoinStrategySelector extends ReplicatedJoinSelector {
+
+    public TezJoinStrategySelector(LogicalPlan plan, PigContext pigContext) throws FrontendException {
+        this(plan, ConfigurationUtil.toConfiguration(pigContext.getProperties(), false));
+    }
+
+    private TezJoinStrategySelector(LogicalPlan plan, Configuration conf) throws FrontendException {
+        super(plan, conf, conf.getLong(PigConfiguration.PIG_TEZ_AUTO_REPLICATED_JOIN_MAX_BYTES,
+                PigConfiguration.PIG_TEZ_AUTO_REPLICATED_JOIN_MAX_BYTES_DEFAULT),
+                PigConfiguration.PIG_TEZ_AUTO_REPLICATED_JOIN_MAX_BYTES);
+    }
+}
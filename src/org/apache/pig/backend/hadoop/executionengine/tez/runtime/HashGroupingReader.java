@@ -0,0 +1,321 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.backend.hadoop.executionengine.tez.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.WritableUtils;
+import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.data.SizeUtil;
+import org.apache.pig.impl.io.NullableTuple;
+import org.apache.pig.impl.io.PigNullableWritable;
+import org.apache.tez.runtime.library.api.KeyValueReader;
+
+/**
+ * Groups the records of unordered shuffle inputs by key in a hash table
+ * instead of relying on the inputs being sorted. Memory used by the table is
+ * bounded by {@link PigConfiguration#PIG_CACHEDBAG_MEMUSAGE} of the heap. When
+ * it fills up, hash partitions of the table are spilled to local disk along
+ * with all the records of those partitions read afterwards, and are grouped
+ * one at a time once the in memory groups have been returned.
+ */
+public class HashGroupingReader {
+
+    private static final Log LOG = LogFactory.getLog(HashGroupingReader.class);
+
+    private static final int NUM_PARTITIONS = 16;
+    // Spilled partitions are split again with a different hash function. Stop
+    // spilling after a few levels as the partition probably has a single key.
+    private static final int MAX_SPILL_LEVEL = 4;
+    private static final int NUM_RECS_TO_SAMPLE = 1000;
+    // Rough overhead of a hash map entry holding the key and the value list
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private Configuration conf;
+    private long memoryLimit;
+
+    private Map<PigNullableWritable, List<NullableTuple>> table;
+    private Iterator<Map.Entry<PigNullableWritable, List<NullableTuple>>> tableIterator;
+    private Map.Entry<PigNullableWritable, List<NullableTuple>> current;
+    private LinkedList<SpillFile> pendingSpills = new LinkedList<SpillFile>();
+
+    private long numSampled = 0;
+    private long sampledBytes = 0;
+    private Class<? extends PigNullableWritable> keyClass;
+
+    public HashGroupingReader(List<KeyValueReader> readers, Configuration conf) throws IOException {
+        this.conf = conf;
+        float percentUsage = conf.getFloat(PigConfiguration.PIG_CACHEDBAG_MEMUSAGE, 0.2f);
+        this.memoryLimit = (long) (Runtime.getRuntime().maxMemory() * percentUsage);
+        buildTable(new ReaderSource(readers), 0);
+    }
+
+    /**
+     * Moves to the next group
+     *
+     * @return false if there are no more groups
+     */
+    public boolean next() throws IOException {
+        while (!tableIterator.hasNext()) {
+            current = null;
+            table = null;
+            if (pendingSpills.isEmpty()) {
+                return false;
+            }
+            SpillFile spill = pendingSpills.removeFirst();
+            try {
+                buildTable(spill.getSource(), spill.level + 1);
+            } finally {
+                spill.delete();
+            }
+        }
+        current = tableIterator.next();
+        tableIterator.remove();
+        return true;
+    }
+
+    public PigNullableWritable getCurrentKey() {
+        return current.getKey();
+    }
+
+    public List<NullableTuple> getCurrentValues() {
+        return current.getValue();
+    }
+
+    public void close() {
+        for (SpillFile spill : pendingSpills) {
+            spill.delete();
+        }
+        pendingSpills.clear();
+    }
+
+    private void buildTable(Source source, int level) throws IOException {
+        table = new HashMap<PigNullableWritable, List<NullableTuple>>();
+        SpillFile[] spills = new SpillFile[NUM_PARTITIONS];
+        long[] partitionBytes = new long[NUM_PARTITIONS];
+        long totalBytes = 0;
+        boolean canSpill = level < MAX_SPILL_LEVEL;
+
+        while (source.next()) {
+            PigNullableWritable key = source.getCurrentKey();
+            NullableTuple value = source.getCurrentValue();
+            int partition = getPartition(key, level);
+            if (spills[partition] != null) {
+                spills[partition].write(key, value);
+                continue;
+            }
+
+            List<NullableTuple> values = table.get(key);
+            long size = estimateSize(value);
+            if (values == null) {
+                if (keyClass == null) {
+                    keyClass = key.getClass();
+                }
+                values = new ArrayList<NullableTuple>(1);
+                // Readers reuse the key and value objects
+                table.put(WritableUtils.clone(key, conf), values);
+                size += estimateSize(key) + ENTRY_OVERHEAD;
+            }
+            values.add(new NullableTuple(value));
+            partitionBytes[partition] += size;
+            totalBytes += size;
+
+            if (canSpill && totalBytes > memoryLimit) {
+                int largest = -1;
+                for (int i = 0; i < NUM_PARTITIONS; i++) {
+                    if (spills[i] == null && partitionBytes[i] > 0
+                            && (largest == -1 || partitionBytes[i] > partitionBytes[largest])) {
+                        largest = i;
+                    }
+                }
+                spills[largest] = spillPartition(largest, level);
+                totalBytes -= partitionBytes[largest];
+                partitionBytes[largest] = 0;
+            }
+        }
+
+        for (SpillFile spill : spills) {
+            if (spill != null) {
+                spill.closeForWrite();
+                pendingSpills.add(spill);
+            }
+        }
+        tableIterator = table.entrySet().iterator();
+    }
+
+    private SpillFile spillPartition(int partition, int level) throws IOException {
+        SpillFile spill = new SpillFile(level);
+        long numRecords = 0;
+        Iterator<Map.Entry<PigNullableWritable, List<NullableTuple>>> iter = table.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<PigNullableWritable, List<NullableTuple>> entry = iter.next();
+            if (getPartition(entry.getKey(), level) == partition) {
+                for (NullableTuple value : entry.getValue()) {
+                    spill.write(entry.getKey(), value);
+                    numRecords++;
+                }
+                iter.remove();
+            }
+        }
+        LOG.info("Spilled hash partition " + partition + " with " + numRecords
+                + " records to " + spill.file + " at level " + level);
+        return spill;
+    }
+
+    private static int getPartition(PigNullableWritable key, int level) {
+        // All the keys of this task have the same hash modulo the number of
+        // tasks. Mix in the high bits so that the low bits differ.
+        int h = key.hashCode() * (0x9E3779B9 + 2 * level);
+        h ^= (h >>> 16);
+        return (h & Integer.MAX_VALUE) % NUM_PARTITIONS;
+    }
+
+    private long estimateSize(PigNullableWritable w) {
+        if (numSampled < NUM_RECS_TO_SAMPLE) {
+            long size = SizeUtil.getPigObjMemSize(w.getValueAsPigType());
+            numSampled++;
+            sampledBytes += size;
+            return size;
+        }
+        return sampledBytes / numSampled;
+    }
+
+    private interface Source {
+        boolean next() throws IOException;
+
+        PigNullableWritable getCurrentKey() throws IOException;
+
+        NullableTuple getCurrentValue() throws IOException;
+    }
+
+    private static class ReaderSource implements Source {
+        private Iterator<KeyValueReader> readers;
+        private KeyValueReader reader;
+
+        ReaderSource(List<KeyValueReader> readers) {
+            this.readers = readers.iterator();
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            while (reader == null || !reader.next()) {
+                if (!readers.hasNext()) {
+                    return false;
+                }
+                reader = readers.next();
+            }
+            return true;
+        }
+
+        @Override
+        public PigNullableWritable getCurrentKey() throws IOException {
+            return (PigNullableWritable) reader.getCurrentKey();
+        }
+
+        @Override
+        public NullableTuple getCurrentValue() throws IOException {
+            return (NullableTuple) reader.getCurrentValue();
+        }
+    }
+
+    private class SpillFile {
+        private File file;
+        private int level;
+        private long numRecords = 0;
+        private DataOutputStream out;
+
+        SpillFile(int level) throws IOException {
+            this.level = level;
+            this.file = File.createTempFile("pig-hashgroup", ".spill");
+            this.file.deleteOnExit();
+            this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        }
+
+        void write(PigNullableWritable key, NullableTuple value) throws IOException {
+            key.write(out);
+            value.write(out);
+            numRecords++;
+        }
+
+        void closeForWrite() throws IOException {
+            out.close();
+            out = null;
+        }
+
+        Source getSource() throws IOException {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            return new Source() {
+                private long read = 0;
+                private PigNullableWritable key = ReflectionUtils.newInstance(keyClass, conf);
+                private NullableTuple value = new NullableTuple();
+
+                @Override
+                public boolean next() throws IOException {
+                    if (read == numRecords) {
+                        in.close();
+                        return false;
+                    }
+                    key.readFields(in);
+                    value.readFields(in);
+                    read++;
+                    return true;
+                }
+
+                @Override
+                public PigNullableWritable getCurrentKey() {
+                    return key;
+                }
+
+                @Override
+                public NullableTuple getCurrentValue() {
+                    return value;
+                }
+            };
+        }
+
+        void delete() {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    LOG.warn("Failed to close " + file, e);
+                }
+            }
+            if (!file.delete()) {
+                LOG.warn("Failed to delete " + file);
+            }
+        }
+    }
+}
@@ -154,6 +154,31 @@ public class ReadToEndLoader extends LoadFunc implements LoadMetadata {
         init();
     }
 
+    /**
+     * This constructor reads a single split out of the splits already computed
+     * for inputLocation, so that they are not computed again by each of several
+     * loaders reading a different split of the same input.
+     * @param wrappedLoadFunc
+     * @param conf
+     * @param inputLocation
+     * @param inpSplits
+     * @param splitIndex
+     * @param signature
+     * @throws IOException
+     */
+    public ReadToEndLoader(LoadFunc wrappedLoadFunc, Configuration conf,
+            String inputLocation, List<InputSplit> inpSplits, int splitIndex,
+            String signature) throws IOException {
+        this.udfContextSignature = signature;
+        this.wrappedLoadFunc = wrappedLoadFunc;
+        this.inputLocation = inputLocation;
+        this.inpSplits = inpSplits;
+        this.toReadSplits = new int[] {splitIndex};
+        this.conf = conf;
+        this.curSplitIndex = splitIndex;
+        init();
+    }
+
     @SuppressWarnings("unchecked")
     private void init() throws IOException {
         if (conf != null) {
@@ -173,6 +198,9 @@ public class ReadToEndLoader extends LoadFunc implements LoadMetadata {
         // the job - get a hold of the modified conf
         conf = job.getConfiguration();
         inputFormat = wrappedLoadFunc.getInputFormat();
+        if (inpSplits != null) {
+            return;
+        }
         try {
             inpSplits = inputFormat.getSplits(HadoopShims.createJobContext(conf,
                     new JobID()));
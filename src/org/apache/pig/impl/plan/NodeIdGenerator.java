@@ -78,6 +78,22 @@ public class NodeIdGenerator {
         return l.getAndIncrement();
     }
 
+    /**
+     * Makes the next IDs of the given scope for the current Thread at least
+     * the given one, so that they do not collide with IDs generated before.
+     *
+     * @param scope
+     * @param nextId
+     */
+    public void skipNodeIds(final String scope, final long nextId) {
+        Map<String, AtomicLong> map = scopeToIdMap.get();
+        AtomicLong l = map.get(scope);
+        if ( l == null )
+            map.put( scope, l = new AtomicLong() );
+        if ( l.get() < nextId )
+            l.set( nextId );
+    }
+
     /**
      * Reset the given scope IDs to 0 for the current Thread.
      * @param scope
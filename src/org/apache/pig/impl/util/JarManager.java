@@ -35,10 +35,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 
 import org.antlr.runtime.CommonTokenStream;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
@@ -60,6 +63,9 @@ public class JarManager {
 
     private static Log log = LogFactory.getLog(JarManager.class);
     private static final String PIGTEST_JAR = "pigtest.jar";
+    // Time of the entries of the jars built for the scripts, 1980-01-01
+    private static final long ENTRY_TIME = 315532800000L;
+    private static final Map<String, String> DIGESTS = new ConcurrentHashMap<String, String>();
 
     private static enum DefaultPigPackages {
 
@@ -90,56 +96,61 @@ public class JarManager {
         createPigScriptUDFJar(fos, pigContext, contents);
 
         if (!contents.isEmpty()) {
+            // The jar only depends on the contents of the script files, the
+            // jar built for the same files by previous jobs is reused and its
+            // copy in the jar cache or on the cluster can be reused too
             FileInputStream fis = null;
             String md5 = null;
             try {
                 fis = new FileInputStream(scriptUDFJarFile);
-                md5 = org.apache.commons.codec.digest.DigestUtils.md5Hex(fis);
+                md5 = DigestUtils.md5Hex(fis);
             } finally {
                 if (fis != null) {
                     fis.close();
                 }
             }
             File newScriptUDFJarFile = new File(scriptUDFJarFile.getParent(), "PigScriptUDF-" + md5 + ".jar");
-            scriptUDFJarFile.renameTo(newScriptUDFJarFile);
+            if (newScriptUDFJarFile.exists() && newScriptUDFJarFile.length() == scriptUDFJarFile.length()) {
+                scriptUDFJarFile.delete();
+            } else {
+                scriptUDFJarFile.renameTo(newScriptUDFJarFile);
+                newScriptUDFJarFile.deleteOnExit();
+            }
             return newScriptUDFJarFile;
         }
+        scriptUDFJarFile.delete();
         return null;
     }
 
     private static void createPigScriptUDFJar(OutputStream os, PigContext pigContext, HashMap<String, String> contents) throws IOException {
-        JarOutputStream jarOutputStream = new JarOutputStream(os);
+        // Entries are added by name, with a fixed time, so that the same
+        // files always give the same jar
+        Map<String, String> entries = new TreeMap<String, String>();
         for (String path: pigContext.scriptFiles) {
-            log.debug("Adding entry " + path + " to job jar" );
-            InputStream stream = null;
-            File inputFile = new File(path);
-            if (inputFile.exists()) {
-                stream = new FileInputStream(inputFile);
-            } else {
-                stream = PigContext.getClassLoader().getResourceAsStream(path);
-            }
-            if (stream==null) {
-                throw new IOException("Cannot find " + path);
-            }
-            try {
-                addStream(jarOutputStream, path, stream, contents, inputFile.lastModified());
-            } finally {
-                stream.close();
+            if (!entries.containsKey(path)) {
+                entries.put(path, path);
             }
         }
         for (Map.Entry<String, File> entry : pigContext.getScriptFiles().entrySet()) {
+            if (!entries.containsKey(entry.getKey())) {
+                entries.put(entry.getKey(), entry.getValue().getPath());
+            }
+        }
+        JarOutputStream jarOutputStream = new JarOutputStream(os);
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
             log.debug("Adding entry " + entry.getKey() + " to job jar" );
             InputStream stream = null;
-            if (entry.getValue().exists()) {
-                stream = new FileInputStream(entry.getValue());
+            File inputFile = new File(entry.getValue());
+            if (inputFile.exists()) {
+                stream = new FileInputStream(inputFile);
             } else {
-                stream = PigContext.getClassLoader().getResourceAsStream(entry.getValue().getPath());
+                stream = PigContext.getClassLoader().getResourceAsStream(entry.getValue());
             }
             if (stream==null) {
-                throw new IOException("Cannot find " + entry.getValue().getPath());
+                throw new IOException("Cannot find " + entry.getValue());
             }
             try {
-                addStream(jarOutputStream, entry.getKey(), stream, contents, entry.getValue().lastModified());
+                addStream(jarOutputStream, entry.getKey(), stream, contents, ENTRY_TIME);
             } finally {
                 stream.close();
             }
@@ -151,6 +162,32 @@ public class JarManager {
         }
     }
 
+    /**
+     * Returns the SHA-1 digest of the contents of a file. The digests are
+     * kept for the JVM while the size and the modification time of the files
+     * do not change, to avoid reading jars again for each job they are
+     * shipped with.
+     *
+     * @param file
+     *            the file
+     * @return the hex digest of the file
+     * @throws IOException
+     */
+    public static String getDigest(File file) throws IOException {
+        String key = file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+        String digest = DIGESTS.get(key);
+        if (digest == null) {
+            InputStream is = new FileInputStream(file);
+            try {
+                digest = DigestUtils.shaHex(is);
+            } finally {
+                is.close();
+            }
+            DIGESTS.put(key, digest);
+        }
+        return digest;
+    }
+
     /**
      * Creates a Classloader based on the passed jarFile and any extra jar files.
      *
@@ -19,8 +19,10 @@ package org.apache.pig.impl.util;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.commons.logging.Log;
@@ -33,6 +35,8 @@ public class UDFContext {
     private static final Log LOG = LogFactory.getLog(UDFContext.class);
     private Configuration jconf = null;
     private HashMap<UDFContextKey, Properties> udfConfs;
+    // Properties read from the job configuration, decoded on first use
+    private HashMap<UDFContextKey, byte[]> encodedConfs;
     private Properties clientSysProps;
 
     static final String CLIENT_SYS_PROPS = "pig.client.sys.props";
@@ -47,6 +51,7 @@ public class UDFContext {
 
     private UDFContext() {
         udfConfs = new HashMap<UDFContextKey, Properties>();
+        encodedConfs = new HashMap<UDFContextKey, byte[]>();
     }
 
     /**
@@ -80,6 +85,9 @@ public class UDFContext {
      *  internal pig use only - should NOT be called from user code
      */
     public HashMap<UDFContextKey, Properties> getUdfConfs() {
+        for (UDFContextKey k : new ArrayList<UDFContextKey>(encodedConfs.keySet())) {
+            udfConfs.put(k, decode(k));
+        }
         return udfConfs;
     }
 
@@ -153,7 +161,7 @@ public class UDFContext {
         UDFContextKey k = generateKey(c, args);
         Properties p = udfConfs.get(k);
         if (p == null) {
-            p = new Properties();
+            p = encodedConfs.containsKey(k) ? decode(k) : new Properties();
             udfConfs.put(k, p);
         }
         return p;
@@ -186,7 +194,7 @@ public class UDFContext {
         UDFContextKey k = generateKey(c, null);
         Properties p = udfConfs.get(k);
         if (p == null) {
-            p = new Properties();
+            p = encodedConfs.containsKey(k) ? decode(k) : new Properties();
             udfConfs.put(k, p);
         }
         return p;
@@ -203,8 +211,8 @@ public class UDFContext {
      * @throws IOException if underlying serialization throws it
      */
     public void serialize(Configuration conf) throws IOException {
-        conf.set(UDF_CONTEXT, ObjectSerializer.serialize(udfConfs));
-        conf.set(CLIENT_SYS_PROPS, ObjectSerializer.serialize(clientSysProps));
+        conf.set(UDF_CONTEXT, UDFContextSerializer.serializeUdfConfs(getUdfConfs()));
+        conf.set(CLIENT_SYS_PROPS, UDFContextSerializer.serializeProperties(clientSysProps));
     }
 
     /*
@@ -212,7 +220,7 @@ public class UDFContext {
      */
     public String serialize() {
         try {
-            return ObjectSerializer.serialize(udfConfs);
+            return UDFContextSerializer.serializeUdfConfs(getUdfConfs());
         } catch (IOException e) {
             LOG.error("UDFContext#serialize throws error ",e);
             return null;
@@ -225,18 +233,54 @@ public class UDFContext {
      * It assumes that addJobConf has already been called.
      * @throws IOException if underlying deseralization throws it
      */
-    @SuppressWarnings("unchecked")
     public void deserialize() throws IOException {
-        udfConfs = (HashMap<UDFContextKey, Properties>)ObjectSerializer.deserialize(jconf.get(UDF_CONTEXT));
-        clientSysProps = (Properties)ObjectSerializer.deserialize(
-                jconf.get(CLIENT_SYS_PROPS));
+        udfConfs = new HashMap<UDFContextKey, Properties>();
+        encodedConfs = new HashMap<UDFContextKey, byte[]>();
+        addUdfConfs(jconf.get(UDF_CONTEXT));
+        clientSysProps = deserializeProperties(jconf.get(CLIENT_SYS_PROPS));
     }
 
     public void deserializeForSpark(String udfConfsStr, String clientSysPropsStr) throws IOException {
         if( udfConfsStr!= null && clientSysPropsStr!=null) {
-            udfConfs = (HashMap<UDFContextKey, Properties>) ObjectSerializer.deserialize(udfConfsStr);
-            clientSysProps = (Properties) ObjectSerializer.deserialize(
-                    clientSysPropsStr);
+            udfConfs = new HashMap<UDFContextKey, Properties>();
+            encodedConfs = new HashMap<UDFContextKey, byte[]>();
+            addUdfConfs(udfConfsStr);
+            clientSysProps = deserializeProperties(clientSysPropsStr);
+        }
+    }
+
+    /*
+     * Internal pig use - adds the properties serialized by serialize()
+     */
+    @SuppressWarnings("unchecked")
+    public void addUdfConfs(String udfConfsStr) throws IOException {
+        if (UDFContextSerializer.isCompact(udfConfsStr)) {
+            Map<UDFContextKey, byte[]> encoded = UDFContextSerializer.deserializeUdfConfs(udfConfsStr);
+            udfConfs.keySet().removeAll(encoded.keySet());
+            encodedConfs.putAll(encoded);
+        } else {
+            // Serialized by an older version
+            HashMap<UDFContextKey, Properties> confs =
+                    (HashMap<UDFContextKey, Properties>) ObjectSerializer.deserialize(udfConfsStr);
+            if (confs != null) {
+                encodedConfs.keySet().removeAll(confs.keySet());
+                udfConfs.putAll(confs);
+            }
+        }
+    }
+
+    private static Properties deserializeProperties(String str) throws IOException {
+        if (UDFContextSerializer.isCompact(str)) {
+            return UDFContextSerializer.deserializeProperties(str);
+        }
+        return (Properties) ObjectSerializer.deserialize(str);
+    }
+
+    private Properties decode(UDFContextKey k) {
+        try {
+            return UDFContextSerializer.toProperties(encodedConfs.remove(k));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read the properties of " + k, e);
         }
     }
 
@@ -246,10 +290,11 @@ public class UDFContext {
 
     public void reset() {
         udfConfs.clear();
+        encodedConfs.clear();
     }
 
     public boolean isUDFConfEmpty() {
-        return udfConfs.isEmpty();
+        return udfConfs.isEmpty() && encodedConfs.isEmpty();
     }
 
     /**
@@ -273,6 +318,7 @@ public class UDFContext {
     	other.clientSysProps = this.clientSysProps;
     	other.jconf = this.jconf;
     	other.udfConfs = this.udfConfs;
+    	other.encodedConfs = this.encodedConfs;
     	return other;
     }
 
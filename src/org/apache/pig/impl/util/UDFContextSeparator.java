@@ -215,8 +215,8 @@ public class UDFContextSeparator extends PhyPlanVisitor {
         for (UDFContextKey key : getUnKnownKeys()) {
             udfConfsToSerialize.put(key, udfConfs.get(key));
         }
-        conf.set(UDFContext.UDF_CONTEXT, ObjectSerializer.serialize(udfConfsToSerialize));
-        conf.set(UDFContext.CLIENT_SYS_PROPS, ObjectSerializer.serialize(udfContext.getClientSystemProps()));
+        conf.set(UDFContext.UDF_CONTEXT, UDFContextSerializer.serializeUdfConfs(udfConfsToSerialize));
+        conf.set(UDFContext.CLIENT_SYS_PROPS, UDFContextSerializer.serializeProperties(udfContext.getClientSystemProps()));
     }
 
 }
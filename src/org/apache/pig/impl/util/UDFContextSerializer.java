@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.impl.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.ClassLoaderObjectInputStream;
+import org.apache.pig.impl.util.UDFContext.UDFContextKey;
+
+/**
+ * Binary format of the UDFContext shipped in job configurations, more
+ * compact than the java serialization of its HashMap and Properties.
+ * <p/>
+ * The properties of each UDF are kept as a separate block, so that tasks only
+ * decode the properties of the UDFs they use. Strings are written as UTF-8,
+ * other property values with java serialization. Strings without the format
+ * prefix are read with {@link ObjectSerializer}, as written by older versions.
+ */
+class UDFContextSerializer {
+
+    // Not a base64 character
+    static final String FORMAT_PREFIX = "udf1:";
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final byte STRING = 0;
+    private static final byte OBJECT = 1;
+
+    private UDFContextSerializer() {
+    }
+
+    static boolean isCompact(String str) {
+        return str != null && str.startsWith(FORMAT_PREFIX);
+    }
+
+    static String serializeUdfConfs(Map<UDFContextKey, Properties> udfConfs) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(baos));
+        out.writeInt(udfConfs.size());
+        for (Entry<UDFContextKey, Properties> entry : udfConfs.entrySet()) {
+            writeString(out, entry.getKey().getClassName());
+            String[] args = entry.getKey().getArgs();
+            out.writeInt(args == null ? -1 : args.length);
+            if (args != null) {
+                for (String arg : args) {
+                    writeString(out, arg);
+                }
+            }
+            byte[] block = toBytes(entry.getValue());
+            out.writeInt(block.length);
+            out.write(block);
+        }
+        out.close();
+        return FORMAT_PREFIX + ObjectSerializer.encodeBytes(baos.toByteArray());
+    }
+
+    /**
+     * @return the encoded properties of each UDF, to be decoded with
+     * {@link #toProperties(byte[])} when used
+     */
+    static Map<UDFContextKey, byte[]> deserializeUdfConfs(String str) throws IOException {
+        Map<UDFContextKey, byte[]> udfConfs = new HashMap<UDFContextKey, byte[]>();
+        DataInputStream in = open(str);
+        try {
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                String className = readString(in);
+                int argc = in.readInt();
+                String[] args = null;
+                if (argc >= 0) {
+                    args = new String[argc];
+                    for (int j = 0; j < argc; j++) {
+                        args[j] = readString(in);
+                    }
+                }
+                byte[] block = new byte[in.readInt()];
+                in.readFully(block);
+                udfConfs.put(new UDFContextKey(className, args), block);
+            }
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+        return udfConfs;
+    }
+
+    static String serializeProperties(Properties props) throws IOException {
+        if (props == null) {
+            return "";
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DeflaterOutputStream out = new DeflaterOutputStream(baos);
+        out.write(toBytes(props));
+        out.close();
+        return FORMAT_PREFIX + ObjectSerializer.encodeBytes(baos.toByteArray());
+    }
+
+    static Properties deserializeProperties(String str) throws IOException {
+        DataInputStream in = open(str);
+        try {
+            return readProperties(in);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    static Properties toProperties(byte[] block) throws IOException {
+        return readProperties(new DataInputStream(new ByteArrayInputStream(block)));
+    }
+
+    private static DataInputStream open(String str) throws IOException {
+        byte[] bytes = ObjectSerializer.decodeBytes(str.substring(FORMAT_PREFIX.length()));
+        return new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    private static byte[] toBytes(Properties props) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        // Properties is synchronized, entries are copied under its lock
+        Map<Object, Object> entries = new HashMap<Object, Object>(props);
+        out.writeInt(entries.size());
+        for (Entry<Object, Object> entry : entries.entrySet()) {
+            writeObject(out, entry.getKey());
+            writeObject(out, entry.getValue());
+        }
+        out.close();
+        return baos.toByteArray();
+    }
+
+    private static Properties readProperties(DataInputStream in) throws IOException {
+        Properties props = new Properties();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            Object key = readObject(in);
+            props.put(key, readObject(in));
+        }
+        return props;
+    }
+
+    private static void writeObject(DataOutputStream out, Object obj) throws IOException {
+        if (obj instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) obj);
+        } else {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ObjectOutputStream oos = new ObjectOutputStream(baos);
+            oos.writeObject((Serializable) obj);
+            oos.close();
+            out.writeByte(OBJECT);
+            out.writeInt(baos.size());
+            baos.writeTo(out);
+        }
+    }
+
+    private static Object readObject(DataInputStream in) throws IOException {
+        if (in.readByte() == STRING) {
+            return readString(in);
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        ObjectInputStream ois = new ClassLoaderObjectInputStream(Thread.currentThread().getContextClassLoader(),
+                new ByteArrayInputStream(bytes));
+        try {
+            return ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Deserialization error: " + e.getMessage(), e);
+        } finally {
+            ois.close();
+        }
+    }
+
+    // DataOutput.writeUTF is limited to 64KB, serialized schemas can be larger
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = str.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+}
@@ -572,6 +572,25 @@ public class Utils {
                 || conf.getBoolean(PigImplConstants.CONVERTED_TO_LOCAL, false);
     }
 
+    /**
+     * Returns the number of tasks to run concurrently in local mode
+     * @see PigConfiguration#PIG_LOCAL_PARALLELISM
+     */
+    public static int getLocalParallelism(Properties properties) {
+        int parallelism = Integer.parseInt(properties.getProperty(PigConfiguration.PIG_LOCAL_PARALLELISM, "1"));
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Lets the MapReduce local job runner run as many map and reduce tasks at
+     * the same time as configured by {@link PigConfiguration#PIG_LOCAL_PARALLELISM}
+     */
+    public static void setLocalJobRunnerParallelism(Properties properties, Configuration conf) {
+        String parallelism = Integer.toString(getLocalParallelism(properties));
+        conf.setIfUnset(MRConfiguration.LOCAL_MAP_TASKS_MAXIMUM, parallelism);
+        conf.setIfUnset(MRConfiguration.LOCAL_REDUCE_TASKS_MAXIMUM, parallelism);
+    }
+
     // PIG-3929 use parameter substitution for pig properties similar to Hadoop Configuration
     // Following code has been borrowed from Hadoop's Configuration#substituteVars
     private static Pattern varPat = Pattern.compile("\\$\\{[^\\}\\$\u0020]+\\}");
@@ -24,6 +24,7 @@ import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.pig.PigConfiguration;
 import org.apache.pig.impl.PigContext;
 import org.apache.pig.newplan.OperatorPlan;
 import org.apache.pig.newplan.logical.rules.AddForEach;
@@ -32,6 +33,7 @@ import org.apache.pig.newplan.logical.rules.FilterAboveForeach;
 import org.apache.pig.newplan.logical.rules.FilterConstantCalculator;
 import org.apache.pig.newplan.logical.rules.ForEachConstantCalculator;
 import org.apache.pig.newplan.logical.rules.GroupByConstParallelSetter;
+import org.apache.pig.newplan.logical.rules.JoinInputOrderSetter;
 import org.apache.pig.newplan.logical.rules.LimitOptimizer;
 import org.apache.pig.newplan.logical.rules.LoadTypeCastInserter;
 import org.apache.pig.newplan.logical.rules.MergeFilter;
@@ -217,6 +219,18 @@ public class LogicalPlanOptimizer extends PlanOptimizer {
         if (!s.isEmpty())
             ls.add(s);
 
+        // Join input order set
+        // This set of rules uses the statistics of the inputs to choose
+        // which input of a join is streamed
+        if (pc != null && Boolean.parseBoolean(pc.getProperties().getProperty(
+                PigConfiguration.PIG_OPT_JOIN_ORDER, "false"))) {
+            s = new HashSet<Rule>();
+            r = new JoinInputOrderSetter("JoinInputOrderSetter", pc);
+            checkAndAddRule(s, r);
+            if (!s.isEmpty())
+                ls.add(s);
+        }
+
         return ls;
     }
 
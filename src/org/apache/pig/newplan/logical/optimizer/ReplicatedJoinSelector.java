@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.newplan.logical.optimizer;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.impl.logicalLayer.FrontendException;
+import org.apache.pig.newplan.DependencyOrderWalker;
+import org.apache.pig.newplan.Operator;
+import org.apache.pig.newplan.logical.relational.LOFilter;
+import org.apache.pig.newplan.logical.relational.LOForEach;
+import org.apache.pig.newplan.logical.relational.LOJoin;
+import org.apache.pig.newplan.logical.relational.LOSplit;
+import org.apache.pig.newplan.logical.relational.LOSplitOutput;
+import org.apache.pig.newplan.logical.relational.LogicalPlan;
+import org.apache.pig.newplan.logical.relational.LogicalRelationalNodesVisitor;
+import org.apache.pig.newplan.logical.relational.LogicalRelationalOperator;
+
+/**
+ * Chooses between a shuffled hash join and a fragment-replicated join based
+ * on the size of the inputs as they are when the script is compiled, instead
+ * of relying on the <code>using 'replicated'</code> clause. Only joins left at
+ * the default strategy are considered.
+ * <p>
+ * Replicated joins whose fragment input flows from another replicated join
+ * run in the same task and probe their in-memory tables one after the other.
+ * A chain of joins of a large relation with several smaller ones on different
+ * keys therefore needs no shuffle at all, or just the one of the join that
+ * produces the large relation. The replicated inputs of such a chain share a
+ * single budget of {@link PigConfiguration#PIG_AUTO_REPLICATED_JOIN_MAX_BYTES}
+ * as they are all held in memory at the same time.
+ */
+public class ReplicatedJoinSelector extends LogicalRelationalNodesVisitor {
+    private static final Log LOG = LogFactory.getLog(ReplicatedJoinSelector.class);
+
+    private StatisticsEstimator estimator;
+    private long maxReplicatedBytes;
+    private String maxReplicatedBytesKey;
+    // Bytes held in memory by the replicated joins of the task producing the
+    // output of a join
+    private Map<Operator, Long> replicatedBytes = new HashMap<Operator, Long>();
+
+    public ReplicatedJoinSelector(LogicalPlan plan, Configuration conf) throws FrontendException {
+        this(plan, conf, conf.getLong(PigConfiguration.PIG_AUTO_REPLICATED_JOIN_MAX_BYTES,
+                PigConfiguration.PIG_AUTO_REPLICATED_JOIN_MAX_BYTES_DEFAULT),
+                PigConfiguration.PIG_AUTO_REPLICATED_JOIN_MAX_BYTES);
+    }
+
+    protected ReplicatedJoinSelector(LogicalPlan plan, Configuration conf, long maxReplicatedBytes,
+            String maxReplicatedBytesKey) throws FrontendException {
+        super(plan, new DependencyOrderWalker(plan));
+        this.estimator = new StatisticsEstimator(plan, conf);
+        this.maxReplicatedBytes = maxReplicatedBytes;
+        this.maxReplicatedBytesKey = maxReplicatedBytesKey;
+    }
+
+    @Override
+    public void visit(LOJoin join) throws FrontendException {
+        List<Operator> inputs = plan.getPredecessors(join);
+        if (inputs == null || inputs.size() < 2) {
+            return;
+        }
+        long upstreamBytes = getUpstreamReplicatedBytes(inputs.get(0));
+        if (join.getJoinType() == LOJoin.JOINTYPE.REPLICATED) {
+            long size = getReplicatedSize(inputs, Long.MAX_VALUE);
+            // Leave no room for other joins if the size is unknown
+            replicatedBytes.put(join, size < 0 ? maxReplicatedBytes : upstreamBytes + size);
+            return;
+        }
+        if (join.getJoinType() != LOJoin.JOINTYPE.HASH || join.getCustomPartitioner() != null
+                || !canReplicate(join, inputs)) {
+            return;
+        }
+
+        long size = getReplicatedSize(inputs, maxReplicatedBytes - upstreamBytes);
+        if (size < 0 || upstreamBytes + size > maxReplicatedBytes) {
+            return;
+        }
+
+        LOG.info("Using replicated join for " + join.getAlias() + " as the size of the replicated inputs ("
+                + size + " bytes) and of the replicated joins it runs with (" + upstreamBytes
+                + " bytes) is within " + maxReplicatedBytesKey + " (" + maxReplicatedBytes + " bytes)");
+        join.setJoinType(LOJoin.JOINTYPE.REPLICATED);
+        replicatedBytes.put(join, upstreamBytes + size);
+    }
+
+    /**
+     * @return total size of all inputs but the first one, or -1 if unknown or
+     *         above max
+     */
+    private long getReplicatedSize(List<Operator> inputs, long max) throws FrontendException {
+        long size = 0;
+        for (int i = 1; i < inputs.size(); i++) {
+            long inputSize = estimator.getSizeInBytes(inputs.get(i), max - size);
+            if (inputSize < 0) {
+                return -1;
+            }
+            size += inputSize;
+            if (size > max) {
+                return -1;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Walk up from the fragment input of a join through the operators that
+     * run in the same task to find the replicated join feeding it, if any.
+     */
+    private long getUpstreamReplicatedBytes(Operator op) {
+        while (true) {
+            if (replicatedBytes.containsKey(op)) {
+                return replicatedBytes.get(op);
+            }
+            if (!(op instanceof LOFilter || op instanceof LOForEach || op instanceof LOSplit
+                    || op instanceof LOSplitOutput)) {
+                return 0;
+            }
+            op = plan.getPredecessors(op).get(0);
+        }
+    }
+
+    /**
+     * Fragment-replicated join only handles inner joins and two-way left
+     * outer joins whose right input has a schema
+     */
+    private boolean canReplicate(LOJoin join, List<Operator> inputs) throws FrontendException {
+        boolean[] innerFlags = join.getInnerFlags();
+        if (!innerFlags[0]) {
+            return false;
+        }
+        for (int i = 1; i < innerFlags.length; i++) {
+            if (!innerFlags[i]) {
+                return inputs.size() == 2
+                        && ((LogicalRelationalOperator) inputs.get(1)).getSchema() != null;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.newplan.logical.optimizer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.pig.LoadFunc;
+import org.apache.pig.LoadMetadata;
+import org.apache.pig.ResourceStatistics;
+import org.apache.pig.backend.hadoop.executionengine.util.MapRedUtil;
+import org.apache.pig.impl.logicalLayer.FrontendException;
+import org.apache.pig.impl.util.UriUtil;
+import org.apache.pig.newplan.Operator;
+import org.apache.pig.newplan.OperatorPlan;
+import org.apache.pig.newplan.logical.relational.LODistinct;
+import org.apache.pig.newplan.logical.relational.LOFilter;
+import org.apache.pig.newplan.logical.relational.LOForEach;
+import org.apache.pig.newplan.logical.relational.LOLimit;
+import org.apache.pig.newplan.logical.relational.LOLoad;
+import org.apache.pig.newplan.logical.relational.LOSort;
+import org.apache.pig.newplan.logical.relational.LOSplit;
+import org.apache.pig.newplan.logical.relational.LOSplitOutput;
+import org.apache.pig.newplan.logical.relational.LOUnion;
+import org.apache.pig.newplan.logical.rules.OptimizerUtils;
+import org.apache.pig.tools.pigstats.StatisticsStore;
+import org.apache.pig.tools.pigstats.StatisticsStoreUtil;
+
+/**
+ * Estimates the amount of data flowing out of the operators of a logical plan
+ * from the statistics of the loads they read from. The statistics reported by
+ * {@link LoadMetadata#getStatistics} are used when available, then the size of
+ * the input files and then what was recorded for the same location by previous
+ * runs in the {@link StatisticsStore}. Estimates are only propagated through operators
+ * that cannot grow their input, so they are upper bounds.
+ */
+public class StatisticsEstimator {
+    private static final Log LOG = LogFactory.getLog(StatisticsEstimator.class);
+
+    private OperatorPlan plan;
+    private Configuration conf;
+    private Map<LOLoad, ResourceStatistics> loadStatistics = new HashMap<LOLoad, ResourceStatistics>();
+    private Map<LOLoad, ResourceStatistics> recordedStatistics = new HashMap<LOLoad, ResourceStatistics>();
+    private Map<LOLoad, Long> loadSizes = new HashMap<LOLoad, Long>();
+
+    public StatisticsEstimator(OperatorPlan plan, Configuration conf) {
+        this.plan = plan;
+        this.conf = conf;
+    }
+
+    /**
+     * Estimate the size of the data flowing out of op.
+     *
+     * @param op Operator whose output size is to be estimated
+     * @param max Size above which the exact value is of no interest
+     * @return size in bytes or -1 if it cannot be determined
+     */
+    public long getSizeInBytes(Operator op, long max) throws FrontendException {
+        if (op instanceof LOLoad) {
+            return getLoadSize((LOLoad) op, max);
+        }
+        if (!canPropagate(op)) {
+            return -1;
+        }
+        List<Operator> preds = plan.getPredecessors(op);
+        if (preds == null) {
+            return -1;
+        }
+        long total = 0;
+        for (Operator pred : preds) {
+            long size = getSizeInBytes(pred, max - total);
+            if (size < 0) {
+                return -1;
+            }
+            total += size;
+            if (total > max) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Estimate the number of records flowing out of op.
+     *
+     * @param op Operator whose number of records is to be estimated
+     * @return number of records or -1 if it cannot be determined
+     */
+    public long getNumRecords(Operator op) throws FrontendException {
+        if (op instanceof LOLoad) {
+            ResourceStatistics statistics = getStatistics((LOLoad) op);
+            if (statistics == null || statistics.getNumRecords() == null) {
+                statistics = getRecordedStatistics((LOLoad) op);
+            }
+            if (statistics == null || statistics.getNumRecords() == null) {
+                return -1;
+            }
+            return statistics.getNumRecords();
+        }
+        if (!canPropagate(op)) {
+            return -1;
+        }
+        long limit = -1;
+        if (op instanceof LOLimit && ((LOLimit) op).getLimitPlan() == null) {
+            limit = ((LOLimit) op).getLimit();
+        }
+        List<Operator> preds = plan.getPredecessors(op);
+        if (preds == null) {
+            return limit;
+        }
+        long total = 0;
+        for (Operator pred : preds) {
+            long records = getNumRecords(pred);
+            if (records < 0) {
+                return limit;
+            }
+            total += records;
+        }
+        return limit >= 0 ? Math.min(limit, total) : total;
+    }
+
+    private boolean canPropagate(Operator op) throws FrontendException {
+        if (op instanceof LOForEach) {
+            return !OptimizerUtils.hasFlatten((LOForEach) op);
+        }
+        return op instanceof LOFilter || op instanceof LOLimit || op instanceof LODistinct
+                || op instanceof LOSort || op instanceof LOSplit || op instanceof LOSplitOutput
+                || op instanceof LOUnion;
+    }
+
+    private ResourceStatistics getStatistics(LOLoad load) throws FrontendException {
+        if (loadStatistics.containsKey(load)) {
+            return loadStatistics.get(load);
+        }
+        ResourceStatistics statistics = null;
+        LoadFunc loadFunc = load.getLoadFunc();
+        if (loadFunc instanceof LoadMetadata && plan.getPredecessors(load) == null
+                && load.getFileSpec() != null && load.getFileSpec().getFileName() != null) {
+            try {
+                statistics = ((LoadMetadata) loadFunc).getStatistics(
+                        load.getFileSpec().getFileName(), new Job(load.getConfiguration()));
+            } catch (IOException e) {
+                LOG.warn("Unable to get statistics of " + load.getFileSpec().getFileName(), e);
+            }
+        }
+        loadStatistics.put(load, statistics);
+        return statistics;
+    }
+
+    /**
+     * @return statistics recorded in the {@link StatisticsStore} by previous
+     *         runs for the location of the load, or null
+     */
+    private ResourceStatistics getRecordedStatistics(LOLoad load) {
+        if (recordedStatistics.containsKey(load)) {
+            return recordedStatistics.get(load);
+        }
+        ResourceStatistics statistics = null;
+        if (load.getFileSpec() != null) {
+            statistics = StatisticsStoreUtil.getStatistics(load.getFileSpec().getFileName(), conf);
+        }
+        recordedStatistics.put(load, statistics);
+        return statistics;
+    }
+
+    private long getLoadSize(LOLoad load, long max) throws FrontendException {
+        Long cached = loadSizes.get(load);
+        if (cached != null && (cached < 0 || cached <= max)) {
+            return cached;
+        }
+        long size = computeLoadSize(load, max);
+        // Sizes above max are not exact and cannot be reused
+        if (size <= max) {
+            loadSizes.put(load, size);
+        }
+        return size;
+    }
+
+    private long computeLoadSize(LOLoad load, long max) throws FrontendException {
+        if (load.getFileSpec() == null || load.getFileSpec().getFileName() == null) {
+            return -1;
+        }
+        ResourceStatistics statistics = getStatistics(load);
+        if (statistics != null && statistics.getSizeInBytes() != null) {
+            return statistics.getSizeInBytes();
+        }
+        long size = getFileSize(load, max);
+        if (size < 0) {
+            statistics = getRecordedStatistics(load);
+            if (statistics != null && statistics.getSizeInBytes() != null) {
+                return statistics.getSizeInBytes();
+            }
+        }
+        return size;
+    }
+
+    private long getFileSize(LOLoad load, long max) {
+        // A load with predecessors reads the output of a store in the same
+        // script which does not exist yet
+        if (plan.getPredecessors(load) != null) {
+            return -1;
+        }
+        String fileName = load.getFileSpec().getFileName();
+        try {
+            long size = 0;
+            for (String location : LoadFunc.getPathStrings(fileName)) {
+                if (!UriUtil.isHDFSFileOrLocalOrS3N(location, conf)) {
+                    return -1;
+                }
+                Path path = new Path(location);
+                FileSystem fs = path.getFileSystem(conf);
+                FileStatus[] status = fs.globStatus(path);
+                if (status == null) {
+                    return -1;
+                }
+                for (FileStatus s : status) {
+                    size += MapRedUtil.getPathLength(fs, s, max);
+                    if (size > max) {
+                        return size;
+                    }
+                }
+            }
+            return size;
+        } catch (IOException e) {
+            LOG.warn("Unable to determine size of " + fileName, e);
+            return -1;
+        }
+    }
+}
@@ -58,6 +58,8 @@ public class LOJoin extends LogicalRelationalOperator {
     // indicator for each input whether it is inner
     private boolean[] mInnerFlags;
     private JOINTYPE mJoinType; // Retains the type of the join
+    // input streamed through a hash join, -1 for the last one
+    private int mStreamedInput = -1;
 
     /**
      * static constant to refer to the option of selecting a join type
@@ -102,6 +104,19 @@ public class LOJoin extends LogicalRelationalOperator {
         return mJoinType;
     }
 
+    /**
+     * The records of all the inputs of a hash join but one are held in memory
+     * for each key while the records of the remaining input are streamed.
+     * @return index of the streamed input, or -1 if it is the last one
+     */
+    public int getStreamedInput() {
+        return mStreamedInput;
+    }
+
+    public void setStreamedInput(int inputIndex) {
+        this.mStreamedInput = inputIndex;
+    }
+
     public void resetJoinType() {
         mJoinType = JOINTYPE.HASH;
     }
@@ -23,6 +23,7 @@ import java.util.List;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapreduce.Job;
+import org.apache.pig.Expression;
 import org.apache.pig.LoadFunc;
 import org.apache.pig.LoadMetadata;
 import org.apache.pig.PigException;
@@ -52,6 +53,8 @@ public class LOLoad extends LogicalRelationalOperator {
     private final String signature;
     private long limit = -1;
     private boolean isTmpLoad;
+    private Expression pushdownPredicate;
+    private String runtimeFilterColumn;
 
     /**
      * used for pattern matching
@@ -119,6 +122,10 @@ public class LOLoad extends LogicalRelationalOperator {
     public void setRequiredFields(List<Integer> requiredFields) {
         this.requiredFields = requiredFields;
     }
+
+    public List<Integer> getRequiredFields() {
+        return requiredFields;
+    }
     
     /**
      * Get the schema for this load.  The schema will be either be what was
@@ -305,4 +312,28 @@ public class LOLoad extends LogicalRelationalOperator {
         this.limit = limit;
     }
 
+    /**
+     * @return the predicate pushed down to the loader by the optimizer, or
+     * null if none was pushed down
+     */
+    public Expression getPushdownPredicate() {
+        return pushdownPredicate;
+    }
+
+    public void setPushdownPredicate(Expression pushdownPredicate) {
+        this.pushdownPredicate = pushdownPredicate;
+    }
+
+    /**
+     * @return name of the column, as known to the loader, on which a filter
+     * built at runtime can be pushed down, or null if there is none
+     */
+    public String getRuntimeFilterColumn() {
+        return runtimeFilterColumn;
+    }
+
+    public void setRuntimeFilterColumn(String runtimeFilterColumn) {
+        this.runtimeFilterColumn = runtimeFilterColumn;
+    }
+
 }
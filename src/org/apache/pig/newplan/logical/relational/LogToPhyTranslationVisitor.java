@@ -143,6 +143,8 @@ public class LogToPhyTranslationVisitor extends LogicalRelationalNodesVisitor {
         load.setSignature(loLoad.getSignature());
         load.setLimit(loLoad.getLimit());
         load.setIsTmpLoad(loLoad.isTmpLoad());
+        load.setPushdownPredicate(loLoad.getPushdownPredicate());
+        load.setRuntimeFilterColumn(loLoad.getRuntimeFilterColumn());
         load.setCacheFiles(loLoad.getLoadFunc().getCacheFiles());
         load.setShipFiles(loLoad.getLoadFunc().getShipFiles());
 
@@ -1403,7 +1405,7 @@ public class LogToPhyTranslationVisitor extends LogicalRelationalNodesVisitor {
             if(!usePOMergeJoin){
                 // Now create and configure foreach which will flatten the output
                 // of cogroup.
-                POForEach fe = compileFE4Flattening(innerFlags,  scope, parallel, alias, location, inputs);
+                POForEach fe = compileFE4Flattening(innerFlags, null, scope, parallel, alias, location, inputs);
                 currentPlan.add(fe);
                 try {
                     currentPlan.connect(smj, fe);
@@ -1416,8 +1418,23 @@ public class LogToPhyTranslationVisitor extends LogicalRelationalNodesVisitor {
             return;
         }
         else if (loj.getJoinType() == LOJoin.JOINTYPE.HASH || loj.getJoinType() == LOJoin.JOINTYPE.BLOOM){
-            POPackage poPackage = compileToLR_GR_PackTrio(loj, loj.getCustomPartitioner(), innerFlags, loj.getExpressionPlans());
-            POForEach fe = compileFE4Flattening(innerFlags,  scope, parallel, alias, location, inputs);
+            // The package streams the input with the highest index and
+            // materializes the others, so the one picked by the optimizer
+            // goes last
+            int[] indexes = null;
+            if (loj.getJoinType() == LOJoin.JOINTYPE.HASH && loj.getStreamedInput() != -1) {
+                indexes = new int[inputs.size()];
+                for (int i = 0; i < indexes.length; i++) {
+                    if (i == loj.getStreamedInput()) {
+                        indexes[i] = indexes.length - 1;
+                    } else {
+                        indexes[i] = i < loj.getStreamedInput() ? i : i - 1;
+                    }
+                }
+            }
+            POPackage poPackage = compileToLR_GR_PackTrio(loj, loj.getCustomPartitioner(), innerFlags,
+                    loj.getExpressionPlans(), indexes);
+            POForEach fe = compileFE4Flattening(innerFlags, indexes, scope, parallel, alias, location, inputs);
             currentPlan.add(fe);
             try {
                 currentPlan.connect(poPackage, fe);
@@ -1446,6 +1463,16 @@ public class LogToPhyTranslationVisitor extends LogicalRelationalNodesVisitor {
 
     private POPackage compileToLR_GR_PackTrio(LogicalRelationalOperator relationalOp, String customPartitioner,
             boolean[] innerFlags, MultiMap<Integer, LogicalExpressionPlan> innerPlans) throws FrontendException {
+        return compileToLR_GR_PackTrio(relationalOp, customPartitioner, innerFlags, innerPlans, null);
+    }
+
+    /**
+     * @param indexes index of the local rearrange for each input, or null to
+     *            number them in the order of the inputs
+     */
+    private POPackage compileToLR_GR_PackTrio(LogicalRelationalOperator relationalOp, String customPartitioner,
+            boolean[] innerFlags, MultiMap<Integer, LogicalExpressionPlan> innerPlans, int[] indexes)
+                    throws FrontendException {
 
         POGlobalRearrange poGlobal = new POGlobalRearrange(new OperatorKey(
                 DEFAULT_SCOPE, nodeGen.getNextNodeId(DEFAULT_SCOPE)), relationalOp.getRequestedParallelism());
@@ -1483,7 +1510,8 @@ public class LogToPhyTranslationVisitor extends LogicalRelationalNodesVisitor {
                 throw new LogicalToPhysicalTranslatorException(msg, errCode, PigException.BUG, pe);
             }
             try {
-                physOp.setIndex(count++);
+                physOp.setIndex(indexes == null ? count : indexes[i]);
+                count++;
             } catch (ExecException e1) {
                 int errCode = 2058;
                 String msg = "Unable to set index on newly create POLocalRearrange.";
@@ -1513,11 +1541,18 @@ public class LogToPhyTranslationVisitor extends LogicalRelationalNodesVisitor {
         poPackage.getPkgr().setKeyType(type);
         poPackage.setResultType(DataType.TUPLE);
         poPackage.setNumInps(count);
+        if (indexes != null) {
+            boolean[] packageInnerFlags = new boolean[innerFlags.length];
+            for (int i = 0; i < innerFlags.length; i++) {
+                packageInnerFlags[indexes[i]] = innerFlags[i];
+            }
+            innerFlags = packageInnerFlags;
+        }
         poPackage.getPkgr().setInner(innerFlags);
         return poPackage;
     }
 
-    private POForEach compileFE4Flattening(boolean[] innerFlags,String scope,
+    private POForEach compileFE4Flattening(boolean[] innerFlags, int[] indexes, String scope,
             int parallel, String alias, SourceLocation location, List<Operator> inputs)
                 throws FrontendException {
 
@@ -1528,7 +1563,7 @@ public class LogToPhyTranslationVisitor extends LogicalRelationalNodesVisitor {
             for(int i=0;i< inputs.size();i++){
                 PhysicalPlan fep1 = new PhysicalPlan();
                 POProject feproj1 = new POProject(new OperatorKey(scope, nodeGen.getNextNodeId(scope)),
-                        parallel, i+1); //i+1 since the first column is the "group" field
+                        parallel, (indexes == null ? i : indexes[i]) + 1); //+1 since the first column is the "group" field
                 feproj1.addOriginalLocation(alias, location);
                 feproj1.setResultType(DataType.BAG);
                 feproj1.setOverloaded(false);
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.newplan.logical.rules;
+
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.pig.backend.hadoop.datastorage.ConfigurationUtil;
+import org.apache.pig.impl.PigContext;
+import org.apache.pig.impl.logicalLayer.FrontendException;
+import org.apache.pig.newplan.Operator;
+import org.apache.pig.newplan.OperatorPlan;
+import org.apache.pig.newplan.logical.optimizer.StatisticsEstimator;
+import org.apache.pig.newplan.logical.relational.LOJoin;
+import org.apache.pig.newplan.logical.relational.LogicalPlan;
+import org.apache.pig.newplan.optimizer.Rule;
+import org.apache.pig.newplan.optimizer.Transformer;
+
+/**
+ * Rule: For a hash join, the records of every input but the last one are
+ * held in memory for each key while the records of the last one are streamed.
+ * Pick the input with the largest estimated size as the streamed one, so that
+ * users do not have to order the inputs themselves. The order of the fields
+ * in the output of the join is not changed.
+ */
+public class JoinInputOrderSetter extends Rule {
+    private static final Log LOG = LogFactory.getLog(JoinInputOrderSetter.class);
+
+    private PigContext pc;
+
+    public JoinInputOrderSetter(String n, PigContext pc) {
+        super(n, false);
+        this.pc = pc;
+    }
+
+    @Override
+    public Transformer getNewTransformer() {
+        return new JoinInputOrderTransformer();
+    }
+
+    public class JoinInputOrderTransformer extends Transformer {
+        private int streamedInput = -1;
+
+        @Override
+        public boolean check(OperatorPlan matched) throws FrontendException {
+            LOJoin join = (LOJoin)matched.getSources().get(0);
+            if (join.getJoinType() != LOJoin.JOINTYPE.HASH || join.getStreamedInput() != -1) {
+                return false;
+            }
+            List<Operator> inputs = currentPlan.getPredecessors(join);
+            if (inputs == null || inputs.size() < 2) {
+                return false;
+            }
+
+            StatisticsEstimator estimator = new StatisticsEstimator(currentPlan,
+                    ConfigurationUtil.toConfiguration(pc.getProperties(), false));
+            long[] sizes = new long[inputs.size()];
+            for (int i = 0; i < inputs.size(); i++) {
+                sizes[i] = estimator.getSizeInBytes(inputs.get(i), Long.MAX_VALUE);
+                if (sizes[i] < 0) {
+                    return false;
+                }
+            }
+            int last = inputs.size() - 1;
+            streamedInput = last;
+            for (int i = 0; i < last; i++) {
+                // Only the records of an inner input can be streamed
+                if (join.isInner(i) && sizes[i] > sizes[streamedInput]) {
+                    streamedInput = i;
+                }
+            }
+            return streamedInput != last && join.isInner(streamedInput);
+        }
+
+        @Override
+        public void transform(OperatorPlan matched) throws FrontendException {
+            LOJoin join = (LOJoin)matched.getSources().get(0);
+            LOG.info("Streaming input " + streamedInput + " of join " + join.getAlias()
+                    + " as it has the largest estimated size");
+            join.setStreamedInput(streamedInput);
+        }
+
+        @Override
+        public OperatorPlan reportChanges() {
+            // Only the physical plan changes
+            return null;
+        }
+    }
+
+    @Override
+    protected OperatorPlan buildPattern() {
+        LogicalPlan plan = new LogicalPlan();
+        LOJoin op = new LOJoin(plan);
+        plan.add(op);
+        return plan;
+    }
+}
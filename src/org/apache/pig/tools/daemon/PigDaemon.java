@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.tools.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.UUID;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.pig.PigRunner;
+
+/**
+ * Keeps a JVM running pig commands, so that they do not pay for starting a
+ * JVM, loading and compiling the classes of pig and hadoop and creating
+ * FileSystem instances or Tez sessions each time.
+ * <p/>
+ * Started with <code>pig -daemon</code>, it listens on the loopback interface
+ * and writes its port and a random token to a file only readable by its
+ * user, by default ~/.pig_daemon. Pig commands started with
+ * -Dpig.use.daemon=true send the arguments of scripts to it with
+ * {@link PigDaemonClient} and print what the daemon sends back. Scripts are
+ * run one at a time, with the properties and the classpath of the daemon,
+ * and only for clients started from the directory the daemon was started
+ * from, as relative paths are resolved against it.
+ */
+public class PigDaemon {
+    private static final Log LOG = LogFactory.getLog(PigDaemon.class);
+
+    public static final String DAEMON_OPTION = "-daemon";
+    public static final String USE_DAEMON = "pig.use.daemon";
+    public static final String DAEMON_FILE = "pig.daemon.file";
+
+    static final byte EXIT = 0;
+    static final byte STDOUT = 1;
+    static final byte STDERR = 2;
+    static final byte REJECTED = 3;
+
+    // System.out and System.err are redirected for one script at a time
+    private static final Object LOCK = new Object();
+
+    private final ServerSocket server;
+    private final String token;
+    private final File file;
+    private final String cwd;
+
+    public PigDaemon(File file) throws IOException {
+        this.server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.token = UUID.randomUUID().toString();
+        this.file = file;
+        this.cwd = new File(System.getProperty("user.dir")).getCanonicalPath();
+    }
+
+    /**
+     * @return the file a daemon writes its port and token to
+     */
+    public static File getDaemonFile() {
+        String location = System.getProperty(DAEMON_FILE);
+        if (location == null) {
+            location = System.getProperty("user.home") + File.separator + ".pig_daemon";
+        }
+        return new File(location);
+    }
+
+    /**
+     * Runs a daemon until the JVM is stopped.
+     * @return the exit code of the daemon
+     */
+    public static int run() {
+        try {
+            new PigDaemon(getDaemonFile()).serve();
+            return 0;
+        } catch (IOException e) {
+            LOG.error("Unable to run the pig daemon", e);
+            return 1;
+        }
+    }
+
+    /**
+     * Accepts connections until the daemon is closed.
+     */
+    public void serve() throws IOException {
+        FileUtils.deleteQuietly(file);
+        file.createNewFile();
+        file.setReadable(false, false);
+        file.setWritable(false, false);
+        file.setReadable(true, true);
+        file.setWritable(true, true);
+        FileUtils.writeStringToFile(file, server.getLocalPort() + " " + token, "UTF-8");
+        file.deleteOnExit();
+        LOG.info("Pig daemon listening on port " + server.getLocalPort() + " for commands started from " + cwd);
+
+        try {
+            while (!server.isClosed()) {
+                final Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (IOException e) {
+                    if (server.isClosed()) {
+                        break;
+                    }
+                    throw e;
+                }
+                // A new thread for each script, thread locals such as the
+                // UDFContext are not shared between scripts
+                Thread thread = new Thread("pig-daemon-" + socket.getPort()) {
+                    @Override
+                    public void run() {
+                        handle(socket);
+                    }
+                };
+                thread.setDaemon(true);
+                thread.start();
+            }
+        } finally {
+            FileUtils.deleteQuietly(file);
+        }
+    }
+
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private void handle(Socket socket) {
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            String requestToken = in.readUTF();
+            String requestCwd = in.readUTF();
+            String[] args = new String[in.readInt()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = in.readUTF();
+            }
+
+            if (!token.equals(requestToken)) {
+                reject(out, "invalid token");
+                return;
+            }
+            if (!cwd.equals(new File(requestCwd).getCanonicalPath())) {
+                reject(out, "the daemon runs scripts from " + cwd);
+                return;
+            }
+
+            int rc;
+            synchronized (LOCK) {
+                PrintStream stdout = System.out;
+                PrintStream stderr = System.err;
+                InputStream stdin = System.in;
+                PrintStream frameOut = new PrintStream(new FrameOutputStream(out, STDOUT), true);
+                PrintStream frameErr = new PrintStream(new FrameOutputStream(out, STDERR), true);
+                try {
+                    System.setOut(frameOut);
+                    System.setErr(frameErr);
+                    System.setIn(new ByteArrayInputStream(new byte[0]));
+                    rc = PigRunner.run(args, null).getReturnCode();
+                } finally {
+                    frameOut.flush();
+                    frameErr.flush();
+                    System.setOut(stdout);
+                    System.setErr(stderr);
+                    System.setIn(stdin);
+                }
+            }
+            synchronized (out) {
+                out.writeByte(EXIT);
+                out.writeInt(rc);
+                out.flush();
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to run the command of a pig client", e);
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+    }
+
+    private static void reject(DataOutputStream out, String message) throws IOException {
+        out.writeByte(REJECTED);
+        out.writeUTF(message);
+        out.flush();
+    }
+
+    /**
+     * Sends what is written to it as frames of one type.
+     */
+    private static class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out;
+        private final byte type;
+
+        FrameOutputStream(DataOutputStream out, byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(len);
+                out.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+    }
+}
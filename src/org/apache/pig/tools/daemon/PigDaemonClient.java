@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.tools.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Runs the scripts of a pig command in a {@link PigDaemon}.
+ */
+public class PigDaemonClient {
+
+    private PigDaemonClient() {
+    }
+
+    /**
+     * Sends the arguments of a pig command to the daemon described by
+     * {@link PigDaemon#getDaemonFile()} and copies what the script prints.
+     * @return the exit code of the script, null if there is no daemon able to
+     * run it
+     */
+    public static Integer run(String[] args, PrintStream stdout, PrintStream stderr) {
+        File file = PigDaemon.getDaemonFile();
+        if (!file.exists()) {
+            return null;
+        }
+        Socket socket = null;
+        boolean started = false;
+        try {
+            String[] daemon = FileUtils.readFileToString(file, "UTF-8").trim().split(" ");
+            socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(daemon[0]));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeUTF(daemon[1]);
+            out.writeUTF(System.getProperty("user.dir"));
+            out.writeInt(args.length);
+            for (String arg : args) {
+                out.writeUTF(arg);
+            }
+            out.flush();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            while (true) {
+                byte type = in.readByte();
+                if (type == PigDaemon.EXIT) {
+                    return in.readInt();
+                } else if (type == PigDaemon.REJECTED) {
+                    stderr.println("Pig daemon not used: " + in.readUTF());
+                    return null;
+                }
+                started = true;
+                byte[] b = new byte[in.readInt()];
+                in.readFully(b);
+                PrintStream ps = type == PigDaemon.STDOUT ? stdout : stderr;
+                ps.write(b);
+                ps.flush();
+            }
+        } catch (IOException e) {
+            if (started) {
+                // The script may have been partially run, it is not run again
+                stderr.println("Lost the connection to the pig daemon: " + e);
+                return 1;
+            }
+            // Daemon stopped, the command is run locally
+            return null;
+        } catch (RuntimeException e) {
+            // Corrupted daemon file
+            return null;
+        } finally {
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.tools.pigstats;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.ResourceStatistics;
+
+/**
+ * {@link StatisticsStore} that keeps the statistics in a properties file on
+ * the local file system, set with
+ * {@link PigConfiguration#PIG_STATS_STORE_FILE}. Each entry maps a location
+ * to its size in bytes and number of records, -1 when unknown.
+ */
+public class FileStatisticsStore implements StatisticsStore {
+
+    public static final String DEFAULT_FILE = ".pigstats";
+
+    @Override
+    public ResourceStatistics getStatistics(String location, Configuration conf) throws IOException {
+        return getStatistics(load(getFile(conf)), location);
+    }
+
+    @Override
+    public void putStatistics(Map<String, ResourceStatistics> statistics, Configuration conf) throws IOException {
+        File file = getFile(conf);
+        // Several scripts can update the file at the same time, the last one
+        // to replace it wins
+        synchronized (FileStatisticsStore.class) {
+            Properties properties = load(file);
+            for (Map.Entry<String, ResourceStatistics> entry : statistics.entrySet()) {
+                ResourceStatistics previous = getStatistics(properties, entry.getKey());
+                Long bytes = entry.getValue().getSizeInBytes();
+                Long records = entry.getValue().getNumRecords();
+                if (bytes == null && previous != null) {
+                    bytes = previous.getSizeInBytes();
+                }
+                if (records == null && previous != null) {
+                    records = previous.getNumRecords();
+                }
+                properties.setProperty(entry.getKey(), (bytes == null ? -1 : bytes) + ","
+                        + (records == null ? -1 : records));
+            }
+
+            File dir = file.getAbsoluteFile().getParentFile();
+            if (dir != null && !dir.exists() && !dir.mkdirs()) {
+                throw new IOException("Unable to create " + dir);
+            }
+            File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+            OutputStream out = new FileOutputStream(tmp);
+            try {
+                properties.store(out, "Pig statistics");
+            } finally {
+                out.close();
+            }
+            if (!tmp.renameTo(file)) {
+                // renameTo does not replace existing files on all platforms
+                file.delete();
+                if (!tmp.renameTo(file)) {
+                    tmp.delete();
+                    throw new IOException("Unable to write " + file);
+                }
+            }
+        }
+    }
+
+    private ResourceStatistics getStatistics(Properties properties, String location) {
+        String value = properties.getProperty(location);
+        if (value == null) {
+            return null;
+        }
+        String[] fields = value.split(",");
+        if (fields.length != 2) {
+            return null;
+        }
+        ResourceStatistics statistics = new ResourceStatistics();
+        try {
+            long bytes = Long.parseLong(fields[0]);
+            long records = Long.parseLong(fields[1]);
+            if (bytes >= 0) {
+                statistics.setSizeInBytes(bytes);
+            }
+            if (records >= 0) {
+                statistics.setNumRecords(records);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return statistics;
+    }
+
+    private static File getFile(Configuration conf) {
+        String file = conf.get(PigConfiguration.PIG_STATS_STORE_FILE);
+        if (file == null) {
+            return new File(System.getProperty("user.home"), DEFAULT_FILE);
+        }
+        return new File(file);
+    }
+
+    private static Properties load(File file) throws IOException {
+        Properties properties = new Properties();
+        if (file.exists()) {
+            InputStream in = new FileInputStream(file);
+            try {
+                properties.load(in);
+            } finally {
+                in.close();
+            }
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.tools.pigstats;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.pig.ResourceStatistics;
+import org.apache.pig.classification.InterfaceAudience;
+import org.apache.pig.classification.InterfaceStability;
+
+/**
+ * Keeps the number of bytes and records read from and written to each
+ * location by previous runs, so that they can be used when planning later
+ * runs of the same or other scripts. The store to use is set with
+ * {@link org.apache.pig.PigConfiguration#PIG_STATS_STORE}.
+ */
+@InterfaceAudience.Public
+@InterfaceStability.Evolving
+public interface StatisticsStore {
+
+    /**
+     * @param location location of the input or output as given in the script
+     * @param conf configuration of the script
+     * @return the statistics last recorded for the location or null if none
+     * @throws IOException
+     */
+    public ResourceStatistics getStatistics(String location, Configuration conf) throws IOException;
+
+    /**
+     * Record statistics, replacing the ones previously recorded for the same
+     * locations. Size and number of records that are not set are left as they
+     * were.
+     *
+     * @param statistics statistics by location
+     * @param conf configuration of the script
+     * @throws IOException
+     */
+    public void putStatistics(Map<String, ResourceStatistics> statistics, Configuration conf) throws IOException;
+}
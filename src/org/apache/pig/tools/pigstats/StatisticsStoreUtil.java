@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.tools.pigstats;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.ResourceStatistics;
+import org.apache.pig.impl.PigContext;
+
+/**
+ * Helpers to look up and record statistics in the configured
+ * {@link StatisticsStore}. Failures to access the store are logged and
+ * otherwise ignored as the statistics are only used as hints.
+ */
+public class StatisticsStoreUtil {
+    private static final Log LOG = LogFactory.getLog(StatisticsStoreUtil.class);
+
+    /**
+     * @return the configured store or null if disabled
+     */
+    public static StatisticsStore getStatisticsStore(Configuration conf) throws IOException {
+        if (!conf.getBoolean(PigConfiguration.PIG_STATS_STORE_ENABLED, false)) {
+            return null;
+        }
+        StatisticsStore store = PigContext.instantiateObjectFromParams(conf,
+                PigConfiguration.PIG_STATS_STORE, PigConfiguration.PIG_STATS_STORE_CONSTRUCTOR_ARG_KEY,
+                StatisticsStore.class);
+        return store == null ? new FileStatisticsStore() : store;
+    }
+
+    /**
+     * @return statistics recorded for the location by a previous run, or null
+     */
+    public static ResourceStatistics getStatistics(String location, Configuration conf) {
+        if (location == null) {
+            return null;
+        }
+        try {
+            StatisticsStore store = getStatisticsStore(conf);
+            return store == null ? null : store.getStatistics(location, conf);
+        } catch (IOException e) {
+            LOG.warn("Unable to get statistics of " + location, e);
+            return null;
+        }
+    }
+
+    /**
+     * Record the bytes and records read and written by the successful inputs
+     * and outputs of a run.
+     */
+    public static void recordStatistics(PigStats stats, Configuration conf) {
+        try {
+            StatisticsStore store = getStatisticsStore(conf);
+            if (store == null) {
+                return;
+            }
+            Map<String, ResourceStatistics> statistics = new HashMap<String, ResourceStatistics>();
+            for (InputStats is : stats.getInputStats()) {
+                if (is.isSuccessful()) {
+                    addStatistics(statistics, is.getLocation(), is.getBytes(), is.getNumberRecords());
+                }
+            }
+            for (OutputStats os : stats.getOutputStats()) {
+                if (os.isSuccessful()) {
+                    addStatistics(statistics, os.getLocation(), os.getBytes(), os.getNumberRecords());
+                }
+            }
+            if (!statistics.isEmpty()) {
+                store.putStatistics(statistics, conf);
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to record statistics", e);
+        }
+    }
+
+    private static void addStatistics(Map<String, ResourceStatistics> statistics, String location,
+            long bytes, long records) {
+        if (location == null || (bytes < 0 && records < 0)) {
+            return;
+        }
+        ResourceStatistics rs = statistics.get(location);
+        if (rs == null) {
+            rs = new ResourceStatistics();
+            statistics.put(location, rs);
+        }
+        // The same location can be read by several jobs
+        if (bytes >= 0 && (rs.getSizeInBytes() == null || rs.getSizeInBytes() < bytes)) {
+            rs.setSizeInBytes(bytes);
+        }
+        if (records >= 0 && (rs.getNumRecords() == null || rs.getNumRecords() < records)) {
+            rs.setNumRecords(records);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+#!/bin/bash
+
+export LOCAL_DIRS="/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_0/usercache/root/appcache/application_1792386741847_0003,/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_1/usercache/root/appcache/application_1792386741847_0003,/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_2/usercache/root/appcache/application_1792386741847_0003,/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_3/usercache/root/appcache/application_1792386741847_0003"
+export STDOUT_LOGFILE_ENV="/root/project/target/PigMiniCluster/PigMiniCluster-logDir-nm-2_1/application_1792386741847_0003/container_1792386741847_0003_01_000003/stdout"
+export SHELL="/bin/bash"
+export NM_HTTP_PORT="36381"
+export HADOOP_ROOT_LOGGER="INFO,console"
+export JAVA_HOME="/root/.sdkman/candidates/java/8.0.392-tem"
+export LOG_DIRS="/root/project/target/PigMiniCluster/PigMiniCluster-logDir-nm-2_0/application_1792386741847_0003/container_1792386741847_0003_01_000003,/root/project/target/PigMiniCluster/PigMiniCluster-logDir-nm-2_1/application_1792386741847_0003/container_1792386741847_0003_01_000003,/root/project/target/PigMiniCluster/PigMiniCluster-logDir-nm-2_2/application_1792386741847_0003/container_1792386741847_0003_01_000003,/root/project/target/PigMiniCluster/PigMiniCluster-logDir-nm-2_3/application_1792386741847_0003/container_1792386741847_0003_01_000003"
+export NM_AUX_SERVICE_mapreduce_shuffle="AACJTQAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=
+"
+export NM_PORT="38433"
+export USER="root"
+export CLASSPATH="$PWD:/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-3_2/usercache/root/appcache/application_1792386741847_0003/container_1792386741847_0003_01_000001:/root/project/build/pig-0.18.0-SNAPSHOT.jar:/root/project/build/test/classes:/root/project:/root/project/build/classes:/root/project/test:/root/project/build/ivy/lib/Pig/RoaringBitmap-0.7.14.jar:/root/project/build/ivy/lib/Pig/RoaringBitmap-shaded-0.7.14.jar:/root/project/build/ivy/lib/Pig/ST4-4.0.4.jar:/root/project/build/ivy/lib/Pig/accumulo-core-1.5.0.jar:/root/project/build/ivy/lib/Pig/accumulo-fate-1.5.0.jar:/root/project/build/ivy/lib/Pig/accumulo-minicluster-1.5.0.jar:/root/project/build/ivy/lib/Pig/accumulo-server-1.5.0.jar:/root/project/build/ivy/lib/Pig/accumulo-start-1.5.0.jar:/root/project/build/ivy/lib/Pig/accumulo-trace-1.5.0.jar:/root/project/build/ivy/lib/Pig/antlr-2.7.7.jar:/root/project/build/ivy/lib/Pig/antlr-3.4.jar:/root/project/build/ivy/lib/Pig/antlr-runtime-3.4.jar:/root/project/build/ivy/lib/Pig/aopalliance-1.0.jar:/root/project/build/ivy/lib/Pig/asm-3.3.1.jar:/root/project/build/ivy/lib/Pig/automaton-1.11-8.jar:/root/project/build/ivy/lib/Pig/avro-1.7.5.jar:/root/project/build/ivy/lib/Pig/avro-ipc-1.7.5-tests.jar:/root/project/build/ivy/lib/Pig/avro-mapred-1.7.5-hadoop2.jar:/root/project/build/ivy/lib/Pig/avro-tools-1.7.5-nodeps.jar:/root/project/build/ivy/lib/Pig/commons-cli-1.2.jar:/root/project/build/ivy/lib/Pig/commons-codec-1.4.jar:/root/project/build/ivy/lib/Pig/commons-collections-3.2.1.jar:/root/project/build/ivy/lib/Pig/commons-collections4-4.0.jar:/root/project/build/ivy/lib/Pig/commons-compress-1.4.1.jar:/root/project/build/ivy/lib/Pig/commons-configuration-1.6.jar:/root/project/build/ivy/lib/Pig/commons-el-1.0.jar:/root/project/build/ivy/lib/Pig/commons-io-2.3.jar:/root/project/build/ivy/lib/Pig/commons-lang-2.4.jar:/root/project/build/ivy/lib/Pig/commons-lang3-3.6.jar:/root/project/build/ivy/lib/Pig/commons-logging-1.2.jar:/root/project/build/ivy/lib/Pig/commons-math3-3.1.1.jar:/root/project/build/ivy/lib/Pig/commons-vfs2-2.0.jar:/root/project/build/ivy/lib/Pig/curator-client-2.6.0.jar:/root/project/build/ivy/lib/Pig/curator-framework-2.6.0.jar:/root/project/build/ivy/lib/Pig/disruptor-3.3.0.jar:/root/project/build/ivy/lib/Pig/groovy-all-2.4.5.jar:/root/project/build/ivy/lib/Pig/gson-2.2.2.jar:/root/project/build/ivy/lib/Pig/guava-11.0.jar:/root/project/build/ivy/lib/Pig/guice-3.0.jar:/root/project/build/ivy/lib/Pig/guice-servlet-3.0.jar:/root/project/build/ivy/lib/Pig/hadoop-annotations-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-auth-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-common-2.7.3-tests.jar:/root/project/build/ivy/lib/Pig/hadoop-common-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-hdfs-2.7.3-tests.jar:/root/project/build/ivy/lib/Pig/hadoop-hdfs-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-mapreduce-client-app-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-mapreduce-client-common-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-mapreduce-client-core-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-mapreduce-client-hs-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-mapreduce-client-jobclient-2.7.3-tests.jar:/root/project/build/ivy/lib/Pig/hadoop-mapreduce-client-jobclient-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-mapreduce-client-shuffle-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-yarn-api-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-yarn-client-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-yarn-common-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-yarn-server-applicationhistoryservice-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-yarn-server-common-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-yarn-server-nodemanager-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-yarn-server-resourcemanager-2.7.3.jar:/root/project/build/ivy/lib/Pig/hadoop-yarn-server-tests-2.7.3-tests.jar:/root/project/build/ivy/lib/Pig/hadoop-yarn-server-web-proxy-2.7.3.jar:/root/project/build/ivy/lib/Pig/hbase-client-1.2.4-tests.jar:/root/project/build/ivy/lib/Pig/hbase-client-1.2.4.jar:/root/project/build/ivy/lib/Pig/hbase-common-1.2.4-tests.jar:/root/project/build/ivy/lib/Pig/hbase-common-1.2.4.jar:/root/project/build/ivy/lib/Pig/hbase-hadoop-compat-1.2.4-tests.jar:/root/project/build/ivy/lib/Pig/hbase-hadoop-compat-1.2.4.jar:/root/project/build/ivy/lib/Pig/hbase-hadoop2-compat-1.2.4-tests.jar:/root/project/build/ivy/lib/Pig/hbase-hadoop2-compat-1.2.4.jar:/root/project/build/ivy/lib/Pig/hbase-procedure-1.2.4.jar:/root/project/build/ivy/lib/Pig/hbase-protocol-1.2.4-tests.jar:/root/project/build/ivy/lib/Pig/hbase-protocol-1.2.4.jar:/root/project/build/ivy/lib/Pig/hbase-server-1.2.4-tests.jar:/root/project/build/ivy/lib/Pig/hbase-server-1.2.4.jar:/root/project/build/ivy/lib/Pig/hive-common-1.2.1.jar:/root/project/build/ivy/lib/Pig/hive-contrib-3.1.2.jar:/root/project/build/ivy/lib/Pig/hive-exec-1.2.1-core.jar:/root/project/build/ivy/lib/Pig/hive-serde-1.2.1.jar:/root/project/build/ivy/lib/Pig/hive-shims-0.23-1.2.1.jar:/root/project/build/ivy/lib/Pig/hive-shims-common-1.2.1.jar:/root/project/build/ivy/lib/Pig/hsqldb-2.4.0.jar:/root/project/build/ivy/lib/Pig/htrace-core-2.00.jar:/root/project/build/ivy/lib/Pig/htrace-core-3.0.4.jar:/root/project/build/ivy/lib/Pig/htrace-core-3.1.0-incubating.jar:/root/project/build/ivy/lib/Pig/httpclient-4.4.jar:/root/project/build/ivy/lib/Pig/httpcore-4.4.jar:/root/project/build/ivy/lib/Pig/httpdlog-pigloader-5.0-udf.jar:/root/project/build/ivy/lib/Pig/ivy-2.2.0.jar:/root/project/build/ivy/lib/Pig/jackson-core-asl-1.9.13.jar:/root/project/build/ivy/lib/Pig/jackson-mapper-asl-1.9.13.jar:/root/project/build/ivy/lib/Pig/jansi-1.9.jar:/root/project/build/ivy/lib/Pig/javacc-4.2.jar:/root/project/build/ivy/lib/Pig/javax.el-3.0.1-b08.jar:/root/project/build/ivy/lib/Pig/javax.inject-1.jar:/root/project/build/ivy/lib/Pig/javax.servlet-api-3.1.0.jar:/root/project/build/ivy/lib/Pig/jaxb-api-2.2.2.jar:/root/project/build/ivy/lib/Pig/jaxb-impl-2.2.3-1.jar:/root/project/build/ivy/lib/Pig/jcommander-1.30.jar:/root/project/build/ivy/lib/Pig/jdeb-0.8.jar:/root/project/build/ivy/lib/Pig/jersey-bundle-1.8.jar:/root/project/build/ivy/lib/Pig/jersey-guice-1.8.jar:/root/project/build/ivy/lib/Pig/jersey-server-1.8.jar:/root/project/build/ivy/lib/Pig/jettison-1.3.4.jar:/root/project/build/ivy/lib/Pig/jetty-6.1.26.jar:/root/project/build/ivy/lib/Pig/jetty-util-6.1.26.jar:/root/project/build/ivy/lib/Pig/jline-2.11.jar:/root/project/build/ivy/lib/Pig/joda-time-2.9.9.jar:/root/project/build/ivy/lib/Pig/jopt-simple-4.1.jar:/root/project/build/ivy/lib/Pig/jruby-complete-1.7.26.jar:/root/project/build/ivy/lib/Pig/js-1.7R2.jar:/root/project/build/ivy/lib/Pig/json-simple-1.1.jar:/root/project/build/ivy/lib/Pig/jsr311-api-1.1.1.jar:/root/project/build/ivy/lib/Pig/junit-4.11.jar:/root/project/build/ivy/lib/Pig/jython-standalone-2.7.1.jar:/root/project/build/ivy/lib/Pig/kryo-2.22.jar:/root/project/build/ivy/lib/Pig/leveldbjni-all-1.8.jar:/root/project/build/ivy/lib/Pig/libthrift-0.9.0.jar:/root/project/build/ivy/lib/Pig/log4j-1.2.16.jar:/root/project/build/ivy/lib/Pig/maven-scm-api-1.4.jar:/root/project/build/ivy/lib/Pig/maven-scm-provider-svn-commons-1.4.jar:/root/project/build/ivy/lib/Pig/maven-scm-provider-svnexe-1.4.jar:/root/project/build/ivy/lib/Pig/metrics-core-2.1.2.jar:/root/project/build/ivy/lib/Pig/mockito-all-1.8.4.jar:/root/project/build/ivy/lib/Pig/netty-3.6.6.Final.jar:/root/project/build/ivy/lib/Pig/netty-all-4.1.1.Final.jar:/root/project/build/ivy/lib/Pig/paranamer-2.3.jar:/root/project/build/ivy/lib/Pig/parquet-pig-bundle-1.9.0.jar:/root/project/build/ivy/lib/Pig/plexus-utils-1.5.6.jar:/root/project/build/ivy/lib/Pig/protobuf-java-2.5.0.jar:/root/project/build/ivy/lib/Pig/regexp-1.3.jar:/root/project/build/ivy/lib/Pig/serializer-2.7.1.jar:/root/project/build/ivy/lib/Pig/servlet-api-2.5-20081211.jar:/root/project/build/ivy/lib/Pig/servlet-api-2.5.jar:/root/project/build/ivy/lib/Pig/slf4j-api-1.6.4.jar:/root/project/build/ivy/lib/Pig/slf4j-log4j12-1.6.1.jar:/root/project/build/ivy/lib/Pig/snappy-0.2.jar:/root/project/build/ivy/lib/Pig/snappy-java-1.1.1.3.jar:/root/project/build/ivy/lib/Pig/stringtemplate-3.2.1.jar:/root/project/build/ivy/lib/Pig/tez-api-0.7.0.jar:/root/project/build/ivy/lib/Pig/tez-common-0.7.0.jar:/root/project/build/ivy/lib/Pig/tez-dag-0.7.0.jar:/root/project/build/ivy/lib/Pig/tez-mapreduce-0.7.0.jar:/root/project/build/ivy/lib/Pig/tez-runtime-internals-0.7.0.jar:/root/project/build/ivy/lib/Pig/tez-runtime-library-0.7.0.jar:/root/project/build/ivy/lib/Pig/tez-yarn-timeline-history-with-acls-0.7.0.jar:/root/project/build/ivy/lib/Pig/trevni-avro-1.7.5-tests.jar:/root/project/build/ivy/lib/Pig/trevni-avro-1.7.5.jar:/root/project/build/ivy/lib/Pig/trevni-core-1.7.5-tests.jar:/root/project/build/ivy/lib/Pig/trevni-core-1.7.5.jar:/root/project/build/ivy/lib/Pig/velocity-1.7.jar:/root/project/build/ivy/lib/Pig/xalan-2.7.1.jar:/root/project/build/ivy/lib/Pig/xercesImpl-2.10.0.jar:/root/project/build/ivy/lib/Pig/xml-apis-1.4.01.jar:/root/project/build/ivy/lib/Pig/xz-1.0.jar:/root/project/build/ivy/lib/Pig/zookeeper-3.4.5.jar:/root/project/build/ivy/lib/Pig/spark/RoaringBitmap-0.5.11.jar:/root/project/build/ivy/lib/Pig/spark/akka-actor_2.11-2.3.11.jar:/root/project/build/ivy/lib/Pig/spark/akka-remote_2.11-2.3.11.jar:/root/project/build/ivy/lib/Pig/spark/akka-slf4j_2.11-2.3.11.jar:/root/project/build/ivy/lib/Pig/spark/asm-3.1.jar:/root/project/build/ivy/lib/Pig/spark/avro-1.7.7.jar:/root/project/build/ivy/lib/Pig/spark/avro-ipc-1.7.7-tests.jar:/root/project/build/ivy/lib/Pig/spark/avro-mapred-1.7.7-hadoop2.jar:/root/project/build/ivy/lib/Pig/spark/chill-java-0.5.0.jar:/root/project/build/ivy/lib/Pig/spark/chill_2.11-0.5.0.jar:/root/project/build/ivy/lib/Pig/spark/commons-codec-1.10.jar:/root/project/build/ivy/lib/Pig/spark/commons-compress-1.4.1.jar:/root/project/build/ivy/lib/Pig/spark/commons-httpclient-3.1.jar:/root/project/build/ivy/lib/Pig/spark/commons-io-2.4.jar:/root/project/build/ivy/lib/Pig/spark/commons-lang-2.6.jar:/root/project/build/ivy/lib/Pig/spark/commons-lang3-3.3.2.jar:/root/project/build/ivy/lib/Pig/spark/commons-math3-3.4.1.jar:/root/project/build/ivy/lib/Pig/spark/commons-net-2.2.jar:/root/project/build/ivy/lib/Pig/spark/compress-lzf-1.0.3.jar:/root/project/build/ivy/lib/Pig/spark/config-1.2.1.jar:/root/project/build/ivy/lib/Pig/spark/curator-client-2.4.0.jar:/root/project/build/ivy/lib/Pig/spark/curator-framework-2.4.0.jar:/root/project/build/ivy/lib/Pig/spark/curator-recipes-2.4.0.jar:/root/project/build/ivy/lib/Pig/spark/disruptor-3.3.0.jar:/root/project/build/ivy/lib/Pig/spark/hbase-client-1.2.4-tests.jar:/root/project/build/ivy/lib/Pig/spark/hbase-client-1.2.4.jar:/root/project/build/ivy/lib/Pig/spark/hbase-common-1.2.4-tests.jar:/root/project/build/ivy/lib/Pig/spark/hbase-common-1.2.4.jar:/root/project/build/ivy/lib/Pig/spark/hbase-hadoop-compat-1.2.4-tests.jar:/root/project/build/ivy/lib/Pig/spark/hbase-hadoop-compat-1.2.4.jar:/root/project/build/ivy/lib/Pig/spark/hbase-hadoop2-compat-1.2.4-tests.jar:/root/project/build/ivy/lib/Pig/spark/hbase-hadoop2-compat-1.2.4.jar:/root/project/build/ivy/lib/Pig/spark/hbase-protocol-1.2.4-tests.jar:/root/project/build/ivy/lib/Pig/spark/hbase-protocol-1.2.4.jar:/root/project/build/ivy/lib/Pig/spark/hbase-server-1.2.4-tests.jar:/root/project/build/ivy/lib/Pig/spark/hbase-server-1.2.4.jar:/root/project/build/ivy/lib/Pig/spark/htrace-core-2.00.jar:/root/project/build/ivy/lib/Pig/spark/ivy-2.4.0.jar:/root/project/build/ivy/lib/Pig/spark/jackson-annotations-2.4.4.jar:/root/project/build/ivy/lib/Pig/spark/jackson-core-2.4.4.jar:/root/project/build/ivy/lib/Pig/spark/jackson-core-asl-1.9.13.jar:/root/project/build/ivy/lib/Pig/spark/jackson-databind-2.4.4.jar:/root/project/build/ivy/lib/Pig/spark/jackson-mapper-asl-1.9.13.jar:/root/project/build/ivy/lib/Pig/spark/jackson-module-scala_2.11-2.4.4.jar:/root/project/build/ivy/lib/Pig/spark/javax.servlet-api-3.0.1.jar:/root/project/build/ivy/lib/Pig/spark/jcl-over-slf4j-1.7.10.jar:/root/project/build/ivy/lib/Pig/spark/jersey-core-1.9.jar:/root/project/build/ivy/lib/Pig/spark/jersey-server-1.9.jar:/root/project/build/ivy/lib/Pig/spark/jets3t-0.7.1.jar:/root/project/build/ivy/lib/Pig/spark/json4s-ast_2.11-3.2.10.jar:/root/project/build/ivy/lib/Pig/spark/json4s-core_2.11-3.2.10.jar:/root/project/build/ivy/lib/Pig/spark/json4s-jackson_2.11-3.2.10.jar:/root/project/build/ivy/lib/Pig/spark/jsr305-1.3.9.jar:/root/project/build/ivy/lib/Pig/spark/jul-to-slf4j-1.7.10.jar:/root/project/build/ivy/lib/Pig/spark/leveldbjni-all-1.8.jar:/root/project/build/ivy/lib/Pig/spark/log4j-1.2.17.jar:/root/project/build/ivy/lib/Pig/spark/lz4-1.3.0.jar:/root/project/build/ivy/lib/Pig/spark/mesos-0.21.1-shaded-protobuf.jar:/root/project/build/ivy/lib/Pig/spark/metrics-core-3.1.2.jar:/root/project/build/ivy/lib/Pig/spark/metrics-graphite-3.1.2.jar:/root/project/build/ivy/lib/Pig/spark/metrics-json-3.1.2.jar:/root/project/build/ivy/lib/Pig/spark/metrics-jvm-3.1.2.jar:/root/project/build/ivy/lib/Pig/spark/netty-3.8.0.Final.jar:/root/project/build/ivy/lib/Pig/spark/netty-all-4.0.29.Final.jar:/root/project/build/ivy/lib/Pig/spark/oro-2.0.8.jar:/root/project/build/ivy/lib/Pig/spark/paranamer-2.6.jar:/root/project/build/ivy/lib/Pig/spark/protobuf-java-2.5.0.jar:/root/project/build/ivy/lib/Pig/spark/py4j-0.9.jar:/root/project/build/ivy/lib/Pig/spark/pyrolite-4.9.jar:/root/project/build/ivy/lib/Pig/spark/scala-compiler-2.10.5.jar:/root/project/build/ivy/lib/Pig/spark/scala-library-2.11.7.jar:/root/project/build/ivy/lib/Pig/spark/scala-reflect-2.10.5.jar:/root/project/build/ivy/lib/Pig/spark/scala-xml_2.11-1.0.5.jar:/root/project/build/ivy/lib/Pig/spark/scalap-2.10.5.jar:/root/project/build/ivy/lib/Pig/spark/slf4j-api-1.7.10.jar:/root/project/build/ivy/lib/Pig/spark/slf4j-log4j12-1.7.10.jar:/root/project/build/ivy/lib/Pig/spark/snappy-java-1.1.2.jar:/root/project/build/ivy/lib/Pig/spark/spark-core_2.11-1.6.1.jar:/root/project/build/ivy/lib/Pig/spark/spark-launcher_2.11-1.6.1.jar:/root/project/build/ivy/lib/Pig/spark/spark-network-common_2.11-1.6.1.jar:/root/project/build/ivy/lib/Pig/spark/spark-network-shuffle_2.11-1.6.1.jar:/root/project/build/ivy/lib/Pig/spark/spark-unsafe_2.11-1.6.1.jar:/root/project/build/ivy/lib/Pig/spark/spark-yarn_2.11-1.6.1.jar:/root/project/build/ivy/lib/Pig/spark/stream-2.7.0.jar:/root/project/build/ivy/lib/Pig/spark/tachyon-client-0.8.2.jar:/root/project/build/ivy/lib/Pig/spark/tachyon-underfs-hdfs-0.8.2.jar:/root/project/build/ivy/lib/Pig/spark/tachyon-underfs-local-0.8.2.jar:/root/project/build/ivy/lib/Pig/spark/tachyon-underfs-s3-0.8.2.jar:/root/project/build/ivy/lib/Pig/spark/uncommons-maths-1.2.2a.jar:/root/project/build/ivy/lib/Pig/spark/unused-1.0.0.jar:/root/project/build/ivy/lib/Pig/spark/xbean-asm5-shaded-4.4.jar:/root/project/build/ivy/lib/Pig/spark/xz-1.0.jar:/root/project/build/ivy/lib/Pig/spark/zookeeper-3.4.5.jar:/usr/share/java/ant-launcher-1.10.13.jar:/usr/share/ant/lib/ant.jar:/usr/share/ant/lib/ant-junit.jar:/usr/share/ant/lib/ant-junit4.jar::/share/hadoop/common/*:/share/hadoop/common/lib/*:/share/hadoop/hdfs/*:/share/hadoop/hdfs/lib/*:/share/hadoop/yarn/*:/share/hadoop/yarn/lib/*:/share/hadoop/mapreduce/*:/share/hadoop/mapreduce/lib/*:job.jar/job.jar:job.jar/classes/:job.jar/lib/*:/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-3_2/usercache/root/appcache/application_1792386741847_0003/container_1792386741847_0003_01_000001/automaton-1.11-8.jar:/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-3_2/usercache/root/appcache/application_1792386741847_0003/container_1792386741847_0003_01_000001/joda-time-2.9.9.jar:/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-3_2/usercache/root/appcache/application_1792386741847_0003/container_1792386741847_0003_01_000001/RoaringBitmap-shaded-0.7.14.jar:/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-3_2/usercache/root/appcache/application_1792386741847_0003/container_1792386741847_0003_01_000001/antlr-runtime-3.4.jar:/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-3_2/usercache/root/appcache/application_1792386741847_0003/container_1792386741847_0003_01_000001/pig-0.18.0-SNAPSHOT.jar:/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-3_2/usercache/root/appcache/application_1792386741847_0003/container_1792386741847_0003_01_000001/hadoop-site.xml:$HADOOP_CONF_DIR:$HADOOP_COMMON_HOME/share/hadoop/common/*:$HADOOP_COMMON_HOME/share/hadoop/common/lib/*:$HADOOP_HDFS_HOME/share/hadoop/hdfs/*:$HADOOP_HDFS_HOME/share/hadoop/hdfs/lib/*:$HADOOP_YARN_HOME/share/hadoop/yarn/*:$HADOOP_YARN_HOME/share/hadoop/yarn/lib/*:$HADOOP_MAPRED_HOME/share/hadoop/mapreduce/*:$HADOOP_MAPRED_HOME/share/hadoop/mapreduce/lib/*:job.jar/job.jar:job.jar/classes/:job.jar/lib/*:$PWD/*:$PWD/hadoop-site.xml"
+export NM_HOST="localhost"
+export HADOOP_CLASSPATH="$PWD:job.jar/job.jar:job.jar/classes/:job.jar/lib/*:$PWD/*:$PWD/hadoop-site.xml:/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-3_2/usercache/root/appcache/application_1792386741847_0003/container_1792386741847_0003_01_000001:job.jar/job.jar:job.jar/classes/:job.jar/lib/*:/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-3_2/usercache/root/appcache/application_1792386741847_0003/container_1792386741847_0003_01_000001/*:/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-3_2/usercache/root/appcache/application_1792386741847_0003/container_1792386741847_0003_01_000001/hadoop-site.xml:null"
+export HADOOP_TOKEN_FILE_LOCATION="/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_2/usercache/root/appcache/application_1792386741847_0003/container_1792386741847_0003_01_000003/container_tokens"
+export LD_LIBRARY_PATH="$PWD:$HADOOP_COMMON_HOME/lib/native"
+export STDERR_LOGFILE_ENV="/root/project/target/PigMiniCluster/PigMiniCluster-logDir-nm-2_1/application_1792386741847_0003/container_1792386741847_0003_01_000003/stderr"
+export LOGNAME="root"
+export JVM_PID="$$"
+export PWD="/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_2/usercache/root/appcache/application_1792386741847_0003/container_1792386741847_0003_01_000003"
+export HADOOP_CLIENT_OPTS=""
+export HOME="/home/"
+export CONTAINER_ID="container_1792386741847_0003_01_000003"
+export MALLOC_ARENA_MAX="4"
+ln -sf "/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_3/filecache/10/hadoop-site.xml" "hadoop-site.xml"
+hadoop_shell_errorcode=$?
+if [ $hadoop_shell_errorcode -ne 0 ]
+then
+  exit $hadoop_shell_errorcode
+fi
+ln -sf "/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_3/usercache/root/filecache/14/antlr-runtime-3.4.jar" "antlr-runtime-3.4.jar"
+hadoop_shell_errorcode=$?
+if [ $hadoop_shell_errorcode -ne 0 ]
+then
+  exit $hadoop_shell_errorcode
+fi
+ln -sf "/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_0/usercache/root/appcache/application_1792386741847_0003/filecache/10/job.xml" "job.xml"
+hadoop_shell_errorcode=$?
+if [ $hadoop_shell_errorcode -ne 0 ]
+then
+  exit $hadoop_shell_errorcode
+fi
+ln -sf "/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_0/usercache/root/filecache/11/RoaringBitmap-shaded-0.7.14.jar" "RoaringBitmap-shaded-0.7.14.jar"
+hadoop_shell_errorcode=$?
+if [ $hadoop_shell_errorcode -ne 0 ]
+then
+  exit $hadoop_shell_errorcode
+fi
+ln -sf "/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_1/usercache/root/filecache/12/automaton-1.11-8.jar" "automaton-1.11-8.jar"
+hadoop_shell_errorcode=$?
+if [ $hadoop_shell_errorcode -ne 0 ]
+then
+  exit $hadoop_shell_errorcode
+fi
+ln -sf "/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_2/usercache/root/filecache/13/pig-0.18.0-SNAPSHOT.jar" "pig-0.18.0-SNAPSHOT.jar"
+hadoop_shell_errorcode=$?
+if [ $hadoop_shell_errorcode -ne 0 ]
+then
+  exit $hadoop_shell_errorcode
+fi
+ln -sf "/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_3/usercache/root/filecache/10/joda-time-2.9.9.jar" "joda-time-2.9.9.jar"
+hadoop_shell_errorcode=$?
+if [ $hadoop_shell_errorcode -ne 0 ]
+then
+  exit $hadoop_shell_errorcode
+fi
+exec /bin/bash -c "$JAVA_HOME/bin/java -Djava.net.preferIPv4Stack=true -Dhadoop.metrics.log.level=WARN  -Xmx384m -Djava.io.tmpdir=$PWD/tmp -Dlog4j.configuration=container-log4j.properties -Dyarn.app.container.log.dir=/root/project/target/PigMiniCluster/PigMiniCluster-logDir-nm-2_1/application_1792386741847_0003/container_1792386741847_0003_01_000003 -Dyarn.app.container.log.filesize=0 -Dhadoop.root.logger=INFO,CLA -Dhadoop.root.logfile=syslog org.apache.hadoop.mapred.YarnChild 127.0.0.1 33943 attempt_1792386741847_0003_m_000000_1 3 1>/root/project/target/PigMiniCluster/PigMiniCluster-logDir-nm-2_1/application_1792386741847_0003/container_1792386741847_0003_01_000003/stdout 2>/root/project/target/PigMiniCluster/PigMiniCluster-logDir-nm-2_1/application_1792386741847_0003/container_1792386741847_0003_01_000003/stderr "
+hadoop_shell_errorcode=$?
+if [ $hadoop_shell_errorcode -ne 0 ]
+then
+  exit $hadoop_shell_errorcode
+fi
@@ -0,0 +1,6 @@
+#!/bin/bash
+/bin/bash "/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_2/usercache/root/appcache/application_1792386741847_0003/container_1792386741847_0003_01_000003/default_container_executor_session.sh"
+rc=$?
+echo $rc > "/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_0/nmPrivate/application_1792386741847_0003/container_1792386741847_0003_01_000003/container_1792386741847_0003_01_000003.pid.exitcode.tmp"
+/bin/mv -f "/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_0/nmPrivate/application_1792386741847_0003/container_1792386741847_0003_01_000003/container_1792386741847_0003_01_000003.pid.exitcode.tmp" "/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_0/nmPrivate/application_1792386741847_0003/container_1792386741847_0003_01_000003/container_1792386741847_0003_01_000003.pid.exitcode"
+exit $rc
@@ -0,0 +1,5 @@
+#!/bin/bash
+
+echo $$ > /root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_0/nmPrivate/application_1792386741847_0003/container_1792386741847_0003_01_000003/container_1792386741847_0003_01_000003.pid.tmp
+/bin/mv -f /root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_0/nmPrivate/application_1792386741847_0003/container_1792386741847_0003_01_000003/container_1792386741847_0003_01_000003.pid.tmp /root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_0/nmPrivate/application_1792386741847_0003/container_1792386741847_0003_01_000003/container_1792386741847_0003_01_000003.pid
+exec setsid /bin/bash "/root/project/target/PigMiniCluster/PigMiniCluster-localDir-nm-2_2/usercache/root/appcache/application_1792386741847_0003/container_1792386741847_0003_01_000003/launch_container.sh"
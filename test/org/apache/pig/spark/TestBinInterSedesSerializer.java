@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.spark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.pig.backend.hadoop.executionengine.spark.BinInterSedesSerializer;
+import org.apache.pig.backend.hadoop.executionengine.spark.converter.IndexedKey;
+import org.apache.pig.data.DataBag;
+import org.apache.pig.data.Tuple;
+import org.apache.pig.test.Util;
+import org.apache.spark.serializer.DeserializationStream;
+import org.apache.spark.serializer.SerializationStream;
+import org.apache.spark.serializer.SerializerInstance;
+import org.junit.Test;
+
+import scala.Tuple2;
+import scala.collection.Iterator;
+import scala.reflect.ClassTag;
+import scala.reflect.ClassTag$;
+
+public class TestBinInterSedesSerializer {
+    private static final ClassTag<Object> TAG = ClassTag$.MODULE$.Object();
+
+    private final SerializerInstance serializer = new BinInterSedesSerializer().newInstance();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        IndexedKey key = new IndexedKey((byte) 1, Util.buildTuple("a", 1));
+        key.setUseSecondaryKey(true);
+        key.setSecondarySortOrder(new boolean[] {true, false});
+        DataBag bag = Util.createBag(new Tuple[] {Util.buildTuple(1L), Util.buildTuple(2L)});
+        Tuple2<IndexedKey, Tuple> record = new Tuple2<IndexedKey, Tuple>(key, Util.buildTuple("a", bag));
+
+        Tuple2<?, ?> copy = (Tuple2<?, ?>) roundTrip(record);
+        IndexedKey keyCopy = (IndexedKey) copy._1();
+        assertEquals(key, keyCopy);
+        assertEquals(1, keyCopy.getIndex());
+        assertTrue(keyCopy.isUseSecondaryKey());
+        assertTrue(Arrays.equals(new boolean[] {true, false}, keyCopy.getSecondarySortOrder()));
+        assertEquals(record._2(), copy._2());
+
+        IndexedKey nullKey = (IndexedKey) roundTrip(new IndexedKey((byte) 0, null));
+        assertEquals(null, nullKey.getKey());
+        assertFalse(nullKey.isUseSecondaryKey());
+        assertEquals(null, nullKey.getSecondarySortOrder());
+
+        // Not Pig data, written with Java serialization
+        Map<Integer, String> map = new HashMap<Integer, String>();
+        map.put(1, "a");
+        assertEquals(map, roundTrip(map));
+        assertEquals(null, roundTrip(null));
+    }
+
+    @Test
+    public void testStreamRelocation() throws Exception {
+        List<Object> records = new ArrayList<Object>();
+        List<byte[]> serialized = new ArrayList<byte[]>();
+        for (int i = 0; i < 3; i++) {
+            Object record = new Tuple2<IndexedKey, Tuple>(new IndexedKey((byte) 0, i), Util.buildTuple(i, "v" + i));
+            records.add(record);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            SerializationStream out = serializer.serializeStream(bytes);
+            out.writeObject(record, TAG);
+            out.close();
+            serialized.add(bytes.toByteArray());
+        }
+
+        // Records written separately can be concatenated in any order
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = serialized.size() - 1; i >= 0; i--) {
+            bytes.write(serialized.get(i));
+        }
+        DeserializationStream in = serializer.deserializeStream(new ByteArrayInputStream(bytes.toByteArray()));
+        Iterator<Object> it = in.asIterator();
+        for (int i = records.size() - 1; i >= 0; i--) {
+            assertTrue(it.hasNext());
+            assertEquals(records.get(i), it.next());
+        }
+        assertFalse(it.hasNext());
+    }
+
+    private Object roundTrip(Object o) {
+        ByteBuffer bytes = serializer.serialize(o, TAG);
+        return serializer.deserialize(bytes, TAG);
+    }
+}
@@ -28,13 +28,18 @@ import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.pig.PigConfiguration;
 import org.apache.pig.PigServer;
 import org.apache.pig.backend.executionengine.ExecException;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.PhysicalOperator;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POSplit;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.util.PlanHelper;
 import org.apache.pig.backend.hadoop.executionengine.spark.SparkLauncher;
 import org.apache.pig.backend.hadoop.executionengine.spark.SparkLocalExecType;
 import org.apache.pig.backend.hadoop.executionengine.spark.plan.DotSparkPrinter;
 import org.apache.pig.backend.hadoop.executionengine.spark.plan.SparkOperPlan;
+import org.apache.pig.backend.hadoop.executionengine.spark.plan.SparkOperator;
 import org.apache.pig.backend.hadoop.executionengine.spark.plan.SparkPrinter;
 import org.apache.pig.backend.hadoop.executionengine.spark.plan.XMLSparkPrinter;
 import org.apache.pig.impl.PigContext;
@@ -51,6 +56,8 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -151,6 +158,38 @@ public class TestSparkCompiler {
         run(query, "test/org/apache/pig/test/data/GoldenFiles/spark/SPARKC-LoadStore-1-dot.gld", PlanPrinter.DOT);
     }
 
+    @Test
+    public void testPersistSplitInput() throws Exception {
+        String query =
+                "a = load 'file:///tmp/input' as (x:int, y:int);" +
+                "b = filter a by x > 0;" +
+                "c = filter b by y > 0;" +
+                "store c into 'file:///tmp/pigoutput';" +
+                "d = filter b by y < 0;" +
+                "store d into 'file:///tmp/pigoutput1';";
+        PhysicalPlan pp = Util.buildPp(pigServer, query);
+        pc.inExplain = true;
+        SparkOperPlan sparkOperPlan = new SparkLauncher().compile(pp, pc);
+        assertEquals(1, sparkOperPlan.size());
+        SparkOperator sparkOp = sparkOperPlan.getRoots().get(0);
+        POSplit split = PlanHelper.getPhysicalOperators(sparkOp.physicalPlan, POSplit.class).get(0);
+        PhysicalOperator splitInput = sparkOp.physicalPlan.getPredecessors(split).get(0);
+        assertTrue(sparkOp.isPersistedOperator(splitInput.getOperatorKey()));
+        assertFalse(sparkOp.isPersistedOperator(sparkOp.physicalPlan.getRoots().get(0).getOperatorKey()));
+
+        pc.getProperties().setProperty(PigConfiguration.PIG_SPARK_PERSIST_STORAGE_LEVEL, "NONE");
+        try {
+            resetScope();
+            pp = Util.buildPp(pigServer, query);
+            sparkOp = new SparkLauncher().compile(pp, pc).getRoots().get(0);
+            split = PlanHelper.getPhysicalOperators(sparkOp.physicalPlan, POSplit.class).get(0);
+            splitInput = sparkOp.physicalPlan.getPredecessors(split).get(0);
+            assertFalse(sparkOp.isPersistedOperator(splitInput.getOperatorKey()));
+        } finally {
+            pc.getProperties().remove(PigConfiguration.PIG_SPARK_PERSIST_STORAGE_LEVEL);
+        }
+    }
+
     private void run(String query, String expectedFile, PlanPrinter planPrinter) throws Exception {
         PhysicalPlan pp = Util.buildPp(pigServer, query);
         SparkLauncher launcher = new SparkLauncher();
@@ -260,6 +260,31 @@ public class TestCombiner {
         pigServer.shutdown();
     }
 
+    @Test
+    public void testLargeGroups() throws Exception {
+        // enough values per group for the partial results to be combined
+        // several times
+        String input[] = new String[1000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (i % 3) + "\t" + i + "\t" + (i % 7);
+        }
+
+        Util.createInputFile(cluster, "largeGroupsInput.txt", input);
+        PigServer pigServer = new PigServer(cluster.getExecType(), properties);
+        pigServer.registerQuery("a = load 'largeGroupsInput.txt' as (k:int, v:long, d:int);");
+        pigServer.registerQuery("b = group a by k;");
+        pigServer.registerQuery("c = foreach b  {" +
+                "        x = distinct a.d;" +
+                "        generate group, COUNT(a), SUM(a.v), COUNT(x);};");
+        checkCombinerUsed(pigServer, "c", true);
+
+        List<Tuple> expected = Util.getTuplesFromConstantTupleStrings(new String[] {
+                "(0,334L,166833L,7L)", "(1,333L,166167L,7L)", "(2,333L,166500L,7L)" });
+        Util.checkQueryOutputs(pigServer.openIterator("c"), expected, true);
+        Util.deleteFile(cluster, "largeGroupsInput.txt");
+        pigServer.shutdown();
+    }
+
     @Test
     public void testGroupAndUnion() throws Exception {
         // test use of combiner when group elements are accessed in the foreach
@@ -33,11 +33,13 @@ import java.util.List;
 import java.util.Properties;
 import java.util.Random;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.pig.PigConfiguration;
 import org.apache.pig.PigServer;
 import org.apache.pig.backend.hadoop.executionengine.HExecutionEngine;
 import org.apache.pig.backend.hadoop.executionengine.fetch.FetchLauncher;
 import org.apache.pig.backend.hadoop.executionengine.fetch.FetchOptimizer;
+import org.apache.pig.backend.hadoop.executionengine.fetch.POParallelFetchLoad;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLimit;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLoad;
@@ -63,6 +65,7 @@ public class TestFetch {
 
     private static File inputFile1;
     private static File inputFile2;
+    private static String splitInputDir;
 
     private static final long SEED = 1013;
     private static final Random r = new Random(SEED);
@@ -89,6 +92,16 @@ public class TestFetch {
         inputFile1 = Util.createInputFile("tmp", "testFetchData1.txt", data1);
         inputFile2 = Util.createInputFile("tmp", "testFetchData2.txt", data2);
 
+        // Several files read as different splits
+        splitInputDir = Util.getTestDirectory(TestFetch.class) + "/splits";
+        for (int i = 0; i < 4; i++) {
+            String[] data = new String[25];
+            for (int j = 0; j < data.length; j++) {
+                data[j] = Integer.toString(i * data.length + j);
+            }
+            Util.createFile(splitInputDir + "/part-" + i, data);
+        }
+
     }
 
     @Before
@@ -309,10 +322,96 @@ public class TestFetch {
         assertNotNull(received);
     }
 
+    @Test
+    public void testParallelFetch() throws Exception {
+        Properties properties = pigServer.getPigContext().getProperties();
+        properties.setProperty(PigConfiguration.PIG_FETCH_PARALLELISM, "4");
+
+        PhysicalPlan pp = Util.buildPp(pigServer,
+            "A = load '" + Util.encodeEscape(splitInputDir) + "' as (x:int);" +
+            "B = foreach A generate x * 2;" +
+            "C = limit B 40;" +
+            "store C into 'out';");
+        assertNotNull(POParallelFetchLoad.setUp(pigServer.getPigContext(), pp));
+        assertTrue(pp.getRoots().get(0) instanceof POParallelFetchLoad);
+        assertTrue(pp.getSuccessors(pp.getRoots().get(0)).get(0) instanceof POLimit);
+
+        // Same records in the same order as when reading the splits one by one
+        List<Tuple> parallel = fetchSplitInput();
+        properties.setProperty(PigConfiguration.PIG_FETCH_PARALLELISM, "1");
+        List<Tuple> serial = fetchSplitInput();
+        assertEquals(40, serial.size());
+        assertEquals(serial, parallel);
+    }
+
+    @Test
+    public void testParallelFetchUnordered() throws Exception {
+        Properties properties = pigServer.getPigContext().getProperties();
+        properties.setProperty(PigConfiguration.PIG_FETCH_PARALLELISM, "3");
+        properties.setProperty(PigConfiguration.PIG_FETCH_ORDERED, "false");
+
+        pigServer.registerQuery("A = load '" + Util.encodeEscape(splitInputDir) + "' as (x:int);");
+        pigServer.registerQuery("B = limit A 1000;");
+        assertTrue(isFetched("B"));
+        Iterator<Tuple> it = pigServer.openIterator("B");
+        List<Tuple> expected = Lists.newArrayList();
+        for (int i = 0; i < 100; i++) {
+            expected.add(tuple(i));
+        }
+        Util.checkQueryOutputsAfterSort(it, expected);
+    }
+
+    @Test
+    public void testFetchReplicatedJoin() throws Exception {
+        pigServer.registerQuery("A = load '" + Util.encodeEscape(inputFile2.getAbsolutePath()) + "' " +
+                "using PigStorage(' ') as (a:int, b:int, c:chararray);");
+        pigServer.registerQuery("B = load '" + Util.encodeEscape(inputFile2.getAbsolutePath()) + "' " +
+                "using PigStorage(' ') as (a:int, b:int, c:chararray);");
+        pigServer.registerQuery("C = join A by a, B by a using 'replicated';");
+        pigServer.registerQuery("D = limit C 3;");
+        assertFalse(isFetched("D"));
+
+        Properties properties = pigServer.getPigContext().getProperties();
+        properties.setProperty(PigConfiguration.PIG_FETCH_REPLICATED_MAX_BYTES, "10");
+        // The replicated input is larger than the threshold
+        assertFalse(isFetched("D"));
+
+        properties.setProperty(PigConfiguration.PIG_FETCH_REPLICATED_MAX_BYTES, "1000000");
+        assertTrue(isFetched("D"));
+        Iterator<Tuple> it = pigServer.openIterator("D");
+        int count = 0;
+        while (it.hasNext()) {
+            Tuple t = it.next();
+            assertEquals(t.get(0), t.get(3));
+            count++;
+        }
+        assertEquals(3, count);
+    }
+
+    private boolean isFetched(String alias) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        pigServer.explain(alias, new PrintStream(baos));
+        return baos.toString().contains("No MR jobs. Fetch only.");
+    }
+
+    private List<Tuple> fetchSplitInput() throws Exception {
+        pigServer.registerQuery("A = load '" + Util.encodeEscape(splitInputDir) + "' as (x:int);");
+        pigServer.registerQuery("B = foreach A generate x * 2;");
+        pigServer.registerQuery("C = limit B 40;");
+        assertTrue(isFetched("C"));
+        Iterator<Tuple> it = pigServer.openIterator("C");
+        List<Tuple> result = Lists.newArrayList();
+        while (it.hasNext()) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
     @AfterClass
     public static void tearDownOnce() throws Exception {
         inputFile1.delete();
         inputFile2.delete();
+        FileUtils.deleteDirectory(new File(splitInputDir));
     }
 
 }
@@ -46,6 +46,7 @@ import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.filecache.DistributedCache;
@@ -140,6 +141,40 @@ public class TestJobControlCompiler {
         jarContainsFileNamed(new File(fileClassPaths[0].toUri().getPath()), testUDFFileName));
   }
 
+    /**
+     * Tests that the jars shipped by a job, including the one built for the
+     * script files, are reused by the next jobs while their contents do not
+     * change
+     */
+    @Test
+    public void testJarsShippedOnce() throws Exception {
+        File tmpFile = File.createTempFile("Some_", ".jar");
+        tmpFile.deleteOnExit();
+        createTestJar(tmpFile);
+        File scriptFile = File.createTempFile("script", ".py");
+        scriptFile.deleteOnExit();
+        FileUtils.writeStringToFile(scriptFile, "def f(x):\n    return x\n");
+
+        PigServer pigServer = new PigServer(ExecType.MAPREDUCE);
+        PigContext pigContext = pigServer.getPigContext();
+        pigContext.connect();
+        pigContext.addJar(tmpFile.getAbsolutePath());
+        pigContext.addScriptFile("script.py", scriptFile.getAbsolutePath());
+
+        Path[] first = DistributedCache.getFileClassPaths(compileTestJob(pigContext, CONF));
+        // Same contents with another modification time
+        scriptFile.setLastModified(scriptFile.lastModified() - 10000);
+        Path[] second = DistributedCache.getFileClassPaths(compileTestJob(pigContext, CONF));
+        Assert.assertEquals(Arrays.asList(first), Arrays.asList(second));
+        Assert.assertTrue(Arrays.toString(first), first[first.length - 1].getName().startsWith("PigScriptUDF-"));
+
+        // Changed contents are shipped again
+        FileUtils.writeStringToFile(scriptFile, "def f(x):\n    return x + 1\n");
+        Path[] third = DistributedCache.getFileClassPaths(compileTestJob(pigContext, CONF));
+        Assert.assertEquals(first[0], third[0]);
+        Assert.assertFalse(first[first.length - 1].equals(third[third.length - 1]));
+    }
+
     private static List<File> createFiles(String... extensions)
             throws IOException {
         List<File> files = new ArrayList<File>();
@@ -265,6 +300,48 @@ public class TestJobControlCompiler {
           return f;
       }
 
+    @Test
+    public void testCompileSuccessors() throws Exception {
+        PigServer pigServer = new PigServer(ExecType.MAPREDUCE);
+        PigContext pigContext = pigServer.getPigContext();
+        pigContext.connect();
+        JobControlCompiler jobControlCompiler = new JobControlCompiler(pigContext, CONF);
+        MROperPlan plan = new MROperPlan();
+        MapReduceOper first = new MapReduceOper(new OperatorKey("test", 1));
+        MapReduceOper second = new MapReduceOper(new OperatorKey("test", 2));
+        MapReduceOper successor = new MapReduceOper(new OperatorKey("test", 3));
+        plan.add(first);
+        plan.add(second);
+        plan.add(successor);
+        plan.connect(first, successor);
+
+        JobControl jobControl = jobControlCompiler.compile(plan, "test");
+        Assert.assertEquals(2, jobControl.getWaitingJobs().size());
+        org.apache.hadoop.mapred.jobcontrol.Job firstJob = null;
+        for (Map.Entry<org.apache.hadoop.mapred.jobcontrol.Job, MapReduceOper> entry
+                : jobControlCompiler.getJobMroMap().entrySet()) {
+            if (entry.getValue() == first) {
+                firstJob = entry.getKey();
+            }
+        }
+        Assert.assertNotNull(firstJob);
+
+        // Nothing new can run until first completes
+        Assert.assertTrue(jobControlCompiler.compileSuccessors(
+                new ArrayList<org.apache.hadoop.mapred.jobcontrol.Job>()).isEmpty());
+        List<org.apache.hadoop.mapred.jobcontrol.Job> newJobs =
+                jobControlCompiler.compileSuccessors(Arrays.asList(firstJob));
+        Assert.assertEquals(1, newJobs.size());
+        Assert.assertSame(successor, jobControlCompiler.getJobMroMap().get(newJobs.get(0)));
+        Assert.assertEquals(2, plan.size());
+        // Jobs already removed from the plan are skipped
+        Assert.assertTrue(jobControlCompiler.compileSuccessors(Arrays.asList(firstJob)).isEmpty());
+
+        Assert.assertEquals(3, jobControlCompiler.updateMROpPlan(
+                new ArrayList<org.apache.hadoop.mapred.jobcontrol.Job>()));
+        Assert.assertEquals(0, plan.size());
+    }
+
     @Test
     public void testEstimateNumberOfReducers() throws Exception {
         Assert.assertEquals(2, JobControlCompiler.estimateNumberOfReducers(
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.pig.ExecType;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.PigServer;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.PhysicalOperator;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLoad;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLocalRearrange;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.util.PlanHelper;
+import org.apache.pig.data.Tuple;
+import org.apache.pig.impl.PigContext;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestJoinInputOrderSetter {
+    private static final String INPUT_DIR = Util.getTestDirectory(TestJoinInputOrderSetter.class);
+    private static final String LARGE = INPUT_DIR + "/large";
+    private static final String SMALL = INPUT_DIR + "/small";
+    private static final String TINY = INPUT_DIR + "/tiny";
+
+    private PigServer pigServer;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        String[] large = new String[100];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (i % 5) + "\tlarge" + i;
+        }
+        Util.createFile(LARGE, large);
+        Util.createFile(SMALL, new String[] {"1\tsmall1", "2\tsmall2", "2\tsmall22", "3\tsmall3"});
+        Util.createFile(TINY, new String[] {"2\tt"});
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() throws Exception {
+        FileUtils.deleteDirectory(new File(INPUT_DIR));
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(PigConfiguration.PIG_OPT_JOIN_ORDER, "true");
+        pigServer = new PigServer(new PigContext(ExecType.LOCAL, props));
+    }
+
+    @Test
+    public void testLargestInputStreamed() throws Exception {
+        PhysicalPlan pp = Util.buildPp(pigServer,
+                "a = load '" + LARGE + "' as (x:int, y:chararray);" +
+                "b = load '" + SMALL + "' as (x:int, s:chararray);" +
+                "c = load '" + TINY + "' as (x:int, t:chararray);" +
+                "d = join a by x, b by x, c by x;" +
+                "store d into 'output';");
+        assertEquals(2, getIndex(pp, LARGE));
+        assertEquals(0, getIndex(pp, SMALL));
+        assertEquals(1, getIndex(pp, TINY));
+    }
+
+    @Test
+    public void testLargestInputAlreadyLast() throws Exception {
+        PhysicalPlan pp = Util.buildPp(pigServer,
+                "a = load '" + SMALL + "' as (x:int, s:chararray);" +
+                "b = load '" + LARGE + "' as (x:int, y:chararray);" +
+                "c = join a by x, b by x;" +
+                "store c into 'output';");
+        assertEquals(0, getIndex(pp, SMALL));
+        assertEquals(1, getIndex(pp, LARGE));
+    }
+
+    @Test
+    public void testOuterInputNotStreamed() throws Exception {
+        PhysicalPlan pp = Util.buildPp(pigServer,
+                "a = load '" + LARGE + "' as (x:int, y:chararray);" +
+                "b = load '" + SMALL + "' as (x:int, s:chararray);" +
+                "c = join a by x full outer, b by x;" +
+                "store c into 'output';");
+        assertEquals(0, getIndex(pp, LARGE));
+        assertEquals(1, getIndex(pp, SMALL));
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        pigServer.getPigContext().getProperties().setProperty(PigConfiguration.PIG_OPT_JOIN_ORDER, "false");
+        PhysicalPlan pp = Util.buildPp(pigServer,
+                "a = load '" + LARGE + "' as (x:int, y:chararray);" +
+                "b = load '" + SMALL + "' as (x:int, s:chararray);" +
+                "c = join a by x, b by x;" +
+                "store c into 'output';");
+        assertEquals(0, getIndex(pp, LARGE));
+        assertEquals(1, getIndex(pp, SMALL));
+    }
+
+    @Test
+    public void testJoinResult() throws Exception {
+        pigServer.registerQuery("a = load '" + LARGE + "' as (x:int, y:chararray);");
+        pigServer.registerQuery("a = filter a by y == 'large2' or y == 'large7';");
+        pigServer.registerQuery("b = load '" + SMALL + "' as (x:int, s:chararray);");
+        pigServer.registerQuery("c = load '" + TINY + "' as (x:int, t:chararray);");
+        pigServer.registerQuery("d = join a by x, b by x, c by x;");
+        Iterator<Tuple> iter = pigServer.openIterator("d");
+        List<Tuple> expected = Util.getTuplesFromConstantTupleStrings(new String[] {
+                "(2,'large2',2,'small2',2,'t')", "(2,'large2',2,'small22',2,'t')",
+                "(2,'large7',2,'small2',2,'t')", "(2,'large7',2,'small22',2,'t')"});
+        Util.checkQueryOutputs(iter, expected, true);
+    }
+
+    @Test
+    public void testLeftOuterJoinResult() throws Exception {
+        pigServer.registerQuery("a = load '" + LARGE + "' as (x:int, y:chararray);");
+        pigServer.registerQuery("a = filter a by y == 'large2' or y == 'large4';");
+        pigServer.registerQuery("b = load '" + SMALL + "' as (x:int, s:chararray);");
+        pigServer.registerQuery("c = join a by x left outer, b by x;");
+        Iterator<Tuple> iter = pigServer.openIterator("c");
+        List<Tuple> expected = Util.getTuplesFromConstantTupleStrings(new String[] {
+                "(2,'large2',2,'small2')", "(2,'large2',2,'small22')",
+                "(4,'large4',null,null)"});
+        Util.checkQueryOutputs(iter, expected, true);
+    }
+
+    private int getIndex(PhysicalPlan pp, String location) throws Exception {
+        for (POLoad load : PlanHelper.getPhysicalOperators(pp, POLoad.class)) {
+            if (load.getLFile().getFileName().endsWith(location)) {
+                PhysicalOperator op = load;
+                while (!(op instanceof POLocalRearrange)) {
+                    op = pp.getSuccessors(op).get(0);
+                }
+                return ((POLocalRearrange) op).getIndex();
+            }
+        }
+        throw new AssertionError("Load of " + location + " not found");
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.pig.ExecType;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.PigServer;
+import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.MRConfiguration;
+import org.apache.pig.data.Tuple;
+import org.apache.pig.impl.util.Utils;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestLocalParallelism {
+    private static final String INPUT_DIR = Util.getTestDirectory(TestLocalParallelism.class);
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            String[] input = new String[25];
+            for (int j = 0; j < input.length; j++) {
+                input[j] = Integer.toString(i * input.length + j);
+            }
+            Util.createFile(INPUT_DIR + "/input/part-" + i, input);
+        }
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() throws Exception {
+        FileUtils.deleteDirectory(new File(INPUT_DIR));
+    }
+
+    @Test
+    public void testGetLocalParallelism() throws Exception {
+        Properties props = new Properties();
+        assertEquals(1, Utils.getLocalParallelism(props));
+        props.setProperty(PigConfiguration.PIG_LOCAL_PARALLELISM, "8");
+        assertEquals(8, Utils.getLocalParallelism(props));
+        props.setProperty(PigConfiguration.PIG_LOCAL_PARALLELISM, "0");
+        assertEquals(Runtime.getRuntime().availableProcessors(), Utils.getLocalParallelism(props));
+    }
+
+    @Test
+    public void testLocalJobRunnerParallelism() throws Exception {
+        Assume.assumeTrue("Only applies to mapreduce", Util.getLocalTestMode() == ExecType.LOCAL);
+        Properties props = new Properties();
+        props.setProperty(PigConfiguration.PIG_LOCAL_PARALLELISM, "4");
+        PigServer pigServer = new PigServer(ExecType.LOCAL, props);
+        Properties properties = pigServer.getPigContext().getProperties();
+        assertEquals("4", properties.getProperty(MRConfiguration.LOCAL_MAP_TASKS_MAXIMUM));
+        assertEquals("4", properties.getProperty(MRConfiguration.LOCAL_REDUCE_TASKS_MAXIMUM));
+
+        // User settings are left alone
+        props.setProperty(MRConfiguration.LOCAL_MAP_TASKS_MAXIMUM, "2");
+        pigServer = new PigServer(ExecType.LOCAL, props);
+        properties = pigServer.getPigContext().getProperties();
+        assertEquals("2", properties.getProperty(MRConfiguration.LOCAL_MAP_TASKS_MAXIMUM));
+    }
+
+    @Test
+    public void testParallelResult() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(PigConfiguration.PIG_LOCAL_PARALLELISM, "4");
+        props.setProperty(PigConfiguration.PIG_SPLIT_COMBINATION, "false");
+        PigServer pigServer = new PigServer(Util.getLocalTestMode(), props);
+        pigServer.registerQuery("a = load '" + INPUT_DIR + "/input' as (x:int);");
+        pigServer.registerQuery("b = filter a by x % 10 == 0;");
+        pigServer.registerQuery("c = group b all;");
+        pigServer.registerQuery("d = foreach c generate COUNT(b), SUM(b.x);");
+        Iterator<Tuple> iter = pigServer.openIterator("d");
+        List<Tuple> expected = new ArrayList<Tuple>();
+        expected.add(Util.buildTuple(10L, 450L));
+        Util.checkQueryOutputs(iter, expected);
+    }
+}
@@ -37,6 +37,7 @@ import org.apache.pig.ComparisonFunc;
 import org.apache.pig.ExecType;
 import org.apache.pig.FuncSpec;
 import org.apache.pig.IndexableLoadFunc;
+import org.apache.pig.PigConfiguration;
 import org.apache.pig.PigServer;
 import org.apache.pig.backend.executionengine.ExecException;
 import org.apache.pig.backend.hadoop.executionengine.fetch.FetchOptimizer;
@@ -64,6 +65,7 @@ import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOpe
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POSortedDistinct;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POSplit;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POStore;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POTopN;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POUnion;
 import org.apache.pig.builtin.AVG;
 import org.apache.pig.builtin.COUNT;
@@ -122,6 +124,7 @@ import org.junit.runner.RunWith;
     "testMRCompilerErr1",
     "testNumReducersInLimit",
     "testNumReducersInLimitWithParallel",
+    "testNumReducersInTopN",
     "testUDFInJoin",
     "testMergeJoin",
     "testMergeJoinWithIndexableLoadFunc",
@@ -175,6 +178,7 @@ public class TestMRCompiler {
         // Set random seed to generate deterministic temporary paths
         FileLocalizer.setR(new Random(1331L));
         NodeIdGenerator.reset("");
+        pc.getProperties().remove(PigConfiguration.PIG_SORT_TOPN_MAX_LIMIT);
         pigServer = new PigServer(pc);
         pigServerMR = new PigServer(pcMR);
     }
@@ -951,6 +955,7 @@ public class TestMRCompiler {
     	"c = limit b 10;" +
     	"store c into 'output';";
 
+    	pc.getProperties().setProperty(PigConfiguration.PIG_SORT_TOPN_MAX_LIMIT, "0");
     	PhysicalPlan pp = Util.buildPp(pigServer, query);
     	MROperPlan mrPlan = Util.buildMRPlan(pp, pc);
     	MapReduceOper mrOper = mrPlan.getRoots().get(0);
@@ -973,6 +978,7 @@ public class TestMRCompiler {
     	"b = order a by $0 parallel 2;" +
     	"c = limit b 10;" + "store c into 'output';";
 
+    	pc.getProperties().setProperty(PigConfiguration.PIG_SORT_TOPN_MAX_LIMIT, "0");
     	PhysicalPlan pp = Util.buildPp(pigServerMR, query);
     	MROperPlan mrPlan = Util.buildMRPlan(pp, pc);
 
@@ -990,6 +996,31 @@ public class TestMRCompiler {
     	assertEquals(4, count);
     }
 
+    /**
+     * Test to ensure that an order by followed by a small limit keeps the first
+     * records of each map and merges them in a single reducer, whatever the
+     * parallelism of the order by
+     */
+    @Test
+    public void testNumReducersInTopN() throws Exception {
+        String query = "a = load 'input';" +
+        "b = order a by $0 parallel 2;" +
+        "c = limit b 10;" + "store c into 'output';";
+
+        PhysicalPlan pp = Util.buildPp(pigServerMR, query);
+        MROperPlan mrPlan = Util.buildMRPlan(pp, pc);
+
+        LimitAdjuster la = new LimitAdjuster(mrPlan, pc);
+        la.visit();
+        la.adjust();
+
+        assertEquals(1, mrPlan.size());
+        MapReduceOper mrOper = mrPlan.getRoots().get(0);
+        assertEquals(1, mrOper.getRequestedParallelism());
+        assertTrue(mrOper.isLimitAfterSort());
+        assertTrue(mrOper.mapPlan.getLeaves().get(0).getInputs().get(0) instanceof POTopN);
+    }
+
     @Test
     public void testUDFInJoin() throws Exception {
         String query = "a = load 'input1' using BinStorage();" +
@@ -1105,6 +1136,7 @@ public class TestMRCompiler {
         "c = limit b 7;" + "store c into 'output' using "
                 + PigStorageNoDefCtor.class.getName() + "('\t');";
 
+        pc.getProperties().setProperty(PigConfiguration.PIG_SORT_TOPN_MAX_LIMIT, "0");
         PhysicalPlan pp = Util.buildPp(pigServerMR, query);
         MROperPlan mrPlan = Util.buildMRPlan(pp, pc);
 
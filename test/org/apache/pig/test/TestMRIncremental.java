@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.pig.ExecType;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.PigServer;
+import org.apache.pig.backend.executionengine.ExecJob;
+import org.apache.pig.data.Tuple;
+import org.apache.pig.tools.pigstats.InputStats;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestMRIncremental {
+    private static final String TEST_DIR = Util.getTestDirectory(TestMRIncremental.class);
+    private static final String INPUT = TEST_DIR + "/input";
+    private static final String STATE_DIR = TEST_DIR + "/state";
+
+    private long recordsRead;
+
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue("Only applies to mapreduce", Util.getLocalTestMode() == ExecType.LOCAL);
+        FileUtils.deleteDirectory(new File(TEST_DIR));
+        Util.createFile(INPUT + "/part-1", new String[] {"a\t1", "b\t2", "a\t3"});
+        Util.createFile(INPUT + "/part-2", new String[] {"c\t1", "b\t4"});
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(new File(TEST_DIR));
+    }
+
+    @Test
+    public void testProcessNewFiles() throws Exception {
+        String[] expected = new String[] {"(a,2,4,2.0)", "(b,2,6,3.0)", "(c,1,1,1.0)"};
+
+        // State job and job reading the state
+        assertEquals(2, run("out1", expected));
+        assertEquals(5, recordsRead);
+
+        // No new file, only the state is read
+        assertEquals(1, run("out2", expected));
+        assertEquals(0, recordsRead);
+
+        // Only the new file is read, and merged with the state
+        Util.createFile(INPUT + "/part-3", new String[] {"c\t5", "d\t2"});
+        expected = new String[] {"(a,2,4,2.0)", "(b,2,6,3.0)", "(c,2,6,3.0)", "(d,1,2,2.0)"};
+        assertEquals(2, run("out3", expected));
+        assertEquals(2, recordsRead);
+
+        // A processed file changed, all the files are read again
+        Util.createFile(INPUT + "/part-1", new String[] {"a\t1", "b\t2"});
+        expected = new String[] {"(a,1,1,1.0)", "(b,2,6,3.0)", "(c,2,6,3.0)", "(d,1,2,2.0)"};
+        assertEquals(2, run("out4", expected));
+        assertEquals(6, recordsRead);
+        assertEquals(1, run("out5", expected));
+    }
+
+    @Test
+    public void testNotAlgebraic() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(PigConfiguration.PIG_INCREMENTAL_ENABLED, "true");
+        props.setProperty(PigConfiguration.PIG_INCREMENTAL_DIR, STATE_DIR);
+        PigServer pigServer = new PigServer(ExecType.LOCAL, props);
+        pigServer.registerQuery("A = load '" + Util.encodeEscape(INPUT) + "' as (k:chararray, v:int);");
+        pigServer.registerQuery("B = group A by k;");
+        pigServer.registerQuery("C = foreach B generate group, A;");
+        ExecJob job = pigServer.store("C", TEST_DIR + "/out");
+        assertEquals(ExecJob.JOB_STATUS.COMPLETED, job.getStatus());
+        assertEquals(1, job.getStatistics().getJobGraph().size());
+        assertEquals(false, new File(STATE_DIR).exists());
+    }
+
+    private int run(String output, String[] expected) throws Exception {
+        Properties props = new Properties();
+        props.setProperty(PigConfiguration.PIG_INCREMENTAL_ENABLED, "true");
+        props.setProperty(PigConfiguration.PIG_INCREMENTAL_DIR, STATE_DIR);
+        PigServer pigServer = new PigServer(ExecType.LOCAL, props);
+        pigServer.registerQuery("A = load '" + Util.encodeEscape(INPUT) + "' as (k:chararray, v:int);");
+        pigServer.registerQuery("B = group A by k;");
+        pigServer.registerQuery("C = foreach B generate group, COUNT(A), SUM(A.v), AVG(A.v);");
+        ExecJob job = pigServer.store("C", TEST_DIR + "/" + output);
+        assertEquals(ExecJob.JOB_STATUS.COMPLETED, job.getStatus());
+        List<String> results = new ArrayList<String>();
+        for (Iterator<Tuple> it = job.getResults(); it.hasNext();) {
+            results.add(it.next().toString());
+        }
+        Collections.sort(results);
+        assertEquals(Arrays.asList(expected), results);
+
+        recordsRead = 0;
+        for (InputStats input : job.getStatistics().getInputStats()) {
+            if (input.getLocation().startsWith(INPUT) || input.getLocation().contains("/input/")) {
+                recordsRead += input.getNumberRecords();
+            }
+        }
+        return job.getStatistics().getJobGraph().size();
+    }
+}
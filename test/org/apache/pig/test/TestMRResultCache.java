@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.pig.ExecType;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.PigServer;
+import org.apache.pig.backend.executionengine.ExecJob;
+import org.apache.pig.data.Tuple;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestMRResultCache {
+    private static final String TEST_DIR = Util.getTestDirectory(TestMRResultCache.class);
+    private static final String INPUT = TEST_DIR + "/input";
+    private static final String CACHE_DIR = TEST_DIR + "/cache";
+
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue("Only applies to mapreduce", Util.getLocalTestMode() == ExecType.LOCAL);
+        FileUtils.deleteDirectory(new File(TEST_DIR));
+        Util.createFile(INPUT, new String[] {"a\t1", "b\t2", "a\t3", "c\t1"});
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(new File(TEST_DIR));
+    }
+
+    @Test
+    public void testReuseResults() throws Exception {
+        String[] expected = new String[] {"(c,1)", "(b,2)", "(a,4)"};
+
+        // group, sampling and order by jobs
+        assertEquals(3, run("out1", expected));
+        File[] entries = new File(CACHE_DIR).listFiles();
+        assertEquals(1, entries.length);
+
+        // The group by job is replaced by its cached result
+        assertEquals(2, run("out2", expected));
+        assertEquals(1, new File(CACHE_DIR).listFiles().length);
+
+        // Changed input
+        Util.createFile(INPUT, new String[] {"a\t1", "b\t2", "a\t3", "c\t1", "c\t5"});
+        expected = new String[] {"(b,2)", "(a,4)", "(c,6)"};
+        assertEquals(3, run("out3", expected));
+        assertEquals(2, new File(CACHE_DIR).listFiles().length);
+
+        // Expired entries are removed
+        for (File entry : new File(CACHE_DIR).listFiles()) {
+            assertTrue(entry.setLastModified(System.currentTimeMillis() - 20000));
+        }
+        Properties props = new Properties();
+        props.setProperty(PigConfiguration.PIG_RESULT_CACHE_TTL, "10");
+        assertEquals(3, run("out4", expected, props));
+        assertEquals(1, new File(CACHE_DIR).listFiles().length);
+    }
+
+    private int run(String output, String[] expected) throws Exception {
+        return run(output, expected, new Properties());
+    }
+
+    private int run(String output, String[] expected, Properties props) throws Exception {
+        props.setProperty(PigConfiguration.PIG_RESULT_CACHE_ENABLED, "true");
+        props.setProperty(PigConfiguration.PIG_RESULT_CACHE_DIR, CACHE_DIR);
+        PigServer pigServer = new PigServer(ExecType.LOCAL, props);
+        pigServer.registerQuery("A = load '" + Util.encodeEscape(INPUT) + "' as (k:chararray, v:int);");
+        pigServer.registerQuery("B = group A by k;");
+        pigServer.registerQuery("C = foreach B generate group, SUM(A.v) as s;");
+        pigServer.registerQuery("D = order C by s;");
+        ExecJob job = pigServer.store("D", TEST_DIR + "/" + output);
+        assertEquals(ExecJob.JOB_STATUS.COMPLETED, job.getStatus());
+        List<String> results = new ArrayList<String>();
+        for (Iterator<Tuple> it = job.getResults(); it.hasNext();) {
+            results.add(it.next().toString());
+        }
+        assertEquals(Arrays.asList(expected), results);
+        return job.getStatistics().getJobGraph().size();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.PigServer;
+import org.apache.pig.backend.executionengine.ExecJob;
+import org.apache.pig.backend.hadoop.executionengine.PhysicalPlanCache;
+import org.apache.pig.data.Tuple;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestPhysicalPlanCache {
+    private static final String TEST_DIR = Util.getTestDirectory(TestPhysicalPlanCache.class);
+    private static final String INPUT = TEST_DIR + "/input";
+    private static final String OUTPUT = TEST_DIR + "/output";
+    private static final String CACHE_DIR = TEST_DIR + "/cache";
+
+    private StringWriter log;
+
+    @Before
+    public void setUp() throws Exception {
+        FileUtils.deleteDirectory(new File(TEST_DIR));
+        Util.createFile(INPUT, new String[] {"a\t1\tx", "b\t2\ty", "a\t3\tz", "c\t1\tx"});
+        log = new StringWriter();
+        Util.createLogAppender("TestPhysicalPlanCache", log, PhysicalPlanCache.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Util.removeLogAppender("TestPhysicalPlanCache", PhysicalPlanCache.class);
+        FileUtils.deleteDirectory(new File(TEST_DIR));
+    }
+
+    @Test
+    public void testReusePlan() throws Exception {
+        // Only two of the columns are loaded
+        String script = "A = load '" + Util.encodeEscape(INPUT) + "' as (k:chararray, v:int, w:chararray);"
+                + "B = filter A by v > 1;"
+                + "C = group B by k;"
+                + "D = foreach C generate group, SUM(B.v);";
+        String[] expected = new String[] {"(a,3)", "(b,2)"};
+
+        run(script, expected);
+        assertEquals(1, new File(CACHE_DIR).listFiles().length);
+        assertEquals(0, countHits());
+
+        run(script, expected);
+        assertEquals(1, new File(CACHE_DIR).listFiles().length);
+        assertEquals(1, countHits());
+
+        // Different script
+        run(script.replace("v > 1", "v > 2"), new String[] {"(a,3)"});
+        assertEquals(2, new File(CACHE_DIR).listFiles().length);
+        assertEquals(1, countHits());
+    }
+
+    @Test
+    public void testInvalidEntry() throws Exception {
+        String script = "A = load '" + Util.encodeEscape(INPUT) + "' as (k:chararray, v:int);"
+                + "C = group A by k;"
+                + "D = foreach C generate group, COUNT(A);";
+        String[] expected = new String[] {"(a,2)", "(b,1)", "(c,1)"};
+
+        run(script, expected);
+        File[] entries = new File(CACHE_DIR).listFiles();
+        assertEquals(1, entries.length);
+        FileUtils.writeStringToFile(entries[0], "invalid");
+
+        // The script is compiled again
+        run(script, expected);
+        assertEquals(0, countHits());
+        assertEquals(1, new File(CACHE_DIR).listFiles().length);
+        run(script, expected);
+        assertEquals(1, countHits());
+    }
+
+    private int countHits() {
+        int hits = 0;
+        for (String line : log.toString().split("\n")) {
+            if (line.contains("Using the physical plan compiled by a previous run")) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    private void run(String script, String[] expected) throws Exception {
+        FileUtils.deleteDirectory(new File(OUTPUT));
+        Properties props = new Properties();
+        props.setProperty(PigConfiguration.PIG_PLAN_CACHE_ENABLED, "true");
+        props.setProperty(PigConfiguration.PIG_PLAN_CACHE_DIR, CACHE_DIR);
+        PigServer pigServer = new PigServer(Util.getLocalTestMode(), props);
+        pigServer.setBatchOn();
+        Util.registerMultiLineQuery(pigServer, script
+                + "store D into '" + Util.encodeEscape(OUTPUT) + "';");
+        List<ExecJob> jobs = pigServer.executeBatch();
+        assertEquals(ExecJob.JOB_STATUS.COMPLETED, jobs.get(0).getStatus());
+        List<String> results = new ArrayList<String>();
+        for (Iterator<Tuple> it = jobs.get(0).getResults(); it.hasNext();) {
+            results.add(it.next().toString());
+        }
+        Collections.sort(results);
+        assertEquals(Arrays.asList(expected), results);
+    }
+}
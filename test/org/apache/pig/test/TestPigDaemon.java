@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.pig.tools.daemon.PigDaemon;
+import org.apache.pig.tools.daemon.PigDaemonClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestPigDaemon {
+    private static final String TEST_DIR = Util.getTestDirectory(TestPigDaemon.class);
+    private static final File DAEMON_FILE = new File(TEST_DIR, "daemon");
+
+    private PigDaemon daemon;
+    private Thread thread;
+
+    @Before
+    public void setUp() throws Exception {
+        FileUtils.deleteDirectory(new File(TEST_DIR));
+        new File(TEST_DIR).mkdirs();
+        System.setProperty(PigDaemon.DAEMON_FILE, DAEMON_FILE.getAbsolutePath());
+        daemon = new PigDaemon(DAEMON_FILE);
+        thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    daemon.serve();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        thread.start();
+        while (!DAEMON_FILE.exists() || DAEMON_FILE.length() == 0) {
+            Thread.sleep(10);
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        daemon.close();
+        thread.join();
+        System.clearProperty(PigDaemon.DAEMON_FILE);
+        FileUtils.deleteDirectory(new File(TEST_DIR));
+    }
+
+    @Test
+    public void testRunScript() throws Exception {
+        String input = TEST_DIR + "/input";
+        Util.createLocalInputFile(input, new String[] {"a\t1", "b\t2", "a\t3"});
+        String script = "A = load '" + Util.encodeEscape(input) + "' as (k:chararray, v:int);"
+                + "B = group A by k;"
+                + "C = foreach B generate group, SUM(A.v);"
+                + "dump C;";
+
+        // Twice, the second run reuses the state of the first one
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            Integer rc = PigDaemonClient.run(new String[] {"-x", "local", "-e", script},
+                    new PrintStream(out, true), new PrintStream(err, true));
+            assertEquals(Integer.valueOf(0), rc);
+            assertTrue(out.toString().contains("(a,4)"));
+            assertTrue(out.toString().contains("(b,2)"));
+        }
+
+        // Failure of the script
+        Integer rc = PigDaemonClient.run(new String[] {"-x", "local", "-e", "dump X;"},
+                new PrintStream(new ByteArrayOutputStream()), new PrintStream(new ByteArrayOutputStream()));
+        assertTrue(rc != 0);
+    }
+
+    @Test
+    public void testRejected() throws Exception {
+        String content = FileUtils.readFileToString(DAEMON_FILE, "UTF-8");
+        FileUtils.writeStringToFile(DAEMON_FILE, content.split(" ")[0] + " invalid", "UTF-8");
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        // The command is run without the daemon
+        assertNull(PigDaemonClient.run(new String[] {"-x", "local", "-e", "dump X;"},
+                new PrintStream(new ByteArrayOutputStream()), new PrintStream(err, true)));
+        assertTrue(err.toString().contains("invalid token"));
+
+        FileUtils.deleteQuietly(DAEMON_FILE);
+        assertNull(PigDaemonClient.run(new String[] {"-x", "local", "-e", "dump X;"},
+                new PrintStream(new ByteArrayOutputStream()), new PrintStream(err, true)));
+    }
+}
@@ -48,10 +48,13 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapreduce.Job;
 import org.apache.pig.ExecType;
 import org.apache.pig.PigConfiguration;
 import org.apache.pig.PigServer;
+import org.apache.pig.ResourceSchema;
 import org.apache.pig.backend.hadoop.datastorage.ConfigurationUtil;
+import org.apache.pig.builtin.PigStorage;
 import org.apache.pig.data.DataType;
 import org.apache.pig.data.Tuple;
 import org.apache.pig.impl.PigContext;
@@ -465,6 +468,39 @@ public class TestPigServer {
         assertNull(dumpedSchema);
     }
 
+    @Test
+    public void testDescribeCached() throws Throwable {
+        PigServer pig = new PigServer(cluster.getExecType(), properties);
+        pig.registerQuery("a = load 'a' using " + SchemaCountingLoader.class.getName() + "();");
+        pig.registerQuery("b = foreach a generate f1;");
+        Schema expectedSchema = Utils.getSchemaFromString("f1:int");
+        assertEquals(expectedSchema, pig.dumpSchema("b"));
+        int calls = SchemaCountingLoader.calls;
+
+        // The loader is not asked for its schema again
+        assertEquals(expectedSchema, pig.dumpSchema("b"));
+        assertEquals(calls, SchemaCountingLoader.calls);
+        pig.registerQuery("c = foreach a generate f2;");
+        calls = SchemaCountingLoader.calls;
+        assertEquals(expectedSchema, pig.dumpSchema("b"));
+        assertEquals(calls, SchemaCountingLoader.calls);
+
+        // Redefined alias
+        pig.registerQuery("b = foreach a generate f2;");
+        assertEquals(Utils.getSchemaFromString("f2:chararray"), pig.dumpSchema("b"));
+        assertEquals(Utils.getSchemaFromString("f2:chararray"), pig.dumpSchema("@"));
+    }
+
+    public static class SchemaCountingLoader extends PigStorage {
+        static int calls = 0;
+
+        @Override
+        public ResourceSchema getSchema(String location, Job job) throws IOException {
+            calls++;
+            return new ResourceSchema(Utils.getSchemaFromString("f1:int, f2:chararray"));
+        }
+    }
+
     @Test
     public void testDescribeCogroup() throws Throwable {
         PigServer pig = new PigServer(cluster.getExecType(), properties);
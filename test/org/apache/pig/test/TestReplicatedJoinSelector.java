@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.pig.ExecType;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.PigServer;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POFRJoin;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POPackage;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.util.PlanHelper;
+import org.apache.pig.data.Tuple;
+import org.apache.pig.impl.PigContext;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestReplicatedJoinSelector {
+    private static final String INPUT_DIR = Util.getTestDirectory(TestReplicatedJoinSelector.class);
+    private static final String FACT = INPUT_DIR + "/fact";
+    private static final String DIM1 = INPUT_DIR + "/dim1";
+    private static final String DIM2 = INPUT_DIR + "/dim2";
+
+    private PigServer pigServer;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        String[] fact = new String[1000];
+        for (int i = 0; i < fact.length; i++) {
+            fact[i] = i + "\t" + (i % 3);
+        }
+        Util.createFile(FACT, fact);
+        Util.createFile(DIM1, new String[] {"1\tone", "2\ttwo", "3\tthree"});
+        Util.createFile(DIM2, new String[] {"0\tzero", "1\tuno", "2\tdos"});
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() throws Exception {
+        FileUtils.deleteDirectory(new File(INPUT_DIR));
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(PigConfiguration.PIG_AUTO_REPLICATED_JOIN, "true");
+        props.setProperty(PigConfiguration.PIG_AUTO_REPLICATED_JOIN_MAX_BYTES, "1024");
+        pigServer = new PigServer(new PigContext(ExecType.LOCAL, props));
+    }
+
+    @Test
+    public void testJoinChainReplicated() throws Exception {
+        PhysicalPlan pp = Util.buildPp(pigServer,
+                "f = load '" + FACT + "' as (id:int, k:int);" +
+                "d1 = load '" + DIM1 + "' as (id:int, name:chararray);" +
+                "d2 = load '" + DIM2 + "' as (k:int, label:chararray);" +
+                "j1 = join f by id, d1 by id;" +
+                "j1 = filter j1 by name != 'two';" +
+                "j2 = join j1 by f::k, d2 by k;" +
+                "store j2 into 'output';");
+        assertEquals(2, PlanHelper.getPhysicalOperators(pp, POFRJoin.class).size());
+        assertEquals(0, PlanHelper.getPhysicalOperators(pp, POPackage.class).size());
+    }
+
+    @Test
+    public void testJoinChainOverBudget() throws Exception {
+        // Each dimension fits on its own but not both at the same time
+        pigServer.getPigContext().getProperties().setProperty(
+                PigConfiguration.PIG_AUTO_REPLICATED_JOIN_MAX_BYTES, "30");
+        PhysicalPlan pp = Util.buildPp(pigServer,
+                "f = load '" + FACT + "' as (id:int, k:int);" +
+                "d1 = load '" + DIM1 + "' as (id:int, name:chararray);" +
+                "d2 = load '" + DIM2 + "' as (k:int, label:chararray);" +
+                "j1 = join f by id, d1 by id;" +
+                "j2 = join j1 by f::k, d2 by k;" +
+                "store j2 into 'output';");
+        assertEquals(1, PlanHelper.getPhysicalOperators(pp, POFRJoin.class).size());
+        assertEquals(1, PlanHelper.getPhysicalOperators(pp, POPackage.class).size());
+    }
+
+    @Test
+    public void testJoinChainAfterShuffle() throws Exception {
+        pigServer.getPigContext().getProperties().setProperty(
+                PigConfiguration.PIG_AUTO_REPLICATED_JOIN_MAX_BYTES, "30");
+        PhysicalPlan pp = Util.buildPp(pigServer,
+                "f = load '" + FACT + "' as (id:int, k:int);" +
+                "g = load '" + FACT + "' as (id:int, k:int);" +
+                "d2 = load '" + DIM2 + "' as (k:int, label:chararray);" +
+                "j1 = join f by id, g by id;" +
+                "j2 = join j1 by f::k, d2 by k;" +
+                "store j2 into 'output';");
+        // The replicated join runs after the shuffle of the hash join
+        assertEquals(1, PlanHelper.getPhysicalOperators(pp, POFRJoin.class).size());
+        assertEquals(1, PlanHelper.getPhysicalOperators(pp, POPackage.class).size());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        pigServer.getPigContext().getProperties().setProperty(
+                PigConfiguration.PIG_AUTO_REPLICATED_JOIN, "false");
+        PhysicalPlan pp = Util.buildPp(pigServer,
+                "f = load '" + FACT + "' as (id:int, k:int);" +
+                "d1 = load '" + DIM1 + "' as (id:int, name:chararray);" +
+                "j1 = join f by id, d1 by id;" +
+                "store j1 into 'output';");
+        assertEquals(0, PlanHelper.getPhysicalOperators(pp, POFRJoin.class).size());
+    }
+
+    @Test
+    public void testJoinChainResult() throws Exception {
+        pigServer.registerQuery("f = load '" + FACT + "' as (id:int, k:int);");
+        pigServer.registerQuery("d1 = load '" + DIM1 + "' as (id:int, name:chararray);");
+        pigServer.registerQuery("d2 = load '" + DIM2 + "' as (k:int, label:chararray);");
+        pigServer.registerQuery("j1 = join f by id, d1 by id;");
+        pigServer.registerQuery("j2 = join j1 by f::k, d2 by k;");
+        pigServer.registerQuery("r = foreach j2 generate f::id, name, label;");
+        Iterator<Tuple> iter = pigServer.openIterator("r");
+        List<Tuple> expected = Util.getTuplesFromConstantTupleStrings(new String[] {
+                "(1,'one','uno')", "(2,'two','dos')", "(3,'three','zero')"});
+        Util.checkQueryOutputs(iter, expected, true);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.pig.ExecType;
+import org.apache.pig.FuncSpec;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.PigServer;
+import org.apache.pig.ResourceStatistics;
+import org.apache.pig.backend.hadoop.datastorage.ConfigurationUtil;
+import org.apache.pig.backend.hadoop.executionengine.mapReduceLayer.InputSizeReducerEstimator;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLoad;
+import org.apache.pig.builtin.PigStorage;
+import org.apache.pig.impl.PigContext;
+import org.apache.pig.impl.io.FileSpec;
+import org.apache.pig.impl.plan.OperatorKey;
+import org.apache.pig.newplan.Operator;
+import org.apache.pig.newplan.logical.optimizer.StatisticsEstimator;
+import org.apache.pig.newplan.logical.relational.LOLoad;
+import org.apache.pig.newplan.logical.relational.LogicalPlan;
+import org.apache.pig.tools.pigstats.FileStatisticsStore;
+import org.apache.pig.tools.pigstats.OutputStats;
+import org.apache.pig.tools.pigstats.PigStats;
+import org.apache.pig.tools.pigstats.StatisticsStore;
+import org.apache.pig.tools.pigstats.StatisticsStoreUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestStatisticsStore {
+    private static final String INPUT_DIR = Util.getTestDirectory(TestStatisticsStore.class);
+
+    private Properties props;
+    private Configuration conf;
+
+    @Before
+    public void setUp() throws Exception {
+        FileUtils.deleteDirectory(new File(INPUT_DIR));
+        props = new Properties();
+        props.setProperty(PigConfiguration.PIG_STATS_STORE_ENABLED, "true");
+        props.setProperty(PigConfiguration.PIG_STATS_STORE_FILE, INPUT_DIR + "/stats");
+        conf = ConfigurationUtil.toConfiguration(props, false);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(new File(INPUT_DIR));
+    }
+
+    @Test
+    public void testFileStatisticsStore() throws Exception {
+        StatisticsStore store = StatisticsStoreUtil.getStatisticsStore(conf);
+        assertEquals(FileStatisticsStore.class, store.getClass());
+        assertNull(store.getStatistics("loc", conf));
+
+        store.putStatistics(Collections.singletonMap("loc", newStatistics(100L, 10L)), conf);
+        ResourceStatistics statistics = store.getStatistics("loc", conf);
+        assertEquals(100L, statistics.getSizeInBytes().longValue());
+        assertEquals(10L, statistics.getNumRecords().longValue());
+
+        // Unknown values do not replace the recorded ones
+        store.putStatistics(Collections.singletonMap("loc", newStatistics(null, 20L)), conf);
+        statistics = store.getStatistics("loc", conf);
+        assertEquals(100L, statistics.getSizeInBytes().longValue());
+        assertEquals(20L, statistics.getNumRecords().longValue());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        conf.setBoolean(PigConfiguration.PIG_STATS_STORE_ENABLED, false);
+        assertNull(StatisticsStoreUtil.getStatisticsStore(conf));
+        assertNull(StatisticsStoreUtil.getStatistics("loc", conf));
+    }
+
+    @Test
+    public void testRecordStatistics() throws Exception {
+        String input = INPUT_DIR + "/input";
+        Util.createFile(input, new String[] {"1", "2", "3", "4"});
+        PigServer pigServer = new PigServer(new PigContext(ExecType.LOCAL, props));
+        pigServer.setBatchOn();
+        pigServer.registerQuery("a = load '" + input + "' as (x:int);");
+        pigServer.registerQuery("a = filter a by x > 1;");
+        pigServer.registerQuery("store a into '" + INPUT_DIR + "/output';");
+        PigStats stats = pigServer.executeBatch().get(0).getStatistics();
+        OutputStats output = stats.getOutputStats().get(0);
+
+        ResourceStatistics statistics = StatisticsStoreUtil.getStatistics(output.getLocation(), conf);
+        assertNotNull(statistics);
+        assertEquals(3L, statistics.getNumRecords().longValue());
+        statistics = StatisticsStoreUtil.getStatistics(stats.getInputStats().get(0).getLocation(), conf);
+        assertNotNull(statistics);
+        assertEquals(4L, statistics.getNumRecords().longValue());
+    }
+
+    @Test
+    public void testEstimatorUsesRecordedStatistics() throws Exception {
+        String input = INPUT_DIR + "/input";
+        Util.createFile(input, new String[] {"1", "2", "3", "4"});
+        PigServer pigServer = new PigServer(new PigContext(ExecType.LOCAL, props));
+        LogicalPlan lp = Util.buildLp(pigServer,
+                "a = load '" + input + "' as (x:int);" +
+                "store a into '" + INPUT_DIR + "/output';" +
+                "b = load '" + INPUT_DIR + "/output' as (x:int);" +
+                "b = filter b by x > 1;" +
+                "store b into '" + INPUT_DIR + "/output2';");
+        LOLoad load = null;
+        Iterator<Operator> iter = lp.getOperators();
+        while (iter.hasNext()) {
+            Operator op = iter.next();
+            if (op instanceof LOLoad && lp.getPredecessors(op) != null) {
+                load = (LOLoad) op;
+            }
+        }
+        assertNotNull(load);
+
+        // The output of the first store does not exist yet
+        assertEquals(-1, new StatisticsEstimator(lp, conf).getSizeInBytes(load, Long.MAX_VALUE));
+
+        StatisticsStoreUtil.getStatisticsStore(conf).putStatistics(Collections.singletonMap(
+                load.getFileSpec().getFileName(), newStatistics(300L, 30L)), conf);
+        StatisticsEstimator estimator = new StatisticsEstimator(lp, conf);
+        assertEquals(300L, estimator.getSizeInBytes(load, Long.MAX_VALUE));
+        assertEquals(300L, estimator.getSizeInBytes(lp.getSuccessors(load).get(0), Long.MAX_VALUE));
+        assertEquals(30L, estimator.getNumRecords(load));
+    }
+
+    @Test
+    public void testReducerEstimatorUsesRecordedSize() throws Exception {
+        String location = INPUT_DIR + "/missing";
+        POLoad load = new POLoad(new OperatorKey("test", 1),
+                new FileSpec(location, new FuncSpec(PigStorage.class.getName())));
+        Job job = new Job(conf);
+        assertEquals(0, InputSizeReducerEstimator.getTotalInputFileSize(conf,
+                Collections.singletonList(load), job));
+
+        StatisticsStoreUtil.getStatisticsStore(conf).putStatistics(
+                Collections.singletonMap(location, newStatistics(500L, null)), conf);
+        assertEquals(500, InputSizeReducerEstimator.getTotalInputFileSize(conf,
+                Collections.singletonList(load), job));
+    }
+
+    private static ResourceStatistics newStatistics(Long bytes, Long records) {
+        ResourceStatistics statistics = new ResourceStatistics();
+        statistics.setSizeInBytes(bytes);
+        statistics.setNumRecords(records);
+        return statistics;
+    }
+}
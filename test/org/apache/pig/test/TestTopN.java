@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.pig.ExecType;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.PigServer;
+import org.apache.pig.backend.executionengine.ExecJob;
+import org.apache.pig.data.Tuple;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTopN {
+    private static final String TEST_DIR = Util.getTestDirectory(TestTopN.class);
+    private static final String INPUT = TEST_DIR + "/input";
+
+    @Before
+    public void setUp() throws Exception {
+        FileUtils.deleteDirectory(new File(TEST_DIR));
+        Util.createFile(INPUT, new String[] {"a\t5", "b\t2", "c\t9", "a\t3", "d\t1", "e\t7", "c\t4"});
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(new File(TEST_DIR));
+    }
+
+    @Test
+    public void testTopNAfterLoad() throws Exception {
+        String script = "A = load '" + Util.encodeEscape(INPUT) + "' as (k:chararray, v:int);"
+                + "B = order A by v desc;"
+                + "C = limit B 3;";
+        String[] expected = new String[] {"(c,9)", "(e,7)", "(a,5)"};
+
+        // Single job computing the top records in the map and merging them in one reducer
+        assertJobs(1, run(script, "out1", expected, new Properties()));
+
+        Properties props = new Properties();
+        props.setProperty(PigConfiguration.PIG_SORT_TOPN_MAX_LIMIT, "0");
+        assertJobs(4, run(script, "out2", expected, props));
+    }
+
+    @Test
+    public void testTopNAfterGroup() throws Exception {
+        String script = "A = load '" + Util.encodeEscape(INPUT) + "' as (k:chararray, v:int);"
+                + "B = group A by k;"
+                + "C = foreach B generate group, SUM(A.v) as s;"
+                + "D = order C by s desc, group;"
+                + "E = limit D 2;";
+        String[] expected = new String[] {"(c,13)", "(a,8)"};
+
+        assertJobs(2, run(script, "out1", expected, new Properties()));
+
+        Properties props = new Properties();
+        props.setProperty(PigConfiguration.PIG_SORT_TOPN_MAX_LIMIT, "1");
+        assertJobs(4, run(script, "out2", expected, props));
+    }
+
+    private void assertJobs(int expected, int actual) throws Exception {
+        if (Util.getLocalTestMode() == ExecType.LOCAL) {
+            assertEquals(expected, actual);
+        }
+    }
+
+    private int run(String script, String output, String[] expected, Properties props)
+            throws Exception {
+        PigServer pigServer = new PigServer(Util.getLocalTestMode(), props);
+        Util.registerMultiLineQuery(pigServer, script);
+        ExecJob job = pigServer.store(pigServer.getPigContext().getLastAlias(),
+                TEST_DIR + "/" + output);
+        assertEquals(ExecJob.JOB_STATUS.COMPLETED, job.getStatus());
+        List<String> results = new ArrayList<String>();
+        for (Iterator<Tuple> it = job.getResults(); it.hasNext();) {
+            results.add(it.next().toString());
+        }
+        assertEquals(Arrays.asList(expected), results);
+        return job.getStatistics().getJobGraph().size();
+    }
+}
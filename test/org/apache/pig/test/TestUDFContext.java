@@ -20,15 +20,18 @@ package org.apache.pig.test;
 import static org.apache.pig.builtin.mock.Storage.resetData;
 import static org.apache.pig.builtin.mock.Storage.tuple;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.pig.PigServer;
 import org.apache.pig.ResourceSchema;
@@ -117,6 +120,47 @@ public class TestUDFContext {
 
     }
 
+    @Test
+    public void testSerialization() throws Exception {
+        UDFContext context = UDFContext.getUDFContext();
+        context.reset();
+        Properties props = context.getUDFProperties(PigStorage.class, new String[] {"sig"});
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            sb.append("long value ");
+        }
+        props.setProperty("long", sb.toString());
+        props.put("notString", new boolean[] {true, false});
+        context.getUDFProperties(PigStorage.class).setProperty("k", "v");
+        Properties sysProps = new Properties();
+        sysProps.setProperty("sys", "prop");
+        context.setClientSystemProps(sysProps);
+
+        Configuration conf = new Configuration(false);
+        context.serialize(conf);
+        try {
+            context.reset();
+            context.addJobConf(conf);
+            context.deserialize();
+            assertFalse(context.isUDFConfEmpty());
+            props = context.getUDFProperties(PigStorage.class, new String[] {"sig"});
+            assertEquals(sb.toString(), props.getProperty("long"));
+            assertTrue(Arrays.equals(new boolean[] {true, false}, (boolean[]) props.get("notString")));
+            assertEquals("v", context.getUDFProperties(PigStorage.class).getProperty("k"));
+            assertEquals(2, context.getUdfConfs().size());
+            assertEquals("prop", context.getClientSystemProps().getProperty("sys"));
+
+            // Configurations of older versions
+            conf.set("pig.client.sys.props", ObjectSerializer.serialize(sysProps));
+            context.deserialize();
+            assertEquals("prop", context.getClientSystemProps().getProperty("sys"));
+        } finally {
+            context.addJobConf(null);
+            context.setClientSystemProps(null);
+            context.reset();
+        }
+    }
+
     @Test
     public void testUDFContextSeparator() throws Exception {
 
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.tez;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.PigServer;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POLoad;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.util.PlanHelper;
+import org.apache.pig.backend.hadoop.executionengine.tez.TezLocalExecType;
+import org.apache.pig.data.Tuple;
+import org.apache.pig.impl.PigContext;
+import org.apache.pig.test.Util;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestTezBloomJoinPushdown {
+    private static final String INPUT_DIR = Util.getTestDirectory(TestTezBloomJoinPushdown.class);
+    private static final String FACT_TXT = INPUT_DIR + "/fact.txt";
+    private static final String FACT_ORC = INPUT_DIR + "/fact.orc";
+    private static final String DIM = INPUT_DIR + "/dim";
+
+    private PigServer pigServer;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        String[] fact = new String[1000];
+        for (int i = 0; i < fact.length; i++) {
+            fact[i] = i + "\tv" + i;
+        }
+        Util.createFile(FACT_TXT, fact);
+        Util.createFile(DIM, new String[] {"100\ta", "105\tb", "107\tc", "2000\td"});
+
+        PigServer pigServer = new PigServer(new PigContext(new TezLocalExecType(), new Properties()));
+        pigServer.registerQuery("a = load '" + FACT_TXT + "' as (id:int, v:chararray);");
+        pigServer.store("a", FACT_ORC, "OrcStorage");
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() throws Exception {
+        FileUtils.deleteDirectory(new File(INPUT_DIR));
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(PigConfiguration.PIG_BLOOMJOIN_LOADER_PUSHDOWN, "true");
+        pigServer = new PigServer(new PigContext(new TezLocalExecType(), props));
+    }
+
+    @Test
+    public void testRuntimeFilterColumn() throws Exception {
+        PhysicalPlan pp = Util.buildPp(pigServer,
+                "a = load '" + FACT_ORC + "' using OrcStorage();" +
+                "b = load '" + DIM + "' as (id:int, name:chararray);" +
+                "c = join a by id, b by id using 'bloom';" +
+                "store c into 'output';");
+        assertEquals("id", getLoad(pp, FACT_ORC).getRuntimeFilterColumn());
+        assertNull(getLoad(pp, DIM).getRuntimeFilterColumn());
+    }
+
+    @Test
+    public void testRuntimeFilterColumnRenamed() throws Exception {
+        PhysicalPlan pp = Util.buildPp(pigServer,
+                "a = load '" + FACT_ORC + "' using OrcStorage() as (x:int, y:chararray);" +
+                "a = filter a by y != 'v1';" +
+                "b = load '" + DIM + "' as (id:int, name:chararray);" +
+                "c = join a by x, b by id using 'bloom';" +
+                "store c into 'output';");
+        assertEquals("id", getLoad(pp, FACT_ORC).getRuntimeFilterColumn());
+    }
+
+    @Test
+    public void testNoRuntimeFilterColumnForExpression() throws Exception {
+        PhysicalPlan pp = Util.buildPp(pigServer,
+                "a = load '" + FACT_ORC + "' using OrcStorage();" +
+                "a = foreach a generate id + 1 as id, v;" +
+                "b = load '" + DIM + "' as (id:int, name:chararray);" +
+                "c = join a by id, b by id using 'bloom';" +
+                "store c into 'output';");
+        assertNull(getLoad(pp, FACT_ORC).getRuntimeFilterColumn());
+    }
+
+    @Test
+    public void testNoRuntimeFilterColumnWhenDisabled() throws Exception {
+        pigServer.getPigContext().getProperties().setProperty(
+                PigConfiguration.PIG_BLOOMJOIN_LOADER_PUSHDOWN, "false");
+        PhysicalPlan pp = Util.buildPp(pigServer,
+                "a = load '" + FACT_ORC + "' using OrcStorage();" +
+                "b = load '" + DIM + "' as (id:int, name:chararray);" +
+                "c = join a by id, b by id using 'bloom';" +
+                "store c into 'output';");
+        assertNull(getLoad(pp, FACT_ORC).getRuntimeFilterColumn());
+    }
+
+    @Test
+    public void testJoinWithPushdown() throws Exception {
+        pigServer.registerQuery("a = load '" + FACT_ORC + "' using OrcStorage();");
+        pigServer.registerQuery("b = load '" + DIM + "' as (id:int, name:chararray);");
+        pigServer.registerQuery("c = join a by id, b by id using 'bloom';");
+        pigServer.registerQuery("d = foreach c generate a::id, v, name;");
+        Iterator<Tuple> iter = pigServer.openIterator("d");
+        List<Tuple> expected = Util.getTuplesFromConstantTupleStrings(new String[] {
+                "(100,'v100','a')", "(105,'v105','b')", "(107,'v107','c')"});
+        Util.checkQueryOutputs(iter, expected, true);
+    }
+
+    @Test
+    public void testJoinWithKeyRange() throws Exception {
+        pigServer.registerQuery("a = load '" + FACT_TXT + "' as (id:int, v:chararray);");
+        pigServer.registerQuery("b = load '" + DIM + "' as (id:int, name:chararray);");
+        pigServer.registerQuery("b = filter b by id < 1000;");
+        pigServer.registerQuery("c = join a by id, b by id using 'bloom';");
+        pigServer.registerQuery("d = foreach c generate a::id, v, name;");
+        Iterator<Tuple> iter = pigServer.openIterator("d");
+        List<Tuple> expected = Util.getTuplesFromConstantTupleStrings(new String[] {
+                "(100,'v100','a')", "(105,'v105','b')", "(107,'v107','c')"});
+        Util.checkQueryOutputs(iter, expected, true);
+    }
+
+    private POLoad getLoad(PhysicalPlan pp, String location) throws Exception {
+        for (POLoad load : PlanHelper.getPhysicalOperators(pp, POLoad.class)) {
+            if (load.getLFile().getFileName().endsWith(location)) {
+                return load;
+            }
+        }
+        assertNotNull("Load of " + location, null);
+        return null;
+    }
+}
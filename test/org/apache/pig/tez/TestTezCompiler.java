@@ -95,6 +95,7 @@ public class TestTezCompiler {
         pc.getProperties().remove(PigConfiguration.PIG_TEZ_OPT_UNION);
         pc.getProperties().remove(PigConfiguration.PIG_EXEC_NO_SECONDARY_KEY);
         pc.getProperties().remove(PigConfiguration.PIG_BLOOMJOIN_STRATEGY);
+        pc.getProperties().remove(PigConfiguration.PIG_SORT_TOPN_MAX_LIMIT);
         pigServer = new PigServer(pc);
     }
 
@@ -572,9 +573,21 @@ public class TestTezCompiler {
                 "c = limit b 10;" +
                 "store c into 'file:///tmp/pigoutput';";
 
+        pc.getProperties().setProperty(PigConfiguration.PIG_SORT_TOPN_MAX_LIMIT, "0");
         run(query, "test/org/apache/pig/test/data/GoldenFiles/tez/TEZC-Limit-2.gld");
     }
 
+    @Test
+    public void testTopNOrderby() throws Exception {
+        String query =
+                "a = load 'file:///tmp/input' as (x:int, y:int);" +
+                "b = order a by x, y;" +
+                "c = limit b 10;" +
+                "store c into 'file:///tmp/pigoutput';";
+
+        run(query, "test/org/apache/pig/test/data/GoldenFiles/tez/TEZC-Limit-5.gld");
+    }
+
     @Test
     public void testLimitScalarOrderby() throws Exception {
         String query =
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.tez;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.PigServer;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POPackage;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POPartialAgg;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.util.PlanHelper;
+import org.apache.pig.backend.hadoop.executionengine.tez.TezLocalExecType;
+import org.apache.pig.backend.hadoop.executionengine.tez.plan.TezEdgeDescriptor;
+import org.apache.pig.backend.hadoop.executionengine.tez.plan.TezOperPlan;
+import org.apache.pig.backend.hadoop.executionengine.tez.plan.TezOperator;
+import org.apache.pig.backend.hadoop.executionengine.tez.runtime.HashGroupingReader;
+import org.apache.pig.data.Tuple;
+import org.apache.pig.data.TupleFactory;
+import org.apache.pig.impl.PigContext;
+import org.apache.pig.impl.io.NullableText;
+import org.apache.pig.impl.io.NullableTuple;
+import org.apache.pig.test.Util;
+import org.apache.tez.runtime.library.api.KeyValueReader;
+import org.apache.tez.runtime.library.input.UnorderedKVInput;
+import org.apache.tez.runtime.library.output.UnorderedPartitionedKVOutput;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestTezHashGrouping {
+    private static final String INPUT_DIR = Util.getTestDirectory(TestTezHashGrouping.class);
+    private static final String INPUT = INPUT_DIR + "/input";
+
+    private PigServer pigServer;
+    private PigContext pc;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        String[] input = new String[100];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (i % 10 == 9 ? "" : "k" + (i % 3)) + "\t" + i;
+        }
+        Util.createFile(INPUT, input);
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() throws Exception {
+        FileUtils.deleteDirectory(new File(INPUT_DIR));
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(PigConfiguration.PIG_TEZ_HASH_GROUPING, "true");
+        pigServer = new PigServer(new PigContext(new TezLocalExecType(), props));
+        pc = pigServer.getPigContext();
+        pc.connect();
+    }
+
+    @Test
+    public void testHashGroupingPlan() throws Exception {
+        TezOperator groupOp = getGroupOperator(
+                "a = load 'x' as (k:chararray, v:int);" +
+                "b = group a by k;" +
+                "c = foreach b generate group, COUNT(a), SUM(a.v);" +
+                "store c into 'output';");
+        assertTrue(groupOp.isUseHashGrouping());
+        TezEdgeDescriptor edge = groupOp.inEdges.values().iterator().next();
+        assertEquals(UnorderedKVInput.class.getName(), edge.inputClassName);
+        assertEquals(UnorderedPartitionedKVOutput.class.getName(), edge.outputClassName);
+        assertTrue(edge.combinePlan.isEmpty());
+    }
+
+    @Test
+    public void testNotCombinable() throws Exception {
+        TezOperator groupOp = getGroupOperator(
+                "a = load 'x' as (k:chararray, v:int);" +
+                "b = group a by k;" +
+                "c = foreach b generate group, a.v;" +
+                "store c into 'output';");
+        assertFalse(groupOp.isUseHashGrouping());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        pc.getProperties().setProperty(PigConfiguration.PIG_TEZ_HASH_GROUPING, "false");
+        TezOperator groupOp = getGroupOperator(
+                "a = load 'x' as (k:chararray, v:int);" +
+                "b = group a by k;" +
+                "c = foreach b generate group, COUNT(a);" +
+                "store c into 'output';");
+        assertFalse(groupOp.isUseHashGrouping());
+        assertFalse(groupOp.inEdges.values().iterator().next().combinePlan.isEmpty());
+    }
+
+    @Test
+    public void testHashGroupingResult() throws Exception {
+        pigServer.registerQuery("a = load '" + INPUT + "' as (k:chararray, v:int);");
+        pigServer.registerQuery("b = group a by k;");
+        pigServer.registerQuery("c = foreach b generate group, COUNT(a), SUM(a.v);");
+        Iterator<Tuple> iter = pigServer.openIterator("c");
+        List<Tuple> expected = Util.getTuplesFromConstantTupleStrings(new String[] {
+                "('k0',30L,1467L)", "('k1',30L,1470L)", "('k2',30L,1473L)", "(null,0L,540L)"});
+        Util.checkQueryOutputs(iter, expected, true);
+    }
+
+    @Test
+    public void testReaderSpill() throws Exception {
+        final List<String> keys = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add("k" + (i % 50));
+        }
+        KeyValueReader reader = new KeyValueReader() {
+            private int i = -1;
+
+            @Override
+            public boolean next() throws IOException {
+                return ++i < keys.size();
+            }
+
+            @Override
+            public Object getCurrentKey() throws IOException {
+                return new NullableText(keys.get(i));
+            }
+
+            @Override
+            public Object getCurrentValue() throws IOException {
+                return new NullableTuple(TupleFactory.getInstance().newTuple((Object) i));
+            }
+        };
+        Configuration conf = new Configuration(false);
+        // Spill as soon as anything is held in memory
+        conf.set(PigConfiguration.PIG_CACHEDBAG_MEMUSAGE, "0.00000001");
+        HashGroupingReader grouping = new HashGroupingReader(Collections.singletonList(reader), conf);
+
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        while (grouping.next()) {
+            String key = (String) grouping.getCurrentKey().getValueAsPigType();
+            assertNull("Key " + key + " returned twice", counts.get(key));
+            counts.put(key, grouping.getCurrentValues().size());
+            for (NullableTuple value : grouping.getCurrentValues()) {
+                int i = (Integer) ((Tuple) value.getValueAsPigType()).get(0);
+                assertEquals(keys.get(i), key);
+            }
+        }
+        assertEquals(50, counts.size());
+        for (Integer count : counts.values()) {
+            assertEquals(20, count.intValue());
+        }
+    }
+
+    private TezOperator getGroupOperator(String query) throws Exception {
+        TezOperPlan tezPlan = TezUtil.buildTezPlanContainer(query, pc).getRoots().get(0).getTezOperPlan();
+        for (TezOperator tezOp : tezPlan) {
+            if (!PlanHelper.getPhysicalOperators(tezOp.plan, POPackage.class).isEmpty()) {
+                if (tezOp.isUseHashGrouping()) {
+                    // Unordered outputs need map side partial aggregation
+                    TezOperator pred = tezPlan.getPredecessors(tezOp).get(0);
+                    assertFalse(PlanHelper.getPhysicalOperators(pred.plan, POPartialAgg.class).isEmpty());
+                }
+                return tezOp;
+            }
+        }
+        throw new AssertionError("No group vertex in plan");
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.pig.tez;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.pig.PigConfiguration;
+import org.apache.pig.PigServer;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POFRJoin;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.relationalOperators.POPackage;
+import org.apache.pig.backend.hadoop.executionengine.physicalLayer.util.PlanHelper;
+import org.apache.pig.backend.hadoop.executionengine.tez.TezLocalExecType;
+import org.apache.pig.impl.PigContext;
+import org.apache.pig.test.Util;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestTezJoinStrategySelector {
+    private static final String INPUT_DIR = Util.getTestDirectory(TestTezJoinStrategySelector.class);
+    private static final String LARGE = INPUT_DIR + "/large";
+    private static final String SMALL = INPUT_DIR + "/small";
+
+    private PigServer pigServer;
+
+    @BeforeClass
+    public static void oneTimeSetUp() throws Exception {
+        String[] large = new String[1000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = i + "\t" + (i % 10);
+        }
+        Util.createFile(LARGE, large);
+        Util.createFile(SMALL, new String[] {"1\tone", "2\ttwo", "3\tthree"});
+    }
+
+    @AfterClass
+    public static void oneTimeTearDown() throws Exception {
+        FileUtils.deleteDirectory(new File(INPUT_DIR));
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Properties props = new Properties();
+        props.setProperty(PigConfiguration.PIG_TEZ_AUTO_REPLICATED_JOIN, "true");
+        props.setProperty(PigConfiguration.PIG_TEZ_AUTO_REPLICATED_JOIN_MAX_BYTES, "1024");
+        pigServer = new PigServer(new PigContext(new TezLocalExecType(), props));
+    }
+
+    @Test
+    public void testSmallRightInputReplicated() throws Exception {
+        PhysicalPlan pp = buildPp(
+                "a = load '" + LARGE + "' as (x:int, y:int);" +
+                "b = load '" + SMALL + "' as (x:int, s:chararray);" +
+                "b = filter b by x > 1;" +
+                "c = join a by x, b by x;" +
+                "store c into 'output';");
+        assertEquals(1, PlanHelper.getPhysicalOperators(pp, POFRJoin.class).size());
+        assertEquals(0, PlanHelper.getPhysicalOperators(pp, POPackage.class).size());
+    }
+
+    @Test
+    public void testLeftOuterReplicated() throws Exception {
+        PhysicalPlan pp = buildPp(
+                "a = load '" + LARGE + "' as (x:int, y:int);" +
+                "b = load '" + SMALL + "' as (x:int, s:chararray);" +
+                "c = join a by x left outer, b by x;" +
+                "store c into 'output';");
+        assertEquals(1, PlanHelper.getPhysicalOperators(pp, POFRJoin.class).size());
+    }
+
+    @Test
+    public void testLargeRightInputNotReplicated() throws Exception {
+        PhysicalPlan pp = buildPp(
+                "a = load '" + SMALL + "' as (x:int, s:chararray);" +
+                "b = load '" + LARGE + "' as (x:int, y:int);" +
+                "c = join a by x, b by x;" +
+                "store c into 'output';");
+        assertEquals(0, PlanHelper.getPhysicalOperators(pp, POFRJoin.class).size());
+        assertEquals(1, PlanHelper.getPhysicalOperators(pp, POPackage.class).size());
+    }
+
+    @Test
+    public void testRightOuterNotReplicated() throws Exception {
+        PhysicalPlan pp = buildPp(
+                "a = load '" + LARGE + "' as (x:int, y:int);" +
+                "b = load '" + SMALL + "' as (x:int, s:chararray);" +
+                "c = join a by x right outer, b by x;" +
+                "store c into 'output';");
+        assertEquals(0, PlanHelper.getPhysicalOperators(pp, POFRJoin.class).size());
+    }
+
+    @Test
+    public void testUnknownSizeNotReplicated() throws Exception {
+        PhysicalPlan pp = buildPp(
+                "a = load '" + LARGE + "' as (x:int, y:int);" +
+                "b = load '" + SMALL + "' as (x:int, s:chararray);" +
+                "b = group b by x;" +
+                "b = foreach b generate group as x, COUNT(b) as c;" +
+                "c = join a by x, b by x;" +
+                "store c into 'output';");
+        assertEquals(0, PlanHelper.getPhysicalOperators(pp, POFRJoin.class).size());
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        pigServer.getPigContext().getProperties().setProperty(
+                PigConfiguration.PIG_TEZ_AUTO_REPLICATED_JOIN, "false");
+        PhysicalPlan pp = buildPp(
+                "a = load '" + LARGE + "' as (x:int, y:int);" +
+                "b = load '" + SMALL + "' as (x:int, s:chararray);" +
+                "c = join a by x, b by x;" +
+                "store c into 'output';");
+        assertEquals(0, PlanHelper.getPhysicalOperators(pp, POFRJoin.class).size());
+    }
+
+    private PhysicalPlan buildPp(String query) throws Exception {
+        return Util.buildPp(pigServer, query);
+    }
+}
@@ -23,6 +23,7 @@ import static org.junit.Assert.assertTrue;
 import java.util.Arrays;
 import java.util.Iterator;
 
+import org.apache.pig.PigConfiguration;
 import org.apache.pig.PigServer;
 import org.apache.pig.backend.hadoop.executionengine.physicalLayer.plans.PhysicalPlan;
 import org.apache.pig.backend.hadoop.executionengine.tez.TezExecType;
@@ -122,6 +123,44 @@ public class TestTezLauncher {
         assertEquals(count, OUTPUT_RECORDS.length);
     }
 
+    @Test
+    public void testDAGConcurrency() throws Exception {
+        String query =
+                "a = load '" + INPUT_FILE + "' as (x:int, y:chararray);" +
+                "b = filter a by x > 100;" +
+                "store b into '" + OUTPUT_FILE + "_1';" +
+                "c = load '" + OUTPUT_FILE + "_1' as (x:int, y:chararray);" +
+                "d = foreach c generate y;" +
+                "store d into '" + OUTPUT_FILE + "';" +
+                "e = group a by y;" +
+                "f = foreach e generate group, COUNT(a);" +
+                "store f into '" + OUTPUT_FILE + "_2';";
+
+        pc.getProperties().setProperty(PigConfiguration.PIG_TEZ_DAG_CONCURRENCY, "2");
+        try {
+            PhysicalPlan pp = Util.buildPp(pigServer, query);
+            TezLauncher launcher = new TezLauncher();
+            PigStats pigStats = launcher.launchPig(pp, "testDAGConcurrency", pc);
+            assertTrue(pigStats.isSuccessful());
+            assertEquals(2, pigStats.getJobGraph().size());
+            assertEquals(3, pigStats.getOutputStats().size());
+
+            pigServer = new PigServer(pc);
+            pigServer.registerQuery("m = load '" + OUTPUT_FILE + "' as (y:chararray);");
+            Iterator<Tuple> iter = pigServer.openIterator("m");
+            int count = 0;
+            while (iter.hasNext()) {
+                iter.next();
+                count++;
+            }
+            assertEquals(5, count);
+        } finally {
+            pc.getProperties().remove(PigConfiguration.PIG_TEZ_DAG_CONCURRENCY);
+            Util.deleteFile(cluster, OUTPUT_FILE + "_1");
+            Util.deleteFile(cluster, OUTPUT_FILE + "_2");
+        }
+    }
+
     @Test
     public void testQueueName() throws Exception {
         TezConfiguration conf = new TezConfiguration();